@@ -1,21 +1,39 @@
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
+import dungeon.BatchReport;
+import dungeon.BatchRunner;
 import dungeon.Dungeon;
 import dungeon.DungeonConsoleController;
 import dungeon.DungeonController;
 import dungeon.DungeonModel;
+import dungeon.DungeonPool;
+import dungeon.DungeonServer;
+import dungeon.DungeonSpec;
 import dungeon.Location;
 import dungeon.Move;
+import dungeon.ScriptResult;
+import dungeon.SessionExecution;
 import randomizer.GameRandomizer;
 import randomizer.Randomizer;
+import randomizer.SplittableRandomizer;
 
 /**
  * Driver class that acts as controller for the Dungeon.
  */
 public class Driver {
+  private static final int DEFAULT_MAXIMUM_SESSIONS = 64;
+  private static final int DEFAULT_IDLE_SECONDS = 300;
+  private static final int MAXIMUM_IDLE_SECONDS = Integer.MAX_VALUE / 1000;
+  private static final int POOL_DEPTH = 8;
+  private static final int POOL_WORKERS = 2;
 
   /**
    * Driver method to run the application.
@@ -23,6 +41,14 @@ public class Driver {
    * @param args Arguments to the main method.
    */
   public static void main(String[] args) throws IOException {
+    if (args.length > 0 && args[0].equals("--server")) {
+      runServer(args);
+      return;
+    }
+    if (args.length > 0 && args[0].equals("--batch")) {
+      runBatch(args);
+      return;
+    }
     if (args.length < 6) {
       System.out.println("Please enter all parameters");
     }
@@ -51,6 +77,14 @@ public class Driver {
     }
     boolean wrapped = Boolean.parseBoolean(args[2]);
     Randomizer randomizer = new GameRandomizer();
+    if (args.length > 6) {
+      try {
+        randomizer = new SplittableRandomizer(Long.parseLong(args[6]));
+      } catch (NumberFormatException e) {
+        System.out.println("Seed has to be an Integer");
+        System.exit(0);
+      }
+    }
     Dungeon dungeon = new DungeonModel(
             rows, columns, wrapped, interconnectivity, treasurePercentage, numberOfMonsters,
             randomizer);
@@ -59,6 +93,94 @@ public class Driver {
     controller.play(dungeon);
   }
 
+  private static void runServer(String[] args) throws IOException {
+    InetAddress address = InetAddress.getLoopbackAddress();
+    if (args.length > 1 && args[1].equals("--all-interfaces")) {
+      address = InetAddress.getByName("0.0.0.0");
+      args = Arrays.copyOfRange(args, 1, args.length);
+    }
+    if (args.length < 8) {
+      System.out.println("Please enter --server [--all-interfaces] port rows columns wrapped "
+              + "interconnectivity treasureAndArrowPercentage numberOfMonsters "
+              + "[maximumSessions] [idleSeconds]");
+      return;
+    }
+    int[] values = new int[9];
+    values[7] = DEFAULT_MAXIMUM_SESSIONS;
+    values[8] = DEFAULT_IDLE_SECONDS;
+    try {
+      for (int i = 1; i < Math.min(args.length, 10); i++) {
+        if (i != 4) {
+          values[i - 1] = Integer.parseInt(args[i]);
+        }
+      }
+    } catch (NumberFormatException e) {
+      System.out.println("Port, Rows, Columns, Interconnectivity, Treasure Percentage, Number of "
+              + "monsters, Maximum sessions and Idle seconds have to be Integers");
+      return;
+    }
+    if (!(args[4].equalsIgnoreCase("true") || args[4].equalsIgnoreCase("false"))) {
+      System.out.println("Wrapped has to be true or false");
+      return;
+    }
+    if (values[8] <= 0 || values[8] > MAXIMUM_IDLE_SECONDS) {
+      System.out.println("Idle seconds has to be between 1 and " + MAXIMUM_IDLE_SECONDS);
+      return;
+    }
+    DungeonSpec spec = new DungeonSpec(values[1], values[2], Boolean.parseBoolean(args[4]),
+            values[4], values[5], values[6], 0);
+    try (DungeonPool pool = new DungeonPool(POOL_DEPTH, POOL_WORKERS, System.nanoTime());
+         DungeonServer server = new DungeonServer(values[0], address,
+                 values[7], values[8] * 1000, () -> pool.take(spec),
+                 SessionExecution.VIRTUAL_THREADS)) {
+      pool.register(spec);
+      server.start();
+      System.out.println("Listening on port " + server.getPort() + ", press Enter to stop");
+      System.in.read();
+    }
+  }
+
+  private static void runBatch(String[] args) throws IOException {
+    if (args.length < 10) {
+      System.out.println("Please enter --batch rows columns wrapped interconnectivity "
+              + "treasureAndArrowPercentage numberOfMonsters seed repetitions script...");
+      return;
+    }
+    int[] values = new int[8];
+    long seed;
+    try {
+      for (int i = 1; i < 9; i++) {
+        if (i != 3 && i != 7) {
+          values[i - 1] = Integer.parseInt(args[i]);
+        }
+      }
+      seed = Long.parseLong(args[7]);
+    } catch (NumberFormatException e) {
+      System.out.println("Rows, Columns, Interconnectivity, Treasure Percentage, Number of "
+              + "monsters, Seed and Repetitions have to be Integers");
+      return;
+    }
+    if (!(args[3].equalsIgnoreCase("true") || args[3].equalsIgnoreCase("false"))) {
+      System.out.println("Wrapped has to be true or false");
+      return;
+    }
+    DungeonSpec spec = new DungeonSpec(values[0], values[1], Boolean.parseBoolean(args[3]),
+            values[3], values[4], values[5], seed);
+    BatchRunner runner = new BatchRunner(spec, Runtime.getRuntime().availableProcessors());
+    for (int i = 9; i < args.length; i++) {
+      runner.add(args[i], new String(Files.readAllBytes(Paths.get(args[i])),
+              StandardCharsets.UTF_8));
+    }
+    BatchReport report = runner.run(values[7]);
+    for (ScriptResult script : report.getScripts()) {
+      System.out.println(script);
+    }
+    System.out.println(report);
+    if (report.hasDivergence()) {
+      System.exit(1);
+    }
+  }
+
   private static StringBuilder visualizeKruskals(Dungeon dungeon) {
     List<List<Location>> maze = dungeon.getMaze();
     Location startLocation = dungeon.getStartLocation();
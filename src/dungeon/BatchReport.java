@@ -0,0 +1,103 @@
+package dungeon;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the outcome of a run of a {@link BatchRunner}: the result of every script and how fast
+ * the games were played.
+ */
+public final class BatchReport {
+  private final List<ScriptResult> scripts;
+  private final long elapsedNanos;
+  private final int games;
+  private final long turns;
+
+  //package-private
+  BatchReport(List<ScriptResult> scripts, long elapsedNanos) {
+    this.scripts = Collections.unmodifiableList(scripts);
+    this.elapsedNanos = elapsedNanos;
+    int gameCount = 0;
+    long turnCount = 0;
+    for (ScriptResult script : scripts) {
+      gameCount += script.getGames();
+      turnCount += script.getTurns();
+    }
+    this.games = gameCount;
+    this.turns = turnCount;
+  }
+
+  /**
+   * Returns the results of the scripts, in the order they were added.
+   *
+   * @return the unmodifiable list of results.
+   */
+  public List<ScriptResult> getScripts() {
+    return scripts;
+  }
+
+  /**
+   * Returns whether any script diverged.
+   *
+   * @return true if a script diverged.
+   */
+  public boolean hasDivergence() {
+    for (ScriptResult script : scripts) {
+      if (script.hasDiverged()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of games played.
+   *
+   * @return the number of games.
+   */
+  public int getGames() {
+    return games;
+  }
+
+  /**
+   * Returns the number of turns played in all the games.
+   *
+   * @return the number of turns.
+   */
+  public long getTurns() {
+    return turns;
+  }
+
+  /**
+   * Returns the time taken to play all the games.
+   *
+   * @return the elapsed time in nanoseconds.
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * Returns the number of games played per second.
+   *
+   * @return the games per second.
+   */
+  public double getGamesPerSecond() {
+    return elapsedNanos <= 0 ? 0 : games * 1e9 / elapsedNanos;
+  }
+
+  /**
+   * Returns the number of turns played per second.
+   *
+   * @return the turns per second.
+   */
+  public double getTurnsPerSecond() {
+    return elapsedNanos <= 0 ? 0 : turns * 1e9 / elapsedNanos;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d games, %d turns in %.1f ms: %.0f games/s, %.0f turns/s", games,
+            turns, elapsedNanos / 1e6, getGamesPerSecond(), getTurnsPerSecond());
+  }
+}
@@ -0,0 +1,155 @@
+package dungeon;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays scripts through {@link DungeonConsoleController} without a console, on all the given
+ * threads at once, for smoke testing and to measure how fast games are played. Every game is
+ * played on a new game of the same dungeon, built once from a {@link DungeonSpec}, so a script
+ * prints the same output every time it is played.
+ * A script is either a list of commands, fed to the game a line per read, or a transcript
+ * captured from a console, starting with the welcome message of the game. A transcript is fed
+ * the lines typed by its player, and the script diverges if the game prints anything other than
+ * the transcript holds. A script also diverges if its repetitions print different output.
+ * The output of the games is only hashed, see {@link ScriptResult#getOutputHash()}.
+ */
+public final class BatchRunner {
+  private final DungeonSpec spec;
+  private final int threads;
+  private final List<String> names;
+  private final List<String> scripts;
+
+  /**
+   * Creates a runner with no scripts.
+   *
+   * @param spec    the spec of the dungeon every game is played on.
+   * @param threads the number of games played at the same time.
+   * @throws IllegalArgumentException if spec is null or threads is not positive.
+   */
+  public BatchRunner(DungeonSpec spec, int threads) throws IllegalArgumentException {
+    if (spec == null) {
+      throw new IllegalArgumentException("Spec cannot be null");
+    }
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Threads must be positive");
+    }
+    this.spec = spec;
+    this.threads = threads;
+    this.names = new ArrayList<>();
+    this.scripts = new ArrayList<>();
+  }
+
+  /**
+   * Adds a script to play.
+   *
+   * @param name   the name the script is reported with.
+   * @param script the commands or the transcript to play.
+   * @throws IllegalArgumentException if name or script is null.
+   */
+  public void add(String name, String script) throws IllegalArgumentException {
+    if (name == null || script == null) {
+      throw new IllegalArgumentException("Name and script cannot be null");
+    }
+    names.add(name);
+    scripts.add(script);
+  }
+
+  /**
+   * Plays every script the given number of times and waits for all the games to end.
+   *
+   * @param repetitions the number of games played from each script.
+   * @return the report of the run.
+   * @throws IllegalArgumentException if repetitions is not positive or the spec is not valid.
+   * @throws IllegalStateException    if the run is interrupted.
+   */
+  public BatchReport run(int repetitions) throws IllegalArgumentException, IllegalStateException {
+    if (repetitions <= 0) {
+      throw new IllegalArgumentException("Repetitions must be positive");
+    }
+    DungeonModel template = spec.buildTemplate();
+    ExecutorService workers = Executors.newFixedThreadPool(threads,
+            SessionExecution.PLATFORM_THREADS.newThreadFactory("dungeon-batch-"));
+    try {
+      long start = System.nanoTime();
+      List<Future<Game>> games = new ArrayList<>();
+      for (String script : scripts) {
+        for (int i = 0; i < repetitions; i++) {
+          games.add(workers.submit(() -> play(template, script)));
+        }
+      }
+      List<Game> played = new ArrayList<>();
+      for (Future<Game> game : games) {
+        played.add(game.get());
+      }
+      long elapsed = System.nanoTime() - start;
+      List<ScriptResult> results = new ArrayList<>();
+      for (int s = 0; s < scripts.size(); s++) {
+        results.add(summarize(names.get(s), played.subList(s * repetitions,
+                (s + 1) * repetitions)));
+      }
+      return new BatchReport(results, elapsed);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Batch run interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Game failed", e.getCause());
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  private Game play(DungeonModel template, String script) {
+    ScriptPlayer player = new ScriptPlayer(script, ScriptPlayer.isTranscript(script));
+    DungeonConsoleController controller = new DungeonConsoleController(player, player);
+    try {
+      controller.play(spec.newGame(template));
+    } catch (NoSuchElementException e) {
+      //the script ended before the game
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    player.finish();
+    return new Game(controller.getRenderMetrics().getTurns(), player.getHash(),
+            player.getDivergence());
+  }
+
+  private static ScriptResult summarize(String name, List<Game> games) {
+    long turns = 0;
+    String divergence = null;
+    long hash = games.get(0).hash;
+    for (int i = 0; i < games.size(); i++) {
+      Game game = games.get(i);
+      turns += game.turns;
+      if (divergence == null && game.divergence != null) {
+        divergence = game.divergence;
+      } else if (divergence == null && game.hash != hash) {
+        divergence = "repetition " + (i + 1) + " printed other output than the first";
+      }
+    }
+    return new ScriptResult(name, games.size(), turns, hash, divergence);
+  }
+
+  //What one game of a script did.
+  private static final class Game {
+    private final long turns;
+    private final long hash;
+    private final String divergence;
+
+    Game(long turns, long hash, String divergence) {
+      this.turns = turns;
+      this.hash = hash;
+      this.divergence = divergence;
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package dungeon;
+
+//package-private
+//Source of the initial treasure and arrows of the cells of a MazeGrid that are not stored in
+//the grid itself, such as lazily generated contents or contents read from a dungeon file.
+interface CellContents {
+
+  /**
+   * Returns the initial treasure of the given cell packed as in MazeGrid.
+   */
+  int getTreasureBits(int cell);
+
+  /**
+   * Returns the initial number of arrows of the given cell.
+   */
+  int getArrows(int cell);
+}
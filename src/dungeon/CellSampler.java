@@ -0,0 +1,90 @@
+package dungeon;
+
+import java.util.Arrays;
+
+import randomizer.Randomizer;
+
+//package-private
+//Draws distinct cells of a MazeGrid at random for placing treasure, arrows and monsters.
+//The candidate cell ids are collected in one linear pass, leaving out any excluded cells, and
+//every draw removes one candidate through a RemovalList. In SWAP mode this is a partial
+//Fisher-Yates shuffle, so drawing k cells costs O(k) after the pass.
+final class CellSampler {
+  private final RemovalList candidates;
+
+  /**
+   * Collects the candidate cells of the maze in increasing order.
+   *
+   * @param maze          the maze to draw cells from.
+   * @param cavesOnly     whether only caves are candidates.
+   * @param mode          how a drawn index picks a candidate.
+   * @param excludedCells cells that are never drawn.
+   * @throws IllegalArgumentException if maze, mode or the excluded cells are null.
+   */
+  CellSampler(MazeGrid maze, boolean cavesOnly, SamplingMode mode, int... excludedCells)
+          throws IllegalArgumentException {
+    if (maze == null || mode == null || excludedCells == null) {
+      throw new IllegalArgumentException("Please provide valid arguments");
+    }
+    int[] excluded = excludedCells.clone();
+    Arrays.sort(excluded);
+    int[] cells = new int[maze.getSize()];
+    int size = 0;
+    int nextExcluded = 0;
+    for (int cell = 0; cell < maze.getSize(); cell++) {
+      while (nextExcluded < excluded.length && excluded[nextExcluded] < cell) {
+        nextExcluded++;
+      }
+      if (nextExcluded < excluded.length && excluded[nextExcluded] == cell) {
+        continue;
+      }
+      if (!cavesOnly || maze.isCave(cell)) {
+        cells[size++] = cell;
+      }
+    }
+    this.candidates = new RemovalList(cells, size, mode);
+  }
+
+  /**
+   * Returns the number of cells left to draw.
+   */
+  int size() {
+    return candidates.size();
+  }
+
+  /**
+   * Draws one of the remaining cells, using a single value from the randomizer.
+   *
+   * @param randomizer the randomizer to draw from.
+   * @return the drawn cell.
+   * @throws IllegalStateException if no cells are left.
+   */
+  int draw(Randomizer randomizer) throws IllegalStateException {
+    if (candidates.size() == 0) {
+      throw new IllegalStateException("No cells left to draw");
+    }
+    return candidates.remove(randomizer.getRandomValue(0, candidates.size() - 1));
+  }
+
+  /**
+   * Draws the given number of the remaining cells, using one value from the randomizer for each
+   * cell drawn in a single bulk call.
+   *
+   * @param randomizer the randomizer to draw from.
+   * @param count      the number of cells to draw.
+   * @return the drawn cells in drawing order.
+   * @throws IllegalArgumentException if count is negative or more than the cells left.
+   */
+  int[] draw(Randomizer randomizer, int count) throws IllegalArgumentException {
+    if (count < 0 || count > candidates.size()) {
+      throw new IllegalArgumentException("Cannot draw " + count + " of "
+              + candidates.size() + " cells");
+    }
+    int[] cells = new int[count];
+    randomizer.fillSamplingIndices(cells, count, candidates.size());
+    for (int i = 0; i < count; i++) {
+      cells[i] = candidates.remove(cells[i]);
+    }
+    return cells;
+  }
+}
@@ -0,0 +1,186 @@
+package dungeon;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Gives a {@link CommandHandler} the game and turn being played and the input and output of
+ * its {@link DungeonConsoleController}, with the prompts and descriptions shared by several
+ * commands. A controller keeps one context for all its turns.
+ */
+//package-private
+final class CommandContext {
+  private final CommandTokenizer tokens;
+  private final TurnOutput output;
+  private final PipelineErrorPolicy errorPolicy;
+  private Dungeon model;
+  private Location location;
+
+  CommandContext(CommandTokenizer tokens, TurnOutput output, PipelineErrorPolicy errorPolicy) {
+    this.tokens = tokens;
+    this.output = output;
+    this.errorPolicy = errorPolicy;
+  }
+
+  /**
+   * Sets the game and the location of the player at the start of a turn.
+   */
+  void startTurn(Dungeon model, Location location) {
+    this.model = model;
+    this.location = location;
+  }
+
+  Dungeon getModel() {
+    return model;
+  }
+
+  /**
+   * Returns the location of the player at the start of the turn.
+   */
+  Location getLocation() {
+    return location;
+  }
+
+  CommandTokenizer getTokens() {
+    return tokens;
+  }
+
+  TurnOutput getOutput() {
+    return output;
+  }
+
+  /**
+   * Under {@link PipelineErrorPolicy#DISCARD_LINE}, drops what the player typed after a failed
+   * action on the same line, so the actions pipelined after it are not run against a game they
+   * did not expect.
+   */
+  void failed() throws IOException {
+    if (errorPolicy == PipelineErrorPolicy.DISCARD_LINE) {
+      String skipped = tokens.skipLine();
+      if (!skipped.isEmpty()) {
+        output.append("\nSkipped the rest of the line: ").append(skipped).append("\n");
+      }
+    }
+  }
+
+  /**
+   * Asks the given question until the player answers with a direction.
+   */
+  Move readDirection(String prompt) throws IOException {
+    Move direction = null;
+    while (direction == null) {
+      output.append(prompt);
+      tokens.next();
+      direction = getDirection(tokens.chars(), tokens.start(), tokens.length());
+      if (direction == null) {
+        failed();
+      }
+    }
+    return direction;
+  }
+
+  void printTreasures(Map<Treasure, Integer> treasure) throws IOException,
+          IllegalArgumentException {
+    if (treasure == null) {
+      throw new IllegalArgumentException("Please provide a valid value");
+    }
+    for (Treasure treasureItem : treasure.keySet()) {
+      Integer count = treasure.get(treasureItem);
+      output.append(" ").append(String.valueOf(count)).append(" ")
+              .append(getTreasureString(treasureItem, count));
+    }
+  }
+
+  void printPlayerDescription(Player player) throws IOException, IllegalArgumentException {
+    if (player == null) {
+      throw new IllegalArgumentException("Please provide valid player");
+    }
+    if (player.hasTreasure()) {
+      Map<Treasure, Integer> treasure = player.getTreasure();
+      output.append("\nYou now have the following treasure");
+      for (Treasure treasureItem : treasure.keySet()) {
+        Integer count = treasure.get(treasureItem);
+        output.append(" ").append(String.valueOf(count)).append(" ")
+                .append(getTreasureString(treasureItem, count));
+      }
+    } else {
+      output.append("\nPlayer has no treasure");
+    }
+    if (player.hasArrows()) {
+      int arrows = player.getArrows();
+      if (arrows > 1) {
+        output.append("\nYou have ").append(String.valueOf(arrows)).append(" arrows left\n");
+      } else {
+        output.append("\nYou have 1 arrow left\n");
+      }
+    } else {
+      output.append("\nPlayer has no arrows");
+    }
+  }
+
+  private Move getDirection(char[] chars, int offset, int length) throws IOException,
+          IllegalArgumentException {
+    if (chars == null) {
+      throw new IllegalArgumentException("Please provide valid characters");
+    }
+    char shortForm = length == 1 ? Character.toUpperCase(chars[offset]) : 0;
+    Move direction = null;
+    switch (shortForm) {
+      case 'N': {
+        direction = Move.NORTH;
+        break;
+      }
+      case 'S': {
+        direction = Move.SOUTH;
+        break;
+      }
+      case 'E': {
+        direction = Move.EAST;
+        break;
+      }
+      case 'W': {
+        direction = Move.WEST;
+        break;
+      }
+      default: {
+        output.append(
+                "Please enter a valid direction. You can input N for North, E for East, S for"
+                        + " South, W for West\n");
+      }
+    }
+    return direction;
+  }
+
+  private static String getTreasureString(Treasure treasureItem, Integer count)
+          throws IllegalArgumentException {
+    if (treasureItem == null || count == null) {
+      throw new IllegalArgumentException("Please provide valid treasure and count");
+    }
+    switch (treasureItem) {
+      case RUBIES: {
+        if (count > 1) {
+          return "rubies";
+        } else {
+          return "ruby";
+        }
+      }
+      case DIAMONDS: {
+        if (count > 1) {
+          return "diamonds";
+        } else {
+          return "diamond";
+        }
+      }
+      case SAPPHIRES: {
+        if (count > 1) {
+          return "sapphires";
+        } else {
+          return "sapphire";
+        }
+      }
+      default: {
+        return "";
+      }
+    }
+  }
+}
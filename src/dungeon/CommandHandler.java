@@ -0,0 +1,47 @@
+package dungeon;
+
+import java.io.IOException;
+
+/**
+ * Plays one command of a {@link DungeonConsoleController}. Handlers are registered with the
+ * controller for a {@link Commands} value and kept for all its turns and games, so a handler
+ * keeps no state of a game itself; everything it needs is given by the {@link CommandContext}.
+ */
+//package-private
+interface CommandHandler {
+
+  /**
+   * What the controller does after a command has been played.
+   */
+  enum Result {
+    /**
+     * Asks for another command in the same location.
+     */
+    NEXT_COMMAND,
+    /**
+     * Describes the location of the player again and starts a new turn.
+     */
+    NEXT_TURN,
+    /**
+     * Ends the game.
+     */
+    END_GAME
+  }
+
+  /**
+   * Returns whether the command is offered to the player at the start of a turn.
+   *
+   * @param model    the game being played.
+   * @param location the location of the player.
+   */
+  boolean isAvailable(Dungeon model, Location location);
+
+  /**
+   * Plays the command, reading what it needs from the tokens of the context.
+   *
+   * @param context the game, the turn and the input and output of the controller.
+   * @return what the controller does next.
+   * @throws IOException if the output cannot be written.
+   */
+  Result execute(CommandContext context) throws IOException;
+}
@@ -0,0 +1,253 @@
+package dungeon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The log of a game recorded by a {@link RecordingDungeon}: the spec the dungeon was built
+ * from, every action applied to the game with its outcome, and every value the game drew from
+ * its randomizer. A log holds everything needed to play the game again with
+ * {@link CommandReplayer}.
+ * Entries are kept as bytes in the order they happened, with integers written as variable
+ * length zigzag quantities, so an action takes about six bytes and a draw four.
+ */
+public final class CommandLog {
+  private static final int MAGIC = 0x44434c47;
+  private static final short VERSION = 1;
+  private static final int INITIAL_CAPACITY = 64;
+
+  static final byte MOVE = 1;
+  static final byte SHOOT = 2;
+  static final byte PICK_TREASURE = 3;
+  static final byte PICK_ARROWS = 4;
+  static final byte DRAW = 5;
+
+  private final DungeonSpec spec;
+  private byte[] entries;
+  private int size;
+  private int actions;
+  private int draws;
+
+  /**
+   * Creates an empty log of a game of the given dungeon.
+   *
+   * @param spec the spec the dungeon is built from.
+   * @throws IllegalArgumentException if spec is null.
+   */
+  public CommandLog(DungeonSpec spec) throws IllegalArgumentException {
+    this(spec, new byte[INITIAL_CAPACITY], 0, 0, 0);
+  }
+
+  private CommandLog(DungeonSpec spec, byte[] entries, int size, int actions, int draws)
+          throws IllegalArgumentException {
+    if (spec == null) {
+      throw new IllegalArgumentException("Spec cannot be null");
+    }
+    this.spec = spec;
+    this.entries = entries;
+    this.size = size;
+    this.actions = actions;
+    this.draws = draws;
+  }
+
+  /**
+   * Returns the spec the dungeon of the game is built from.
+   *
+   * @return the spec of the dungeon.
+   */
+  public DungeonSpec getSpec() {
+    return spec;
+  }
+
+  /**
+   * Returns the number of actions in this log.
+   *
+   * @return the number of actions.
+   */
+  public int getActions() {
+    return actions;
+  }
+
+  /**
+   * Returns the number of values drawn from the randomizer in this log.
+   *
+   * @return the number of draws.
+   */
+  public int getDraws() {
+    return draws;
+  }
+
+  /**
+   * Returns the number of bytes taken by the entries of this log.
+   *
+   * @return the size of the entries.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Writes this log to the given stream.
+   *
+   * @param out the stream to write to.
+   * @throws IllegalArgumentException if out is null.
+   * @throws IOException              if the log cannot be written.
+   */
+  public void write(OutputStream out) throws IllegalArgumentException, IOException {
+    if (out == null) {
+      throw new IllegalArgumentException("Stream cannot be null");
+    }
+    DataOutputStream data = new DataOutputStream(out);
+    GenerationOptions options = spec.getOptions();
+    data.writeInt(MAGIC);
+    data.writeShort(VERSION);
+    data.writeInt(spec.getRows());
+    data.writeInt(spec.getColumns());
+    data.writeBoolean(spec.isWrapped());
+    data.writeInt(spec.getInterconnectivity());
+    data.writeInt(spec.getTreasureAndArrowPercentage());
+    data.writeInt(spec.getNumberOfMonsters());
+    data.writeLong(spec.getSeed());
+    data.writeInt(options.getMinimumDistance());
+    data.writeByte(options.getStartEndStrategy().ordinal());
+    data.writeByte(options.getMazeAlgorithm().ordinal());
+    data.writeInt(options.getParallelism());
+    data.writeByte(options.getSamplingMode().ordinal());
+    data.writeByte(options.getContentsMode().ordinal());
+    data.writeInt(actions);
+    data.writeInt(draws);
+    data.writeInt(size);
+    data.write(entries, 0, size);
+    data.flush();
+  }
+
+  /**
+   * Reads a log written by {@link #write(OutputStream)}.
+   *
+   * @param in the stream to read from.
+   * @return the log read.
+   * @throws IllegalArgumentException if in is null.
+   * @throws IOException              if the log cannot be read or is not valid.
+   */
+  public static CommandLog read(InputStream in) throws IllegalArgumentException, IOException {
+    if (in == null) {
+      throw new IllegalArgumentException("Stream cannot be null");
+    }
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC) {
+      throw new IOException("Not a command log");
+    }
+    short version = data.readShort();
+    if (version != VERSION) {
+      throw new IOException("Unsupported command log version: " + version);
+    }
+    int rows = data.readInt();
+    int columns = data.readInt();
+    boolean wrapped = data.readBoolean();
+    int interconnectivity = data.readInt();
+    int treasureAndArrowPercentage = data.readInt();
+    int numberOfMonsters = data.readInt();
+    long seed = data.readLong();
+    GenerationOptions options;
+    try {
+      options = new GenerationOptions()
+              .withMinimumDistance(data.readInt())
+              .withStartEndStrategy(StartEndStrategy.values()[data.readByte()])
+              .withMazeAlgorithm(MazeAlgorithm.values()[data.readByte()])
+              .withParallelism(data.readInt())
+              .withSamplingMode(SamplingMode.values()[data.readByte()])
+              .withContentsMode(ContentsMode.values()[data.readByte()]);
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      throw new IOException("Invalid generation options in command log", e);
+    }
+    int actions = data.readInt();
+    int draws = data.readInt();
+    int size = data.readInt();
+    if (actions < 0 || draws < 0 || size < 0) {
+      throw new IOException("Invalid command log length");
+    }
+    byte[] entries = new byte[size];
+    data.readFully(entries);
+    DungeonSpec spec = new DungeonSpec(rows, columns, wrapped, interconnectivity,
+            treasureAndArrowPercentage, numberOfMonsters, seed, options);
+    return new CommandLog(spec, entries, size, actions, draws);
+  }
+
+  /**
+   * Appends an action with the player cell and outcome it ended with.
+   *
+   * @param move    the ordinal of the move of the action, or -1 if it has none.
+   * @param outcome the outcome of the action, negative if it failed.
+   */
+  void appendAction(byte action, int move, int argument, int cell, int outcome) {
+    appendByte(action);
+    appendByte((byte) move);
+    appendInt(argument);
+    appendInt(cell);
+    appendInt(outcome);
+    actions++;
+  }
+
+  void appendDraw(int minBound, int maxBound, int value) {
+    appendByte(DRAW);
+    appendInt(minBound);
+    appendInt(maxBound);
+    appendInt(value);
+    draws++;
+  }
+
+  /**
+   * Returns a cursor over the entries of this log.
+   */
+  Cursor cursor() {
+    return new Cursor();
+  }
+
+  private void appendByte(byte value) {
+    if (size == entries.length) {
+      entries = Arrays.copyOf(entries, entries.length * 2);
+    }
+    entries[size++] = value;
+  }
+
+  private void appendInt(int value) {
+    int bits = (value << 1) ^ (value >> 31);
+    while ((bits & ~0x7f) != 0) {
+      appendByte((byte) ((bits & 0x7f) | 0x80));
+      bits >>>= 7;
+    }
+    appendByte((byte) bits);
+  }
+
+  //Reads the entries of the log in order.
+  final class Cursor {
+    private int position;
+
+    boolean hasNext() {
+      return position < size;
+    }
+
+    byte nextByte() throws IllegalStateException {
+      if (position >= size) {
+        throw new IllegalStateException("Command log ends in the middle of an entry");
+      }
+      return entries[position++];
+    }
+
+    int nextInt() throws IllegalStateException {
+      int bits = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        byte value = nextByte();
+        bits |= (value & 0x7f) << shift;
+        if (value >= 0) {
+          return (bits >>> 1) ^ -(bits & 1);
+        }
+      }
+      throw new IllegalStateException("Malformed integer in command log");
+    }
+  }
+}
@@ -0,0 +1,172 @@
+package dungeon;
+
+import java.util.Arrays;
+
+import randomizer.Randomizer;
+
+/**
+ * Plays a {@link CommandLog} again without any input or output and checks that the game does
+ * exactly what it did when it was recorded. Draws are served from the log rather than from a
+ * randomizer, and must be asked for in the same order and with the same bounds. Every action
+ * must end with the player in the recorded cell and with the recorded outcome.
+ * Replays of logs of the same dungeon can share a {@link DungeonCache}, so the dungeon is only
+ * built once.
+ */
+public final class CommandReplayer {
+  private static final Move[] MOVES = Move.values();
+
+  private CommandReplayer() {
+  }
+
+  /**
+   * Replays the given log on a newly built dungeon.
+   *
+   * @param log the log to replay.
+   * @return the game at the end of the log.
+   * @throws IllegalArgumentException if log is null or its spec is not valid.
+   * @throws IllegalStateException    if the game does something other than what was recorded
+   *                                  or the log is malformed.
+   */
+  public static Dungeon replay(CommandLog log)
+          throws IllegalArgumentException, IllegalStateException {
+    return replay(log, null);
+  }
+
+  /**
+   * Replays the given log on a dungeon taken from the given cache.
+   *
+   * @param log   the log to replay.
+   * @param cache the cache the dungeon is taken from, or null to build it.
+   * @return the game at the end of the log.
+   * @throws IllegalArgumentException if log is null or its spec is not valid.
+   * @throws IllegalStateException    if the game does something other than what was recorded
+   *                                  or the log is malformed.
+   */
+  public static Dungeon replay(CommandLog log, DungeonCache cache)
+          throws IllegalArgumentException, IllegalStateException {
+    if (log == null) {
+      throw new IllegalArgumentException("Log cannot be null");
+    }
+    DungeonSpec spec = log.getSpec();
+    DungeonModel template = cache == null ? spec.buildTemplate() : cache.getTemplate(spec);
+    ReplayRandomizer randomizer = new ReplayRandomizer();
+    DungeonModel game = new DungeonModel(template, randomizer);
+    CommandLog.Cursor cursor = log.cursor();
+    int action = 0;
+    while (cursor.hasNext()) {
+      byte type = cursor.nextByte();
+      if (type == CommandLog.DRAW) {
+        randomizer.add(cursor.nextInt(), cursor.nextInt(), cursor.nextInt());
+        continue;
+      }
+      int moveOrdinal = cursor.nextByte();
+      int argument = cursor.nextInt();
+      int cell = cursor.nextInt();
+      int expected = cursor.nextInt();
+      if (moveOrdinal < -1 || moveOrdinal >= MOVES.length) {
+        throw new IllegalStateException("Malformed move in command log: " + moveOrdinal);
+      }
+      Move move = moveOrdinal < 0 ? null : MOVES[moveOrdinal];
+      int outcome = apply(game, type, move, argument);
+      if (randomizer.hasMismatch()) {
+        throw new IllegalStateException("Action " + action + " drew " + randomizer.getMismatch());
+      }
+      if (randomizer.hasRemaining()) {
+        throw new IllegalStateException("Action " + action + " drew fewer values than recorded");
+      }
+      if (outcome != expected || game.getCurrentCell() != cell) {
+        throw new IllegalStateException("Action " + action + " ended with outcome " + outcome
+                + " in cell " + game.getCurrentCell() + ", recorded outcome " + expected
+                + " in cell " + cell);
+      }
+      randomizer.clear();
+      action++;
+    }
+    if (randomizer.hasRemaining()) {
+      throw new IllegalStateException("Command log ends with draws of no action");
+    }
+    return game;
+  }
+
+  private static int apply(DungeonModel game, byte type, Move move, int argument)
+          throws IllegalStateException {
+    if (type < CommandLog.MOVE || type > CommandLog.PICK_ARROWS) {
+      throw new IllegalStateException("Unknown action in command log: " + type);
+    }
+    try {
+      if (type == CommandLog.MOVE) {
+        game.movePlayer(move);
+        return RecordingDungeon.getFlags(game);
+      }
+      if (type == CommandLog.SHOOT) {
+        return game.shootArrow(move, argument).ordinal();
+      }
+      if (type == CommandLog.PICK_TREASURE) {
+        game.playerPickTreasure();
+      } else {
+        game.playerPickArrows();
+      }
+      return 0;
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return RecordingDungeon.getFailure(e);
+    }
+  }
+
+  //Serves the draws recorded before an action. A draw asked with other bounds than recorded,
+  //or beyond those recorded, is remembered as a mismatch rather than thrown, so the game cannot
+  //mistake it for a failure of the action.
+  private static final class ReplayRandomizer implements Randomizer {
+    private int[] draws = new int[3 * 4];
+    private int size;
+    private int next;
+    private String mismatch;
+
+    void add(int minBound, int maxBound, int value) {
+      if (size + 3 > draws.length) {
+        draws = Arrays.copyOf(draws, draws.length * 2);
+      }
+      draws[size++] = minBound;
+      draws[size++] = maxBound;
+      draws[size++] = value;
+    }
+
+    void clear() {
+      size = 0;
+      next = 0;
+      mismatch = null;
+    }
+
+    boolean hasRemaining() {
+      return next < size;
+    }
+
+    boolean hasMismatch() {
+      return mismatch != null;
+    }
+
+    String getMismatch() {
+      return mismatch;
+    }
+
+    @Override
+    public int getRandomValue(int minBound, int maxBound) {
+      if (next >= size) {
+        if (mismatch == null) {
+          mismatch = "a value in [" + minBound + ", " + maxBound + "] that was not recorded";
+        }
+        return minBound;
+      }
+      if (draws[next] != minBound || draws[next + 1] != maxBound) {
+        if (mismatch == null) {
+          mismatch = "a value in [" + minBound + ", " + maxBound + "], recorded in ["
+                  + draws[next] + ", " + draws[next + 1] + "]";
+        }
+        next += 3;
+        return minBound;
+      }
+      int value = draws[next + 2];
+      next += 3;
+      return value;
+    }
+  }
+}
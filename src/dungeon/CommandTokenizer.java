@@ -0,0 +1,189 @@
+package dungeon;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits the input of a {@link DungeonConsoleController} into tokens separated by whitespace,
+ * as {@link java.util.Scanner#next()} does, without regular expressions and without building a
+ * String for every token. Input is read into a buffer that is kept for the whole game, and the
+ * current token is exposed as a range of the array of that buffer, valid until the next token
+ * is read.
+ * The text rendered by the controller is sent before every read, so the player sees it before
+ * the game waits for them. As with Scanner, an IOException thrown by the input ends the input.
+ */
+//package-private
+final class CommandTokenizer {
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final Readable source;
+  private final TurnOutput output;
+  private CharBuffer buffer;
+  private int filled;
+  private int position;
+  private int tokenStart;
+  private int tokenEnd;
+  private boolean endOfInput;
+  private boolean skippingLine;
+
+  CommandTokenizer(Readable source, TurnOutput output) {
+    this.source = source;
+    this.output = output;
+    this.buffer = CharBuffer.allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Moves to the next token, reading more input if needed.
+   *
+   * @throws IOException            if the rendered text cannot be sent.
+   * @throws NoSuchElementException if the input ends before another token.
+   */
+  void next() throws IOException, NoSuchElementException {
+    char[] chars = buffer.array();
+    while (true) {
+      while (position < filled && (skippingLine || Character.isWhitespace(chars[position]))) {
+        if (chars[position] == '\n') {
+          skippingLine = false;
+        }
+        position++;
+      }
+      tokenStart = position;
+      tokenEnd = position;
+      if (position < filled) {
+        break;
+      }
+      if (!fill()) {
+        throw new NoSuchElementException("No more input");
+      }
+      chars = buffer.array();
+    }
+    while (true) {
+      while (position < filled && !Character.isWhitespace(chars[position])) {
+        position++;
+      }
+      if (position < filled || !fill()) {
+        break;
+      }
+      chars = buffer.array();
+    }
+    tokenEnd = position;
+  }
+
+  /**
+   * Drops the input up to the end of the current line, including what of it has not been read
+   * yet, without waiting for input.
+   *
+   * @return the dropped input read so far, without surrounding whitespace.
+   */
+  String skipLine() {
+    char[] chars = buffer.array();
+    int start = position;
+    while (position < filled && chars[position] != '\n') {
+      position++;
+    }
+    int end = position;
+    if (position < filled) {
+      position++;
+    } else {
+      skippingLine = true;
+    }
+    return new String(chars, start, end - start).trim();
+  }
+
+  /**
+   * Returns the array holding the current token.
+   */
+  char[] chars() {
+    return buffer.array();
+  }
+
+  /**
+   * Returns the index of the current token in {@link #chars()}.
+   */
+  int start() {
+    return tokenStart;
+  }
+
+  /**
+   * Returns the number of characters of the current token.
+   */
+  int length() {
+    return tokenEnd - tokenStart;
+  }
+
+  /**
+   * Returns the current token as a decimal integer, accepting what
+   * {@link Integer#parseInt(String)} accepts.
+   *
+   * @throws NumberFormatException if the token is not an integer.
+   */
+  int parseInt() throws NumberFormatException {
+    char[] chars = buffer.array();
+    int index = tokenStart;
+    boolean negative = false;
+    if (index < tokenEnd && (chars[index] == '-' || chars[index] == '+')) {
+      negative = chars[index] == '-';
+      index++;
+    }
+    if (index == tokenEnd) {
+      throw new NumberFormatException("Not an integer");
+    }
+    long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+    long value = 0;
+    for (; index < tokenEnd; index++) {
+      int digit = Character.digit(chars[index], 10);
+      if (digit < 0) {
+        throw new NumberFormatException("Not an integer");
+      }
+      value = value * 10 + digit;
+      if (value > limit) {
+        throw new NumberFormatException("Integer out of range");
+      }
+    }
+    return (int) (negative ? -value : value);
+  }
+
+  //Reads more input after the characters kept, dropping those before the current token and
+  //growing the buffer when a single token fills it. Returns false at the end of the input.
+  private boolean fill() throws IOException {
+    if (endOfInput) {
+      return false;
+    }
+    char[] chars = buffer.array();
+    if (tokenStart > 0) {
+      System.arraycopy(chars, tokenStart, chars, 0, filled - tokenStart);
+      filled -= tokenStart;
+      position -= tokenStart;
+      tokenEnd -= tokenStart;
+      tokenStart = 0;
+    }
+    if (filled == chars.length) {
+      CharBuffer larger = CharBuffer.allocate(chars.length * 2);
+      System.arraycopy(chars, 0, larger.array(), 0, filled);
+      buffer = larger;
+      chars = larger.array();
+    }
+    output.flush();
+    int read;
+    try {
+      do {
+        if (source instanceof Reader) {
+          read = ((Reader) source).read(chars, filled, chars.length - filled);
+        } else {
+          buffer.limit(chars.length).position(filled);
+          read = source.read(buffer);
+        }
+      } while (read == 0);
+    } catch (IOException e) {
+      read = -1;
+    }
+    if (read < 0) {
+      endOfInput = true;
+      return false;
+    }
+    filled += read;
+    return true;
+  }
+}
@@ -36,23 +36,55 @@ public enum Commands {
       throw new IllegalArgumentException("Provided value cannot be null");
     }
     shortHand = shortHand.toUpperCase(Locale.ROOT);
+    if (shortHand.length() != 1) {
+      throw new IllegalArgumentException("No value for this shorthand");
+    }
+    return getByShortHand(shortHand.charAt(0));
+  }
+
+  /**
+   * Returns the command for the shorthand held in the given range of characters, without
+   * building a String of it.
+   *
+   * @param chars  the characters holding the shorthand.
+   * @param offset the index of the first character of the shorthand.
+   * @param length the number of characters of the shorthand.
+   * @return the Commands for the provided shorthand representation
+   * @throws IllegalArgumentException if chars is null, the range is not within chars or the
+   *                                  shorthand is invalid.
+   */
+  public static Commands getByShortHand(char[] chars, int offset, int length)
+          throws IllegalArgumentException {
+    if (chars == null) {
+      throw new IllegalArgumentException("Provided value cannot be null");
+    }
+    if (offset < 0 || length < 0 || offset > chars.length - length) {
+      throw new IllegalArgumentException("Range is not within the characters");
+    }
+    if (length != 1) {
+      throw new IllegalArgumentException("No value for this shorthand");
+    }
+    return getByShortHand(Character.toUpperCase(chars[offset]));
+  }
+
+  private static Commands getByShortHand(char shortHand) throws IllegalArgumentException {
     switch (shortHand) {
-      case "M": {
+      case 'M': {
         return MOVE;
       }
-      case "P": {
+      case 'P': {
         return PICKUP;
       }
-      case "S": {
+      case 'S': {
         return SHOOT;
       }
-      case "Q": {
+      case 'Q': {
         return QUIT;
       }
-      case "T": {
+      case 'T': {
         return PICKTREASURE;
       }
-      case "A": {
+      case 'A': {
         return PICKARROWS;
       }
       default: {
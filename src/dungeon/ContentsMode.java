@@ -0,0 +1,19 @@
+package dungeon;
+
+/**
+ * Represents when the treasure and arrows of the dungeon locations are decided.
+ */
+public enum ContentsMode {
+  /**
+   * Treasure and arrows are placed in every chosen location while the dungeon is built.
+   * This is the original behaviour and places exactly the given percentage of locations.
+   */
+  EAGER,
+  /**
+   * Only a seed is drawn while the dungeon is built. The contents of a location are derived
+   * from that seed and the location the first time it is observed, so each location holds
+   * treasure or arrows with the given percentage as its probability and the percentage holds
+   * in expectation over the dungeon.
+   */
+  LAZY
+}
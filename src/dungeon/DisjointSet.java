@@ -0,0 +1,88 @@
+package dungeon;
+
+//package-private
+//Disjoint-set forest over integer cell ids used by Kruskal's algorithm to build the maze.
+//Uses path compression and union by rank so that any sequence of operations runs in
+//near-linear time.
+final class DisjointSet {
+  private final int[] parent;
+  private final byte[] rank;
+  private int numberOfSets;
+
+  /**
+   * Creates a disjoint-set forest where each of the given elements is in its own set.
+   *
+   * @param size the number of elements, identified as 0 to size - 1.
+   * @throws IllegalArgumentException if size is negative.
+   */
+  DisjointSet(int size) throws IllegalArgumentException {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative");
+    }
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    for (int i = 0; i < size; i++) {
+      parent[i] = i;
+    }
+    this.numberOfSets = size;
+  }
+
+  /**
+   * Returns the representative element of the set containing the given element.
+   *
+   * @param element the element whose set is to be found.
+   * @return the representative of the set.
+   * @throws IllegalArgumentException if element is out of range.
+   */
+  int find(int element) throws IllegalArgumentException {
+    if (element < 0 || element >= parent.length) {
+      throw new IllegalArgumentException("Element out of range: " + element);
+    }
+    int root = element;
+    while (parent[root] != root) {
+      root = parent[root];
+    }
+    while (parent[element] != root) {
+      int next = parent[element];
+      parent[element] = root;
+      element = next;
+    }
+    return root;
+  }
+
+  /**
+   * Merges the sets containing the two given elements.
+   *
+   * @param elementA an element of the first set.
+   * @param elementB an element of the second set.
+   * @return true if the sets were disjoint and have been merged, false if they were already
+   *         the same set.
+   * @throws IllegalArgumentException if either element is out of range.
+   */
+  boolean union(int elementA, int elementB) throws IllegalArgumentException {
+    int rootA = find(elementA);
+    int rootB = find(elementB);
+    if (rootA == rootB) {
+      return false;
+    }
+    if (rank[rootA] < rank[rootB]) {
+      parent[rootA] = rootB;
+    } else if (rank[rootA] > rank[rootB]) {
+      parent[rootB] = rootA;
+    } else {
+      parent[rootB] = rootA;
+      rank[rootA]++;
+    }
+    numberOfSets--;
+    return true;
+  }
+
+  /**
+   * Returns the number of disjoint sets remaining.
+   *
+   * @return the number of sets.
+   */
+  int getNumberOfSets() {
+    return numberOfSets;
+  }
+}
@@ -0,0 +1,145 @@
+package dungeon;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caches built dungeons by their {@link DungeonSpec}, so games created from the same spec and
+ * seed share one generation. The cache keeps template dungeons and hands out a new game for
+ * every request that shares the immutable maze and initial contents of its template, so each
+ * game only holds what its player changes. At most the given number of templates are kept, the
+ * least recently used one is evicted first.
+ * The cache may be used from several threads. A spec requested concurrently before it is cached
+ * may be built more than once.
+ */
+public final class DungeonCache {
+  private final int maximumSize;
+  private final Map<DungeonSpec, DungeonModel> templates;
+  private final ReentrantLock lock;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param maximumSize the maximum number of dungeons kept.
+   * @throws IllegalArgumentException if maximumSize is not positive.
+   */
+  public DungeonCache(int maximumSize) throws IllegalArgumentException {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Maximum size must be positive");
+    }
+    this.maximumSize = maximumSize;
+    this.templates = new LinkedHashMap<>(16, 0.75f, true);
+    this.lock = new ReentrantLock();
+  }
+
+  /**
+   * Returns a new game of the dungeon described by the given spec, building the dungeon only if
+   * it is not cached. The game is the same as the one returned by {@link DungeonSpec#build()}.
+   *
+   * @param spec the spec of the dungeon.
+   * @return the new game.
+   * @throws IllegalArgumentException if spec is null or its parameters are not valid.
+   */
+  public DungeonModel getDungeon(DungeonSpec spec) throws IllegalArgumentException {
+    if (spec == null) {
+      throw new IllegalArgumentException("Spec cannot be null");
+    }
+    return spec.newGame(getTemplate(spec));
+  }
+
+  /**
+   * Returns the template dungeon of the given spec, building it only if it is not cached.
+   */
+  DungeonModel getTemplate(DungeonSpec spec) throws IllegalArgumentException {
+    if (spec == null) {
+      throw new IllegalArgumentException("Spec cannot be null");
+    }
+    DungeonModel template;
+    lock.lock();
+    try {
+      template = templates.get(spec);
+      if (template != null) {
+        hits++;
+      } else {
+        misses++;
+      }
+    } finally {
+      lock.unlock();
+    }
+    if (template == null) {
+      template = spec.buildTemplate();
+      lock.lock();
+      try {
+        templates.put(spec, template);
+        if (templates.size() > maximumSize) {
+          Map.Entry<DungeonSpec, DungeonModel> eldest = templates.entrySet().iterator().next();
+          templates.remove(eldest.getKey());
+          evictions++;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    return template;
+  }
+
+  /**
+   * Returns the number of requests served from the cache.
+   *
+   * @return the number of hits.
+   */
+  public long getHits() {
+    lock.lock();
+    try {
+      return hits;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of requests that built a dungeon.
+   *
+   * @return the number of misses.
+   */
+  public long getMisses() {
+    lock.lock();
+    try {
+      return misses;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of dungeons evicted to keep the cache within its maximum size.
+   *
+   * @return the number of evictions.
+   */
+  public long getEvictions() {
+    lock.lock();
+    try {
+      return evictions;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of dungeons currently cached.
+   *
+   * @return the size of the cache.
+   */
+  public int size() {
+    lock.lock();
+    try {
+      return templates.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+}
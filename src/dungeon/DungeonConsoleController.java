@@ -1,21 +1,36 @@
 package dungeon;
 
 import java.io.IOException;
-import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.Scanner;
 import java.util.Set;
 
 /**
  * Represents a controller that allows user ability to manipulate the player in the dungeon game.
+ * The text of a turn is rendered into a buffer and sent to the appendable as the
+ * {@link FlushPolicy} of the controller says, by default in one write just before the game
+ * waits for the player. {@link RenderMetrics} tell how much was written in how many writes.
+ * A player may type several actions on one line, such as {@code M N S W 3 P A}; they are run
+ * in order and their output is sent together. What happens to the rest of such a line when an
+ * action fails is set by a {@link PipelineErrorPolicy}.
+ * Commands are played by {@link CommandHandler} objects registered for their {@link Commands}
+ * value and kept for all turns, so finding the handler of a command is one array lookup. The
+ * commands are offered in the order they were registered.
  */
 public class DungeonConsoleController implements DungeonController {
+  private static final int DEFAULT_FLUSH_THRESHOLD = 8192;
 
-  private final Readable readable;
-  private final Appendable appendable;
+  private final TurnOutput output;
+  private final RenderMetrics metrics;
+  private final CommandTokenizer tokens;
+  private final CommandContext context;
+  private final CommandHandler[] handlers;
+  private final Commands[] menu;
+  private final boolean[] available;
+  private int menuSize;
 
   /**
-   * Creates a new instance of DungeonConsoleController.
+   * Creates a new instance of DungeonConsoleController that sends the text of a turn in one
+   * write.
    *
    * @param readable     the input readable.
    * @param appendable   the output appendable.
@@ -23,11 +38,68 @@ public class DungeonConsoleController implements DungeonController {
    */
   public DungeonConsoleController(Readable readable, Appendable appendable)
           throws IllegalArgumentException {
-    if (readable == null || appendable == null) {
+    this(readable, appendable, FlushPolicy.PER_TURN, DEFAULT_FLUSH_THRESHOLD);
+  }
+
+  /**
+   * Creates a new instance of DungeonConsoleController that sends its text as the given policy
+   * says.
+   *
+   * @param readable       the input readable.
+   * @param appendable     the output appendable.
+   * @param policy         when rendered text is sent to the appendable.
+   * @param flushThreshold the number of characters kept before they are sent under
+   *                       {@link FlushPolicy#PER_THRESHOLD}.
+   * @throws IllegalArgumentException if any of the given objects are null or flushThreshold is
+   *                                  not positive.
+   */
+  public DungeonConsoleController(Readable readable, Appendable appendable, FlushPolicy policy,
+                                  int flushThreshold) throws IllegalArgumentException {
+    this(readable, appendable, policy, flushThreshold, PipelineErrorPolicy.CONTINUE);
+  }
+
+  /**
+   * Creates a new instance of DungeonConsoleController that sends its text as the given policy
+   * says and handles a failed action of a pipelined line as the given error policy says.
+   *
+   * @param readable       the input readable.
+   * @param appendable     the output appendable.
+   * @param policy         when rendered text is sent to the appendable.
+   * @param flushThreshold the number of characters kept before they are sent under
+   *                       {@link FlushPolicy#PER_THRESHOLD}.
+   * @param errorPolicy    what happens to the rest of a line after a failed action.
+   * @throws IllegalArgumentException if any of the given objects are null or flushThreshold is
+   *                                  not positive.
+   */
+  public DungeonConsoleController(Readable readable, Appendable appendable, FlushPolicy policy,
+                                  int flushThreshold, PipelineErrorPolicy errorPolicy)
+          throws IllegalArgumentException {
+    if (readable == null || appendable == null || policy == null || errorPolicy == null) {
       throw new IllegalArgumentException("Please provide valid parameters to the controller");
     }
-    this.readable = readable;
-    this.appendable = appendable;
+    if (flushThreshold <= 0) {
+      throw new IllegalArgumentException("Flush threshold must be positive");
+    }
+    this.metrics = new RenderMetrics();
+    this.output = new TurnOutput(appendable, policy, flushThreshold, metrics);
+    this.tokens = new CommandTokenizer(readable, output);
+    this.context = new CommandContext(tokens, output, errorPolicy);
+    this.handlers = new CommandHandler[Commands.values().length];
+    this.menu = new Commands[handlers.length];
+    this.available = new boolean[handlers.length];
+    register(Commands.MOVE, new MoveHandler());
+    register(Commands.SHOOT, new ShootHandler());
+    register(Commands.PICKUP, new PickupHandler());
+    register(Commands.QUIT, new QuitHandler());
+  }
+
+  /**
+   * Returns how much text this controller has written and in how many writes.
+   *
+   * @return the {@link RenderMetrics} of the games played by this controller.
+   */
+  public RenderMetrics getRenderMetrics() {
+    return metrics;
   }
 
   /**
@@ -42,360 +114,142 @@ public class DungeonConsoleController implements DungeonController {
     if (model == null) {
       throw new IllegalArgumentException("Please provide valid model");
     }
-    Scanner scanner = new Scanner(readable);
-    appendable.append("Welcome to the dungeons");
-    appendable.append("\nYou can input N for North, E for East, S for South, W for West");
-    outerloop:
+    try {
+      playGame(model);
+    } finally {
+      output.flush();
+    }
+  }
+
+  /**
+   * Registers the handler playing the given command, replacing the handler it had. A command
+   * registered for the first time is offered after those registered before it.
+   *
+   * @param command the command played by the handler.
+   * @param handler the handler of the command.
+   * @throws IllegalArgumentException if command or handler is null.
+   */
+  void register(Commands command, CommandHandler handler) throws IllegalArgumentException {
+    if (command == null || handler == null) {
+      throw new IllegalArgumentException("Command and handler cannot be null");
+    }
+    if (handlers[command.ordinal()] == null) {
+      menu[menuSize++] = command;
+    }
+    handlers[command.ordinal()] = handler;
+  }
+
+  private void playGame(Dungeon model) throws IOException {
+    output.append("Welcome to the dungeons");
+    output.append("\nYou can input N for North, E for East, S for South, W for West");
     while (!model.isGameOver()) {
+      metrics.addTurn();
       Location playerCurrentLocation = model.getPlayerCurrentLocation();
-      Set<Commands> commandsList = new LinkedHashSet<>();
-      commandsList.add(Commands.MOVE);
-      if (model.getPlayerDescription().hasArrows()) {
-        commandsList.add(Commands.SHOOT);
-      }
-      if (playerCurrentLocation.isCave()) {
-        appendable.append("\nYou are in a cave,");
-      } else {
-        appendable.append("\nYou are in a tunnel,");
-      }
-      SmellLevel smell = model.getSmell(playerCurrentLocation);
-      switch (smell) {
-        case LESS: {
-          appendable.append("\nThere is a rancid smell somewhere near");
-          break;
-        }
-        case MORE: {
-          appendable.append("\nThere is a very strong rancid smell somewhere near");
-          break;
-        }
-        default: {
-          //do nothing
-          appendable.append("");
-        }
-      }
-      if (playerCurrentLocation.hasTreasure()) {
-        appendable.append("\nThere is treasure here");
-        Map<Treasure, Integer> treasure = playerCurrentLocation.getTreasure();
-        appendable.append("\nYou find");
-        printTreasures(treasure);
-        commandsList.add(Commands.PICKUP);
-      }
-      if (playerCurrentLocation.hasArrows()) {
-        int arrows = playerCurrentLocation.getArrows();
-        appendable.append("\nThere ");
-        if (arrows > 1) {
-          appendable.append("are ").append(String.valueOf(arrows)).append(" arrows here\n");
-        } else {
-          appendable.append("is an arrow here\n");
-        }
-        commandsList.add(Commands.PICKUP);
-      }
-      Set<Move> nextMoves = playerCurrentLocation.getNextMoves();
-      appendable.append("\nYou can move in\n");
-      for (Move move : nextMoves) {
-        appendable.append(move.getFullForm()).append(": ").append(move.getShortForm()).append(
-                "\n");
-      }
-      Commands commands = null;
-      commandsList.add(Commands.QUIT);
-      commandsLoop:
-      while (commands != Commands.MOVE) {
-        appendable.append("\nWhat do you want to do?");
-        printCommandList(commandsList);
-        String commandInput = scanner.next();
-        try {
-          commands = Commands.getByShortHand(commandInput);
-          if (!commandsList.contains(commands)) {
-            commands = null;
-          }
-          if (commands != null) {
-            switch (commands) {
-              case MOVE: {
-                Move direction = null;
-                while (direction == null) {
-                  appendable.append("\nWhere do we go?\n");
-                  String nextMove = scanner.next();
-                  direction = getDirection(nextMove);
-                }
-                try {
-                  model.movePlayer(direction);
-                }
-                catch (IllegalArgumentException iae) {
-                  appendable.append(iae.getMessage());
-                }
-                Location newPlayerLocation = model.getPlayerCurrentLocation();
-                if (newPlayerLocation.hasMonster() && !model.isPlayerDead()) {
-                  appendable.append("\nThere is an injured Otyugh resting. You have miraculously "
-                          + "survived!!");
-                }
-                break;
-              }
-              case PICKUP: {
-                Commands itemCommand = null;
-                while (itemCommand == null) {
-                  appendable.append("\nWhat to pick? Enter A for arrows or T for treasure\n");
-                  String nextCommand = scanner.next();
-                  try {
-                    itemCommand = Commands.getByShortHand(nextCommand);
-                    if (!itemCommand.equals(Commands.PICKARROWS)
-                            && !itemCommand.equals(Commands.PICKTREASURE)) {
-                      itemCommand = null;
-                    }
-                  }
-                  catch (IllegalArgumentException iae) {
-                    appendable.append("Please pick a valid pickup option");
-                  }
-                }
-                switch (itemCommand) {
-                  case PICKARROWS: {
-                    try {
-                      int arrows = playerCurrentLocation.getArrows();
-                      model.playerPickArrows();
-                      appendable.append("\nYou have picked up ").append(String.valueOf(arrows));
-                      if (arrows > 1) {
-                        appendable.append(" arrows");
-                      } else {
-                        appendable.append(" arrow");
-                      }
-                    } catch (IllegalStateException ise) {
-                      appendable.append("\nNo arrows to pick");
-                    }
-                    break;
-                  }
-                  case PICKTREASURE: {
-                    try {
-                      Map<Treasure, Integer> treasure = playerCurrentLocation.getTreasure();
-                      model.playerPickTreasure();
-                      appendable.append("\nYou picked up");
-                      printTreasures(treasure);
-                    } catch (IllegalStateException ise) {
-                      appendable.append("\nNo treasure to pick");
-                    }
-                    break;
-                  }
-                  default: {
-                    appendable.append("Invalid choice to pick");
-                  }
-                }
-                printPlayerDescription(model.getPlayerDescription());
-                break;
-              }
-              case SHOOT: {
-                Move direction = null;
-                while (direction == null) {
-                  appendable.append("\nWhere do you want to shoot?\n");
-                  String nextMove = scanner.next();
-                  direction = getDirection(nextMove);
-                }
-                Integer arrowDistance = null;
-                ArrowHitOutcome arrowHit = ArrowHitOutcome.MISS;
-                while (arrowDistance == null) {
-                  try {
-                    appendable.append("\nHow far do you want to shoot? (1-5)\n");
-                    arrowDistance = Integer.parseInt(scanner.next());
-                    arrowHit = model.shootArrow(direction, arrowDistance);
-                  } catch (NumberFormatException ime) {
-                    appendable.append("\nPlease enter a valid distance as an integer\n");
-                  } catch (IllegalArgumentException iae) {
-                    appendable.append("\n").append(iae.getMessage());
-                    if (iae.getMessage().startsWith("Provided direction is not a valid")) {
-                      break commandsLoop;
-                    }
-                    arrowDistance = null;
-                  } catch (IllegalStateException ise) {
-                    appendable.append(ise.getMessage());
-                    if (model.isGameOver()) {
-                      break outerloop;
-                    }
-                  }
-                }
-                switch (arrowHit) {
-                  case MISS: {
-                    appendable
-                            .append("\nYour arrow goes whistling through the dungeon "
-                                    + "and there's a clunk "
-                                    + "as it falls to the ground after hitting a cave wall");
-                    break;
-                  }
-                  case INJURED: {
-                    appendable
-                            .append("\nYou hear a painful roar in the distance. "
-                                    + "It seems your arrow hit an Otyugh");
-                    break;
-                  }
-                  case KILLED: {
-                    appendable
-                            .append("\nYou hear a painful roar and wild thrashing in the "
-                                    + "darkness and then silence. "
-                                    + "It seems you've killed an Otyugh");
-                    break;
-                  }
-                  default: {
-                    appendable
-                            .append("\nYour arrow goes whistling through the dungeon "
-                                    + "and there's a clunk "
-                                    + "as it falls to the ground after hitting a cave wall");
-                  }
-                }
-                int remainingArrows = model.getPlayerDescription().getArrows();
-                if (remainingArrows == 0) {
-                  appendable.append("\nYou have no arrows remaining");
-                } else if (remainingArrows == 1) {
-                  appendable.append("\nYou have ").append(String.valueOf(remainingArrows))
-                          .append(" arrow left");
-                } else {
-                  appendable.append("\nYou have ").append(String.valueOf(remainingArrows))
-                          .append(" arrows left");
-                }
-                break;
-              }
-              case QUIT: {
-                break outerloop;
-              }
-              default: {
-                appendable.append("\nYour command is invalid");
-              }
-            }
-            //executableCommand.execute();
-          }
-        } catch (IllegalArgumentException iae) {
-          appendable.append("\nPlease choose one of the valid commands");
-          printCommandList(commandsList);
-        }
+      printLocation(model, playerCurrentLocation);
+      if (!playTurn(model, playerCurrentLocation)) {
+        break;
       }
     }
     if (model.isPlayerDead()) {
-      appendable.append("\nYou were killed. You died a gruesome death at the hands of the Otyugh");
+      output.append("\nYou were killed. You died a gruesome death at the hands of the Otyugh");
     }
     else if (model.playerVisitedEnd()) {
-      appendable.append("\nYou have escaped the mines of Moria");
+      output.append("\nYou have escaped the mines of Moria");
       Player playerDescription = model.getPlayerDescription();
       if (playerDescription.hasTreasure()) {
-        appendable.append("\nYou collected these treasures on your journey");
+        output.append("\nYou collected these treasures on your journey");
         Map<Treasure, Integer> treasures = playerDescription.getTreasure();
         for (Treasure treasure : treasures.keySet()) {
-          appendable.append(" ").append(treasure.name()).append(": ")
+          output.append(" ").append(treasure.name()).append(": ")
                   .append(String.valueOf(treasures.get(treasure)));
         }
       }
     }
   }
 
-  private void printTreasures(Map<Treasure, Integer> treasure) throws IOException,
-          IllegalArgumentException {
-    if (treasure == null) {
-      throw new IllegalArgumentException("Please provide a valid value");
-    }
-    for (Treasure treasureItem : treasure.keySet()) {
-      Integer count = treasure.get(treasureItem);
-      appendable.append(" ").append(String.valueOf(count)).append(" ")
-              .append(getTreasureString(treasureItem, count));
-    }
-  }
-
-  private void printCommandList(Set<Commands> commandsList) throws IOException,
-          IllegalArgumentException {
-    if (commandsList == null) {
-      throw new IllegalArgumentException("Please provide valid command list");
-    }
-    for (Commands loopCommand : commandsList) {
-      appendable.append(" ").append(loopCommand.name()).append(": ")
-              .append(loopCommand.getShortHand());
+  //Asks for commands in the location until one ends the turn. Returns false if the game ended.
+  private boolean playTurn(Dungeon model, Location playerCurrentLocation) throws IOException {
+    context.startTurn(model, playerCurrentLocation);
+    for (int i = 0; i < menuSize; i++) {
+      int command = menu[i].ordinal();
+      available[command] = handlers[command].isAvailable(model, playerCurrentLocation);
+    }
+    while (true) {
+      output.append("\nWhat do you want to do?");
+      printCommandList();
+      tokens.next();
+      CommandHandler.Result result;
+      try {
+        Commands command = Commands.getByShortHand(tokens.chars(), tokens.start(),
+                tokens.length());
+        if (handlers[command.ordinal()] == null || !available[command.ordinal()]) {
+          context.failed();
+          continue;
+        }
+        result = handlers[command.ordinal()].execute(context);
+      } catch (IllegalArgumentException iae) {
+        output.append("\nPlease choose one of the valid commands");
+        printCommandList();
+        context.failed();
+        continue;
+      }
+      if (result != CommandHandler.Result.NEXT_COMMAND) {
+        return result == CommandHandler.Result.NEXT_TURN;
+      }
     }
-    appendable.append("\n");
   }
 
-  private Move getDirection(String nextMove) throws IOException, IllegalArgumentException {
-    if (nextMove == null) {
-      throw new IllegalArgumentException("Please provide valid string");
+  private void printLocation(Dungeon model, Location playerCurrentLocation) throws IOException {
+    if (playerCurrentLocation.isCave()) {
+      output.append("\nYou are in a cave,");
+    } else {
+      output.append("\nYou are in a tunnel,");
     }
-    nextMove = nextMove.toUpperCase();
-    Move direction = null;
-    switch (nextMove) {
-      case "N": {
-        direction = Move.NORTH;
+    SmellLevel smell = model.getSmell(playerCurrentLocation);
+    switch (smell) {
+      case LESS: {
+        output.append("\nThere is a rancid smell somewhere near");
         break;
       }
-      case "S": {
-        direction = Move.SOUTH;
-        break;
-      }
-      case "E": {
-        direction = Move.EAST;
-        break;
-      }
-      case "W": {
-        direction = Move.WEST;
+      case MORE: {
+        output.append("\nThere is a very strong rancid smell somewhere near");
         break;
       }
       default: {
-        appendable.append(
-                "Please enter a valid direction. You can input N for North, E for East, S for"
-                        + " South, W for West\n");
+        //do nothing
       }
     }
-    return direction;
-  }
-
-  private String getTreasureString(Treasure treasureItem, Integer count)
-          throws IllegalArgumentException {
-    if (treasureItem == null || count == null) {
-      throw new IllegalArgumentException("Please provide valid treasure and count");
+    if (playerCurrentLocation.hasTreasure()) {
+      output.append("\nThere is treasure here");
+      Map<Treasure, Integer> treasure = playerCurrentLocation.getTreasure();
+      output.append("\nYou find");
+      context.printTreasures(treasure);
     }
-    switch (treasureItem) {
-      case RUBIES: {
-        if (count > 1) {
-          return "rubies";
-        } else {
-          return "ruby";
-        }
-      }
-      case DIAMONDS: {
-        if (count > 1) {
-          return "diamonds";
-        } else {
-          return "diamond";
-        }
-      }
-      case SAPPHIRES: {
-        if (count > 1) {
-          return "sapphires";
-        } else {
-          return "sapphire";
-        }
-      }
-      default: {
-        return "";
+    if (playerCurrentLocation.hasArrows()) {
+      int arrows = playerCurrentLocation.getArrows();
+      output.append("\nThere ");
+      if (arrows > 1) {
+        output.append("are ").append(String.valueOf(arrows)).append(" arrows here\n");
+      } else {
+        output.append("is an arrow here\n");
       }
     }
-
+    Set<Move> nextMoves = playerCurrentLocation.getNextMoves();
+    output.append("\nYou can move in\n");
+    for (Move move : nextMoves) {
+      output.append(move.getFullForm()).append(": ").append(move.getShortForm()).append(
+              "\n");
+    }
   }
 
-  private void printPlayerDescription(Player player) throws IOException, IllegalArgumentException {
-    if (player == null) {
-      throw new IllegalArgumentException("Please provide valid player");
-    }
-    if (player.hasTreasure()) {
-      Map<Treasure, Integer> treasure = player.getTreasure();
-      appendable.append("\nYou now have the following treasure");
-      for (Treasure treasureItem : treasure.keySet()) {
-        Integer count = treasure.get(treasureItem);
-        appendable.append(" ").append(String.valueOf(count)).append(" ")
-                .append(getTreasureString(treasureItem, count));
+  private void printCommandList() throws IOException {
+    for (int i = 0; i < menuSize; i++) {
+      Commands command = menu[i];
+      if (available[command.ordinal()]) {
+        output.append(" ").append(command.name()).append(": ").append(command.getShortHand());
       }
-    } else {
-      appendable.append("\nPlayer has no treasure");
-    }
-    if (player.hasArrows()) {
-      int arrows = player.getArrows();
-      if (arrows > 1) {
-        appendable.append("\nYou have ").append(String.valueOf(arrows)).append(" arrows left\n");
-      } else {
-        appendable.append("\nYou have 1 arrow left\n");
-      }
-    } else {
-      appendable.append("\nPlayer has no arrows");
     }
+    output.append("\n");
   }
 
 }
@@ -0,0 +1,198 @@
+package dungeon;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import randomizer.Randomizer;
+
+/**
+ * Saves dungeons to and loads them from a compact binary file. A dungeon is written as it was
+ * generated, before any move of its player, and every dungeon loaded from the file starts a new
+ * game.
+ * The file is big-endian and starts with a header holding a magic number, the format version,
+ * the dimensions and generation parameters and the start and end cells. The exits follow with
+ * one byte per cell, then the contents, either a table of the cells holding treasure or arrows
+ * sorted by cell or the seed of lazily generated contents, then the monsters with their health.
+ * A file is loaded by memory mapping it, the exits and contents of the maze are read straight
+ * from the mapped file rather than copied. Loading still makes one pass over the exits to check
+ * that every exit has one back and none leaves an unwrapped maze, and each game builds the smell
+ * field of its cells, so loading is linear in the size of the maze; it does no generation work.
+ */
+public final class DungeonFile {
+  /**
+   * The magic number every dungeon file starts with, "DNGN" in ASCII.
+   */
+  public static final int MAGIC = 0x444e474e;
+
+  /**
+   * The version of the format written by this class.
+   */
+  public static final short VERSION = 1;
+
+  private static final int WRAPPED_FLAG = 1;
+  private static final byte STORED_CONTENTS = 0;
+  private static final byte LAZY_CONTENTS = 1;
+
+  private DungeonFile() {
+  }
+
+  /**
+   * Writes the given dungeon to a file, replacing the file if it exists.
+   *
+   * @param dungeon the dungeon to write.
+   * @param path    the file to write.
+   * @throws IllegalArgumentException if dungeon or path is null or the dungeon was not built by
+   *                                  this package.
+   * @throws IOException              if the file cannot be written.
+   */
+  public static void write(Dungeon dungeon, Path path)
+          throws IllegalArgumentException, IOException {
+    if (!(dungeon instanceof DungeonModel) || path == null) {
+      throw new IllegalArgumentException("Please provide a valid dungeon and path");
+    }
+    DungeonModel model = (DungeonModel) dungeon;
+    MazeGrid grid = model.getGrid();
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeByte(model.isWrapped() ? WRAPPED_FLAG : 0);
+      out.writeInt(grid.getRows());
+      out.writeInt(grid.getColumns());
+      out.writeInt(model.getInterconnectivity());
+      out.writeInt(model.getTreasurePercentage());
+      out.writeInt(model.getNumberOfMonsters());
+      out.writeInt(model.getStartCell());
+      out.writeInt(model.getEndCell());
+      for (int cell = 0; cell < grid.getSize(); cell++) {
+        out.writeByte(grid.getExitMask(cell));
+      }
+      if (grid.getContents() instanceof LazyContents) {
+        LazyContents contents = (LazyContents) grid.getContents();
+        out.writeByte(LAZY_CONTENTS);
+        out.writeLong(contents.getSeed());
+        out.writeInt(contents.getTreasurePercentage());
+      } else {
+        out.writeByte(STORED_CONTENTS);
+        int count = 0;
+        for (int cell = 0; cell < grid.getSize(); cell++) {
+          if (grid.hasTreasure(cell) || grid.getArrows(cell) > 0) {
+            count++;
+          }
+        }
+        out.writeInt(count);
+        for (int cell = 0; cell < grid.getSize(); cell++) {
+          if (grid.hasTreasure(cell) || grid.getArrows(cell) > 0) {
+            out.writeInt(cell);
+            out.writeInt(grid.getTreasureBits(cell));
+            out.writeByte(grid.getArrows(cell));
+          }
+        }
+      }
+      TreeSet<Integer> monsterCells = new TreeSet<>(grid.getMonsterCells());
+      out.writeInt(monsterCells.size());
+      for (int cell : monsterCells) {
+        out.writeInt(cell);
+        out.writeByte(grid.getMonster(cell).getHealth());
+      }
+    }
+  }
+
+  /**
+   * Loads a dungeon from a file and starts a new game on it.
+   *
+   * @param path       the file to load.
+   * @param randomizer the randomizer used while playing.
+   * @return the loaded dungeon.
+   * @throws IllegalArgumentException if path or randomizer is null.
+   * @throws IOException              if the file cannot be read or is not a valid dungeon file,
+   *                                  including exits that lead nowhere or have no exit back; the
+   *                                  cause is then the IllegalArgumentException of the check.
+   */
+  public static Dungeon load(Path path, Randomizer randomizer)
+          throws IllegalArgumentException, IOException {
+    if (path == null || randomizer == null) {
+      throw new IllegalArgumentException("Please provide a valid path and randomizer");
+    }
+    MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      return read(buffer, randomizer);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IOException("Dungeon file is truncated: " + path, e);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Invalid dungeon file: " + path + ": " + e.getMessage(), e);
+    }
+  }
+
+  private static DungeonModel read(ByteBuffer buffer, Randomizer randomizer)
+          throws IOException {
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a dungeon file");
+    }
+    short version = buffer.getShort();
+    if (version != VERSION) {
+      throw new IOException("Unsupported dungeon file version: " + version);
+    }
+    boolean wrapped = (buffer.get() & WRAPPED_FLAG) != 0;
+    int rows = buffer.getInt();
+    int columns = buffer.getInt();
+    int interconnectivity = buffer.getInt();
+    int treasurePercentage = buffer.getInt();
+    int numberOfMonsters = buffer.getInt();
+    int startCell = buffer.getInt();
+    int endCell = buffer.getInt();
+    if (rows <= 0 || columns <= 0 || (long) rows * columns > buffer.remaining()) {
+      throw new IOException("Invalid dungeon size: " + rows + "x" + columns);
+    }
+    int size = rows * columns;
+    if (startCell < 0 || startCell >= size || endCell < 0 || endCell >= size) {
+      throw new IOException("Start or end cell outside the dungeon");
+    }
+    ByteBuffer exits = buffer.slice();
+    exits.limit(size);
+    buffer.position(buffer.position() + size);
+    byte kind = buffer.get();
+    long seed = 0;
+    int lazyPercentage = 0;
+    CellContents contents;
+    if (kind == LAZY_CONTENTS) {
+      seed = buffer.getLong();
+      lazyPercentage = buffer.getInt();
+      contents = null;
+    } else if (kind == STORED_CONTENTS) {
+      int count = buffer.getInt();
+      contents = new MappedContents(buffer, count);
+      buffer.position(buffer.position() + count * MappedContents.RECORD_SIZE);
+    } else {
+      throw new IOException("Unknown contents kind: " + kind);
+    }
+    int monsterCount = buffer.getInt();
+    if (monsterCount < 0) {
+      throw new IOException("Invalid number of monsters: " + monsterCount);
+    }
+    Map<Integer, Integer> monsters = new HashMap<>();
+    for (int i = 0; i < monsterCount; i++) {
+      monsters.put(buffer.getInt(), (int) buffer.get());
+    }
+    MazeGrid grid = new MazeGrid(rows, columns, exits, monsters);
+    grid.checkExits(wrapped);
+    grid.setContents(contents == null ? new LazyContents(grid, seed, lazyPercentage) : contents);
+    grid.freeze();
+    return new DungeonModel(grid, startCell, endCell, wrapped, interconnectivity,
+            treasurePercentage, numberOfMonsters, randomizer);
+  }
+}
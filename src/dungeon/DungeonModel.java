@@ -1,16 +1,11 @@
 package dungeon;
 
-
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 
 import randomizer.Randomizer;
 
@@ -19,9 +14,20 @@ import randomizer.Randomizer;
  * It contains the player, maze, treasure and maintains game state.
  */
 public class DungeonModel implements Dungeon {
-  private final List<List<LocationPrivate>> maze;
+  //Number of random indices drawn at a time while carving the maze
+  private static final int DRAW_BATCH_SIZE = 4096;
+
+  private final MazeGrid maze;
+  private final MazeState state;
   private final Randomizer randomizer;
   private final PlayerPrivate player;
+  private final GenerationMetrics generationMetrics;
+  private final GenerationOptions options;
+  private final boolean wrapped;
+  private final int interconnectivity;
+  private final int treasurePercentage;
+  private final int numberOfMonsters;
+  private SmellField smellField;
   private int startX;
   private int startY;
   private int endX;
@@ -54,11 +60,50 @@ public class DungeonModel implements Dungeon {
   public DungeonModel(int rows, int columns, boolean wrapped,
                       int interconnectivity, int treasureAndArrowPercentage, int numberOfMonsters,
                       Randomizer randomizer) throws IllegalArgumentException {
+    this(rows, columns, wrapped, interconnectivity, treasureAndArrowPercentage, numberOfMonsters,
+            randomizer, new GenerationOptions());
+  }
+
+  /**
+   * Creates an instance of DungeonModel using the given generation options.
+   *
+   * @param rows                       the number of rows in the dungeon maze.
+   * @param columns                    the number of columns in the dungeon maze.
+   * @param wrapped                    if the maze is wrapped around edges or not.
+   * @param interconnectivity          the interconnectivity.
+   * @param treasureAndArrowPercentage the percentage of caves that have treasure or arrows.
+   *                                   If percentage of nodes is decimal it
+   *                                   takes the lower bound number of nodes.
+   * @param numberOfMonsters           the number of monsters in the dungeon of caves.
+   * @param randomizer                 the game randomizer to use.
+   * @param options                    the {@link GenerationOptions} to build the dungeon with.
+   * @throws IllegalArgumentException if maze dimensions are less than 3x2.
+   * @throws IllegalArgumentException if randomizer or options is null.
+   * @throws IllegalArgumentException if treasure percentage is negative or greater than 100.
+   * @throws IllegalArgumentException if interconnectivity is not between 0
+   *                                  and maximum possible interconnectivity.
+   * @throws IllegalArgumentException if no two caves are far enough apart to be the start and
+   *                                  end caves.
+   */
+  public DungeonModel(int rows, int columns, boolean wrapped,
+                      int interconnectivity, int treasureAndArrowPercentage, int numberOfMonsters,
+                      Randomizer randomizer, GenerationOptions options)
+          throws IllegalArgumentException {
     validator(rows, columns, wrapped, interconnectivity, treasureAndArrowPercentage,
             numberOfMonsters, randomizer);
+    if (options == null) {
+      throw new IllegalArgumentException("Generation options cannot be null");
+    }
+    this.options = options;
+    this.wrapped = wrapped;
+    this.interconnectivity = interconnectivity;
+    this.treasurePercentage = treasureAndArrowPercentage;
+    this.numberOfMonsters = numberOfMonsters;
     this.randomizer = randomizer;
-    this.maze = new ArrayList<>();
+    this.maze = new MazeGrid(rows, columns);
+    this.state = new MazeState(maze);
     this.player = new PlayerModel();
+    this.generationMetrics = new GenerationMetrics();
     this.startX = -1;
     this.startY = -1;
     this.endX = -1;
@@ -72,6 +117,71 @@ public class DungeonModel implements Dungeon {
             numberOfMonsters, randomizer);
   }
 
+  /**
+   * Creates a new game on the dungeon built by the given template. The maze and its initial
+   * contents are shared with the template and never change, the new game starts from them
+   * with a new player whatever has happened in the games of the template.
+   */
+  DungeonModel(DungeonModel template, Randomizer randomizer) throws IllegalArgumentException {
+    if (template == null || randomizer == null) {
+      throw new IllegalArgumentException("Template and randomizer cannot be null");
+    }
+    this.options = template.options;
+    this.wrapped = template.wrapped;
+    this.interconnectivity = template.interconnectivity;
+    this.treasurePercentage = template.treasurePercentage;
+    this.numberOfMonsters = template.numberOfMonsters;
+    this.randomizer = randomizer;
+    this.maze = template.maze;
+    this.state = new MazeState(maze);
+    this.player = new PlayerModel();
+    this.generationMetrics = template.generationMetrics;
+    this.smellField = template.smellField.newGame(state);
+    this.startX = template.startX;
+    this.startY = template.startY;
+    this.endX = template.endX;
+    this.endY = template.endY;
+    this.currentX = template.startX;
+    this.currentY = template.startY;
+    this.playerVisitedEnd = false;
+    this.isGameOver = false;
+    this.isPlayerDead = false;
+  }
+
+  /**
+   * Creates a new game on a dungeon read back from a file. The grid must be frozen and is
+   * shared with every game created from it.
+   */
+  DungeonModel(MazeGrid grid, int startCell, int endCell, boolean wrapped,
+               int interconnectivity, int treasurePercentage, int numberOfMonsters,
+               Randomizer randomizer) throws IllegalArgumentException {
+    if (grid == null || randomizer == null) {
+      throw new IllegalArgumentException("Grid and randomizer cannot be null");
+    }
+    if (!grid.isFrozen()) {
+      throw new IllegalArgumentException("Grid must be frozen");
+    }
+    this.options = new GenerationOptions();
+    this.wrapped = wrapped;
+    this.interconnectivity = interconnectivity;
+    this.treasurePercentage = treasurePercentage;
+    this.numberOfMonsters = numberOfMonsters;
+    this.randomizer = randomizer;
+    this.maze = grid;
+    this.state = new MazeState(maze);
+    this.player = new PlayerModel();
+    this.generationMetrics = new GenerationMetrics();
+    this.smellField = new SmellField(state);
+    this.startX = maze.getRow(startCell);
+    this.startY = maze.getColumn(startCell);
+    this.endX = maze.getRow(endCell);
+    this.endY = maze.getColumn(endCell);
+    updateCurrentPosition(startX, startY);
+    this.playerVisitedEnd = false;
+    this.isGameOver = false;
+    this.isPlayerDead = false;
+  }
+
   /**
    * Returns the maze of the dungeon.
    *
@@ -80,8 +190,11 @@ public class DungeonModel implements Dungeon {
   @Override
   public List<List<Location>> getMaze() {
     List<List<Location>> tmpMaze = new ArrayList<>();
-    for (List<LocationPrivate> yList : this.maze) {
-      List<Location> tmpList = new ArrayList<>(yList);
+    for (int x = 0; x < maze.getRows(); x++) {
+      List<Location> tmpList = new ArrayList<>();
+      for (int y = 0; y < maze.getColumns(); y++) {
+        tmpList.add(getLocation(x, y));
+      }
       tmpMaze.add(tmpList);
     }
     return tmpMaze;
@@ -156,6 +269,14 @@ public class DungeonModel implements Dungeon {
    */
   @Override
   public void movePlayer(Move move) throws IllegalArgumentException {
+    movePlayer(move, randomizer);
+  }
+
+  /**
+   * Moves the player drawing the fate of meeting an injured monster from the given randomizer,
+   * so a saved move can be applied again with its recorded outcome.
+   */
+  void movePlayer(Move move, Randomizer randomizer) throws IllegalArgumentException {
     if (isGameOver() && isPlayerDead()) {
       throw new IllegalStateException("Game has ended");
     }
@@ -236,8 +357,8 @@ public class DungeonModel implements Dungeon {
     if (location == null) {
       throw new IllegalArgumentException("Location cannot be null");
     }
-    int smell = getSmellHelper(location);
-    return SmellLevel.getSmellLevel(smell);
+    int cell = maze.getCell(location.getRow(), location.getColumn());
+    return SmellLevel.getSmellLevel(smellField.getSmell(cell));
   }
 
   /**
@@ -295,96 +416,140 @@ public class DungeonModel implements Dungeon {
     return isPlayerDead;
   }
 
-  private void generateStartEndNodes(Randomizer randomizer) throws IllegalArgumentException {
+  /**
+   * Returns the time spent and work done in each phase of building this dungeon.
+   *
+   * @return the {@link GenerationMetrics} of this dungeon.
+   */
+  public GenerationMetrics getGenerationMetrics() {
+    return generationMetrics;
+  }
+
+  MazeGrid getGrid() {
+    return maze;
+  }
+
+  int getStartCell() {
+    return maze.getCell(startX, startY);
+  }
+
+  int getEndCell() {
+    return maze.getCell(endX, endY);
+  }
+
+  boolean isWrapped() {
+    return wrapped;
+  }
+
+  int getInterconnectivity() {
+    return interconnectivity;
+  }
+
+  int getTreasurePercentage() {
+    return treasurePercentage;
+  }
+
+  int getNumberOfMonsters() {
+    return numberOfMonsters;
+  }
+
+  MazeState getState() {
+    return state;
+  }
+
+  PlayerPrivate getPlayer() {
+    return player;
+  }
+
+  int getCurrentCell() {
+    return maze.getCell(currentX, currentY);
+  }
+
+  /**
+   * Puts the player back where a saved game left them. The contents of the maze must already
+   * be restored, the smell is recomputed from its monsters.
+   */
+  void restoreGame(int currentCell, boolean playerVisitedEnd, boolean isGameOver,
+                   boolean isPlayerDead) throws IllegalArgumentException {
+    if (currentCell < 0 || currentCell >= maze.getSize()) {
+      throw new IllegalArgumentException("Cell outside the dungeon: " + currentCell);
+    }
+    updateCurrentPosition(maze.getRow(currentCell), maze.getColumn(currentCell));
+    this.playerVisitedEnd = playerVisitedEnd;
+    this.isGameOver = isGameOver;
+    this.isPlayerDead = isPlayerDead;
+    this.smellField = new SmellField(state);
+  }
+
+  private int generateStartEndNodes(Randomizer randomizer) throws IllegalArgumentException {
     if (randomizer == null) {
       throw new IllegalArgumentException("Please provide valid randomizer");
     }
+    int[] candidates = new int[maze.getSize()];
+    int remaining = 0;
+    for (int cell = 0; cell < maze.getSize(); cell++) {
+      if (maze.isCave(cell)) {
+        candidates[remaining++] = cell;
+      }
+    }
+    MazeBfs bfs = new MazeBfs(maze);
+    int[] prospectiveEndNodes = new int[remaining];
+    int minimumDistance = options.getMinimumDistance();
+    //The original selection credits the last cell of every level with one more move than its
+    //distance. That is kept for the default distance so seeded dungeons stay the same, any
+    //other minimum is a true shortest path length.
+    boolean levelEndCredit = minimumDistance == GenerationOptions.DEFAULT_MINIMUM_DISTANCE;
+    int cellsVisited = 0;
     boolean startEndSet = false;
-    List<LocationPrivate> allCaves = getAllCaves();
-    while (!startEndSet && !allCaves.isEmpty()) {
-      int randomIndex = randomizer.getRandomValue(0, allCaves.size() - 1);
-      Location startLocation = allCaves.remove(randomIndex);
-      startX = startLocation.getRow();
-      startY = startLocation.getColumn();
-      updateCurrentPosition(startX, startY);
-      List<Location> locationStack = new LinkedList<>();//stack = util.Stack()
-      List<Location> visited = new ArrayList<>();//explored = []
-      Map<Location, List<Integer>> prospectiveEndNodes = new LinkedHashMap<>();
-      locationStack.add(startLocation);//stack.push((problem.getStartState(), [], 0))
-      int pathLength = 0;
-      int elementsToDepthIncrease = 1;
-      int nextElementsToDepthIncrease = 0;
-      while (!locationStack.isEmpty()) {
-        List<LocationPrivate> allCavesList = getAllCaves();
-        LocationPrivate location = (LocationPrivate) locationStack.remove(0);
-        updateCurrentPosition(location.getRow(), location.getColumn());
-        Set<Move> locationNextMoves = location.getNextMoves();
-        for (Move move : locationNextMoves) {
-          Location childLocation = getNextLocation(getPlayerCurrentLocation(), move);
-          if (!visited.contains(childLocation) && !locationStack.contains(childLocation)) {
-            locationStack.add(childLocation);
-            nextElementsToDepthIncrease++;
-          }
-        }
-        if (!visited.contains(location)) {
-          visited.add(location);
-          --elementsToDepthIncrease;
-          if (elementsToDepthIncrease == 0) {
+    while (!startEndSet && remaining > 0) {
+      int randomIndex = randomizer.getRandomValue(0, remaining - 1);
+      int startCell = candidates[randomIndex];
+      System.arraycopy(candidates, randomIndex + 1, candidates, randomIndex,
+              remaining - randomIndex - 1);
+      remaining--;
+      startX = maze.getRow(startCell);
+      startY = maze.getColumn(startCell);
+      int reached = bfs.sweep(startCell);
+      cellsVisited += reached;
+      int numberOfEndNodes = 0;
+      for (int i = 0; i < reached; i++) {
+        int cell = bfs.getCell(i);
+        if (maze.isCave(cell) && cell != startCell) {
+          int pathLength = bfs.getDistance(cell);
+          if (levelEndCredit
+                  && (i == reached - 1 || bfs.getDistance(bfs.getCell(i + 1)) != pathLength)) {
             pathLength++;
-            elementsToDepthIncrease = nextElementsToDepthIncrease;
-            nextElementsToDepthIncrease = 0;
           }
-          if (allCavesList.contains(location)) {
-            List<Integer> pathLengths = prospectiveEndNodes.get(location);
-            if (pathLengths == null) {
-              pathLengths = new ArrayList<>();
-            }
-            pathLengths.add(pathLength);
-            Collections.sort(pathLengths);
-            prospectiveEndNodes.put(location, pathLengths);
+          if (pathLength >= minimumDistance) {
+            prospectiveEndNodes[numberOfEndNodes++] = cell;
           }
         }
       }
-      List<Location> toBeRemoved = new ArrayList<>();
-      for (Location location : prospectiveEndNodes.keySet()) {
-        List<Integer> integerList = prospectiveEndNodes.get(location);
-        Integer integer = integerList.get(0);
-        if (integer < 6) {
-          toBeRemoved.add(location);
-        }
-      }
-      for (Location location : toBeRemoved) {
-        prospectiveEndNodes.remove(location);
-      }
-      updateCurrentPosition(startX, startY);
-
-      if (prospectiveEndNodes.size() > 0 && startX != -1 && startY != -1) {
-        int randomIndexEndNode = randomizer.getRandomValue(0, prospectiveEndNodes.size() - 1);
-        List<Location> prospectiveEndLocations = new ArrayList<>(prospectiveEndNodes.keySet());
-        Location endLocation = prospectiveEndLocations.get(randomIndexEndNode);
-        endX = endLocation.getRow();
-        endY = endLocation.getColumn();
-        updateCurrentPosition(startX, startY);
+      if (numberOfEndNodes > 0) {
+        int randomIndexEndNode = randomizer.getRandomValue(0, numberOfEndNodes - 1);
+        int endCell = prospectiveEndNodes[randomIndexEndNode];
+        endX = maze.getRow(endCell);
+        endY = maze.getColumn(endCell);
         startEndSet = true;
       }
     }
+    if (!startEndSet) {
+      throw new IllegalArgumentException("No two caves are at least " + minimumDistance
+              + " moves apart in this maze");
+    }
+    updateCurrentPosition(startX, startY);
+    return cellsVisited;
   }
 
   private LocationPrivate getLocation(int x, int y) throws IllegalArgumentException {
-    if (x < 0 || y < 0) {
-      throw new IllegalArgumentException("Please provide valid coordinates");
-    }
-    if (x >= maze.size() || y >= maze.get(0).size()) {
-      throw new IllegalArgumentException("Please provide valid coordinates");
-    }
-    return maze.get(x).get(y);
+    return state.getLocation(maze.getCell(x, y));
   }
 
   private void updateCurrentPosition(int x, int y) throws IllegalArgumentException {
     if (x < 0 || y < 0) {
       throw new IllegalArgumentException("Please provide valid coordinates");
     }
-    if (x >= maze.size() || y >= maze.get(0).size()) {
+    if (x >= maze.getRows() || y >= maze.getColumns()) {
       throw new IllegalArgumentException("Please provide valid coordinates");
     }
     currentX = x;
@@ -404,125 +569,178 @@ public class DungeonModel implements Dungeon {
     if (location == null || move == null) {
       throw new IllegalArgumentException("Please provide non null parameters");
     }
-    List<Integer> coordinates = new ArrayList<>();
-    int row = location.getRow();
-    int column = location.getColumn();
-    switch (move) {
-      case NORTH: {
-        int x = row - 1;
-        if (x < 0) {
-          x = maze.size() - 1;
-        }
-        coordinates.add(x);
-        coordinates.add(column);
-        break;
-      }
-      case SOUTH: {
-        int x = row + 1;
-        if (x == maze.size()) {
-          x = 0;
+    int cell = maze.getCell(location.getRow(), location.getColumn());
+    return state.getLocation(maze.getNeighbour(cell, move));
+  }
+
+  private void connectInterconnectivity(int interconnectivity, int[] skippedEdges)
+          throws IllegalArgumentException {
+    if (skippedEdges == null) {
+      throw new IllegalArgumentException("Null passed for skipped edges");
+    }
+    RemovalList remainingEdges = new RemovalList(skippedEdges, skippedEdges.length,
+            options.getSamplingMode());
+    int[] indices = new int[interconnectivity];
+    randomizer.fillSamplingIndices(indices, interconnectivity, remainingEdges.size());
+    for (int index : indices) {
+      PackedEdge.carve(maze, remainingEdges.remove(index));
+    }
+  }
+
+  private int[] connectMazeEdges(Randomizer randomizer, int[] edges, DisjointSet cellSets)
+          throws IllegalArgumentException {
+    if (randomizer == null || edges == null || cellSets == null) {
+      throw new IllegalArgumentException("Please provided valid arguments");
+    }
+    int[] skippedEdges = new int[edges.length];
+    int numberOfSkippedEdges = 0;
+    RemovalList remainingEdges = new RemovalList(edges, edges.length, options.getSamplingMode());
+    int[] indices = new int[Math.min(DRAW_BATCH_SIZE, edges.length)];
+    while (remainingEdges.size() > 0) {
+      int batch = Math.min(indices.length, remainingEdges.size());
+      randomizer.fillSamplingIndices(indices, batch, remainingEdges.size());
+      for (int i = 0; i < batch; i++) {
+        int edge = remainingEdges.remove(indices[i]);
+        int cell = PackedEdge.getCell(edge);
+        int neighbour = maze.getNeighbour(cell, PackedEdge.getMove(edge));
+        if (!cellSets.union(cell, neighbour)) {
+          skippedEdges[numberOfSkippedEdges++] = edge;
+        } else {
+          PackedEdge.carve(maze, edge);
         }
-        coordinates.add(x);
-        coordinates.add(column);
-        break;
       }
-      case WEST: {
-        int y = column + 1;
-        if (y == maze.get(row).size()) {
-          y = 0;
+    }
+    return Arrays.copyOf(skippedEdges, numberOfSkippedEdges);
+  }
+
+  private int[] generateEdges(int rows, int columns, boolean wrapped)
+          throws IllegalArgumentException {
+    if (rows < 5 || columns < 4) {
+      throw new IllegalArgumentException("Please provide row 5 or greater and column 4 or greater");
+    }
+    int[] edges = new int[(int) EllerMazeGenerator.getTotalEdges(rows, columns, wrapped)];
+    int numberOfEdges = 0;
+    for (int x = 0; x < rows; x++) {
+      for (int y = 0; y < columns; y++) {
+        int cell = x * columns + y;
+        if (x != 0 || wrapped) {
+          edges[numberOfEdges++] = PackedEdge.of(cell, Move.NORTH);
         }
-        coordinates.add(row);
-        coordinates.add(y);
-        break;
-      }
-      case EAST: {
-        int y = column - 1;
-        if (y < 0) {
-          y = maze.get(row).size() - 1;
+        if (y != columns - 1 || wrapped) {
+          edges[numberOfEdges++] = PackedEdge.of(cell, Move.WEST);
         }
-        coordinates.add(row);
-        coordinates.add(y);
-        break;
-      }
-      default: {
-        throw new IllegalStateException("getNextLocation should never be in default condition");
       }
     }
-    if (coordinates.size() != 2) {
-      throw new IllegalArgumentException("Something went wrong in getting new coordinates");
+    return edges;
+  }
+
+  private int selectStartEndNodes(Randomizer randomizer) throws IllegalArgumentException {
+    if (options.getStartEndStrategy() == StartEndStrategy.RANDOM_RETRY) {
+      return generateStartEndNodes(randomizer);
     }
-    return maze.get(coordinates.get(0)).get(coordinates.get(1));
+    StartEndSelector selector = new StartEndSelector(maze, options.getMinimumDistance());
+    int[] startEnd = selector.select(randomizer);
+    startX = maze.getRow(startEnd[0]);
+    startY = maze.getColumn(startEnd[0]);
+    endX = maze.getRow(startEnd[1]);
+    endY = maze.getColumn(startEnd[1]);
+    updateCurrentPosition(startX, startY);
+    return selector.getCellsVisited();
   }
 
-  private void fillUpTreasure(int treasurePercentage, Randomizer randomizer)
+  private int fillUpTreasure(int treasurePercentage, Randomizer randomizer)
           throws IllegalArgumentException {
     if (randomizer == null) {
       throw new IllegalArgumentException("Please provide non null randomizer");
     }
+    int filled = 0;
     if (treasurePercentage > 0) {
-      List<LocationPrivate> allNodes = getAllCaves();
+      CellSampler caves = new CellSampler(maze, true, options.getSamplingMode());
       double percentage = treasurePercentage / 100.00;
       int numberOfNodesToFillTreasure = Double.valueOf(
-              Math.round(percentage * allNodes.size())).intValue();
+              Math.round(percentage * caves.size())).intValue();
       if (numberOfNodesToFillTreasure == 0) {
         numberOfNodesToFillTreasure = 1;
       }
       while (numberOfNodesToFillTreasure > 0) {
         List<Treasure> treasures = new ArrayList<>(Arrays.asList(Treasure.values()));
-        int randomIndex = randomizer.getRandomValue(0, allNodes.size() - 1);
-        LocationPrivate treasureNode = allNodes.remove(randomIndex);
+        int treasureCell = caves.draw(randomizer);
         int randomNumberOfTreasures = randomizer.getRandomValue(1, 3);
         for (int i = 0; i < randomNumberOfTreasures; i++) {
           int randomTreasureIndex = randomizer.getRandomValue(0, treasures.size() - 1);
           Treasure treasure = treasures.remove(randomTreasureIndex);
           int randomTreasureQuantity = randomizer.getRandomValue(1, 5);
-          treasureNode.setTreasure(treasure, randomTreasureQuantity);
+          maze.setTreasure(treasureCell, treasure,
+                  maze.getTreasure(treasureCell, treasure) + randomTreasureQuantity);
         }
         numberOfNodesToFillTreasure--;
+        filled++;
       }
     }
+    return filled;
   }
 
-  private void fillUpArrows(int treasurePercentage, Randomizer randomizer)
+  private int fillUpArrows(int treasurePercentage, Randomizer randomizer)
           throws IllegalArgumentException {
     if (randomizer == null) {
       throw new IllegalArgumentException("Please provide non null randomizer");
     }
+    int filled = 0;
     if (treasurePercentage > 0) {
-      List<LocationPrivate> totalLocations = getAllLocations();
+      CellSampler locations = new CellSampler(maze, false, options.getSamplingMode());
       double percentage = treasurePercentage / 100.00;
       int numberOfLocationsToFillArrows = Double.valueOf(
-              Math.round(percentage * totalLocations.size())).intValue();
+              Math.round(percentage * locations.size())).intValue();
       if (numberOfLocationsToFillArrows == 0) {
         numberOfLocationsToFillArrows = 1;
       }
       while (numberOfLocationsToFillArrows > 0) {
-        int randomIndex = randomizer.getRandomValue(0, totalLocations.size() - 1);
-        LocationPrivate arrowNode = totalLocations.remove(randomIndex);
+        int arrowCell = locations.draw(randomizer);
         int randomNumberOfArrows = randomizer.getRandomValue(1, 3);
-        arrowNode.setArrows(randomNumberOfArrows);
+        maze.setArrows(arrowCell, randomNumberOfArrows);
         numberOfLocationsToFillArrows--;
+        filled++;
       }
     }
+    return filled;
   }
 
-  private void fillUpMonsters(int numberOfMonsters, Randomizer randomizer)
+  private int fillUpMonsters(int numberOfMonsters, Randomizer randomizer)
           throws IllegalArgumentException {
     if (randomizer == null) {
       throw new IllegalArgumentException("Please provide non null randomizer");
     }
-    List<LocationPrivate> allNodes = getAllCaves();
-    LocationPrivate endNode = getLocation(endX, endY);
-    endNode.setMonster();
+    int startCell = maze.getCell(startX, startY);
+    int endCell = maze.getCell(endX, endY);
+    maze.setMonster(endCell);
     numberOfMonsters--;
+    int placed = 1;
+    if (options.getSamplingMode() == SamplingMode.SWAP) {
+      //The start and end caves are left out up front, so every draw places a monster
+      CellSampler caves = new CellSampler(maze, true, SamplingMode.SWAP, startCell, endCell);
+      if (numberOfMonsters > caves.size()) {
+        throw new IllegalArgumentException("Number of monsters is greater than number of caves"
+                + " other than the start: " + (caves.size() + 1));
+      }
+      for (int monsterCave : caves.draw(randomizer, Math.max(numberOfMonsters, 0))) {
+        maze.setMonster(monsterCave);
+        placed++;
+      }
+      return placed;
+    }
+    CellSampler caves = new CellSampler(maze, true, SamplingMode.ORDERED);
     while (numberOfMonsters > 0) {
-      int randomIndex = randomizer.getRandomValue(0, allNodes.size() - 1);
-      LocationPrivate monsterCave = allNodes.remove(randomIndex);
-      if (monsterCave.getRow() != startX && monsterCave.getColumn() != startY) {
-        monsterCave.setMonster();
+      if (caves.size() == 0) {
+        throw new IllegalArgumentException("Could not place all monsters away from the start");
+      }
+      int monsterCave = caves.draw(randomizer);
+      if (maze.getRow(monsterCave) != startX && maze.getColumn(monsterCave) != startY) {
+        maze.setMonster(monsterCave);
         numberOfMonsters--;
+        placed++;
       }
     }
+    return placed;
   }
 
   private ArrowHitOutcome fireArrowHelper(Move direction, int arrowDistance)
@@ -556,6 +774,8 @@ public class DungeonModel implements Dungeon {
     if (arrowCurrentLocation.hasMonster() && distance == 0) {
       arrowCurrentLocation.hitMonster();
       if (arrowCurrentLocation.getMonster().isDead()) {
+        smellField.update(maze.getCell(arrowCurrentLocation.getRow(),
+                arrowCurrentLocation.getColumn()));
         hit = ArrowHitOutcome.KILLED;
       }
       else if (arrowCurrentLocation.getMonster().isInjured()) {
@@ -565,24 +785,14 @@ public class DungeonModel implements Dungeon {
     return hit;
   }
 
-  private List<LocationPrivate> getAllCaves() {
-    List<LocationPrivate> allNodes = new ArrayList<>();
-    for (List<LocationPrivate> yList : maze) {
-      for (LocationPrivate location : yList) {
-        if (location.isCave()) {
-          allNodes.add(location);
-        }
+  private int countCaves() {
+    int numberOfCaves = 0;
+    for (int cell = 0; cell < maze.getSize(); cell++) {
+      if (maze.isCave(cell)) {
+        numberOfCaves++;
       }
     }
-    return allNodes;
-  }
-
-  private List<LocationPrivate> getAllLocations() {
-    List<LocationPrivate> allNodes = new ArrayList<>();
-    for (List<LocationPrivate> yList : maze) {
-      allNodes.addAll(yList);
-    }
-    return allNodes;
+    return numberOfCaves;
   }
 
   private void validator(int rows, int columns, boolean wrapped,
@@ -614,152 +824,82 @@ public class DungeonModel implements Dungeon {
     }
   }
 
-  private void connectInterconnectivity(int interconnectivity, List<Edge> skippedEdges)
-          throws IllegalArgumentException {
-    if (skippedEdges == null) {
-      throw new IllegalArgumentException("Null passed for skipped edges");
-    }
-    if (interconnectivity > 0) {
-      for (int i = 0; i < interconnectivity; i++) {
-        int index = randomizer.getRandomValue(0, skippedEdges.size() - 1);
-        Edge edge = skippedEdges.remove(index);
-        int x = edge.getX1();
-        int y = edge.getY1();
-        int x2 = edge.getX2();
-        int y2 = edge.getY2();
-        LocationPrivate locationA = getLocation(x, y);
-        LocationPrivate locationB = getLocation(x2, y2);
-        Move move = edge.getMove();
-        locationA.setNextMove(move);
-        locationB.setNextMove(move.getOpposite());
-      }
-    }
-  }
-
-  private void connectMazeEdges(Randomizer randomizer, Stack<Edge> edges,
-                                List<Edge> skippedEdges, List<Set<LocationPrivate>> listOfSets)
-          throws IllegalArgumentException {
-    if (randomizer == null || edges == null || skippedEdges == null || listOfSets == null) {
-      throw new IllegalArgumentException("Please provided valid arguments");
-    }
-    while (edges.size() > 0) {
-      int index = randomizer.getRandomValue(0, edges.size() - 1);
-      Edge edge = edges.remove(index);
-      int x = edge.getX1();
-      int y = edge.getY1();
-      int x2 = edge.getX2();
-      int y2 = edge.getY2();
-      LocationPrivate locationA = getLocation(x, y);
-      LocationPrivate locationB = getLocation(x2, y2);
-      Move move = edge.getMove();
-      Set<LocationPrivate> setA = getSetContainingNode(listOfSets, locationA);
-      if (setA == null) {
-        setA = new HashSet<>();
-        setA.add(locationA);
-        listOfSets.add(setA);
-      }
-      Set<LocationPrivate> setB = getSetContainingNode(listOfSets, locationB);
-      if (setB == null) {
-        setB = new HashSet<>();
-        setB.add(locationB);
-        listOfSets.add(setB);
-      }
-      if (!Collections.disjoint(setA, setB)) {
-        skippedEdges.add(edge);
-      } else {
-        setA.addAll(setB);
-        listOfSets.remove(setB);
-        locationA.setNextMove(move);
-        locationB.setNextMove(move.getOpposite());
-      }
-    }
-  }
-
-  private Stack<Edge> generateEdges(int rows, int columns, boolean wrapped)
-          throws IllegalArgumentException {
-    if (rows < 5 || columns < 4) {
-      throw new IllegalArgumentException("Please provide row 5 or greater and column 4 or greater");
-    }
-    Stack<Edge> edges = new Stack<>();
-    for (int x = 0; x < rows; x++) {
-      maze.add(x, new ArrayList<>());
-      for (int y = 0; y < columns; y++) {
-        List<LocationPrivate> yList = maze.get(x);
-        yList.add(y, new LocationNode(x, y));
-        if (x != 0 || wrapped) {
-          int x2 = (x == 0) ? rows - 1 : x - 1;
-          int y2 = y;
-          edges.add(new Edge(x, y, x2, y2, Move.NORTH));
-        }
-        if (y != columns - 1 || wrapped) {
-          int x2 = x;
-          int y2 = (y == columns - 1) ? 0 : y + 1;
-          edges.add(new Edge(x, y, x2, y2, Move.WEST));
-        }
-      }
-    }
-    return edges;
-  }
-
-  private Set<LocationPrivate> getSetContainingNode(
-          List<Set<LocationPrivate>> listOfSets, LocationPrivate locationA)
-          throws IllegalArgumentException {
-    if (listOfSets == null || locationA == null) {
-      throw new IllegalStateException("Please provide valid arguments");
-    }
-    for (Set<LocationPrivate> set : listOfSets) {
-      if (set.contains(locationA)) {
-        return set;
-      }
-    }
-    return null;
-  }
-
-  private int getSmellHelper(Location location) throws IllegalArgumentException {
-    if (location == null) {
-      throw new IllegalArgumentException("Location cannot be null");
-    }
-    int smell = 0;
-    Set<Move> nextMoves = location.getNextMoves();
-    int count2PositionMonsters = 0;
-    for (Move move : nextMoves) {
-      Location location1 = getNextLocation(location, move);
-      if (location1.hasMonster()) {
-        smell = 2;
-      }
-      Set<Move> nextMovesLevel2 = location1.getNextMoves();
-      for (Move nextMoveLeve2 : nextMovesLevel2) {
-        Location location2 = getNextLocation(location1, nextMoveLeve2);
-        if (location2.hasMonster()) {
-          count2PositionMonsters++;
-          if (smell < 2 && count2PositionMonsters > 1) {
-            smell = 2;
-          }
-          if (smell != 2) {
-            smell = 1;
-          }
-        }
-      }
-    }
-    return smell;
-  }
-
   private void buildDungeon(int rows, int columns, boolean wrapped,
                             int interconnectivity, int treasurePercentage, int numberOfMonsters,
                             Randomizer randomizer) {
-    Stack<Edge> edges = generateEdges(rows, columns, wrapped);
-    List<Edge> skippedEdges = new ArrayList<>();
-    List<Set<LocationPrivate>> listOfSets = new ArrayList<>();
-    connectMazeEdges(randomizer, edges, skippedEdges, listOfSets);
-    connectInterconnectivity(interconnectivity, skippedEdges);
-    int numberOfCaves = getAllCaves().size();
+    long phaseStart = System.nanoTime();
+    if (options.getMazeAlgorithm() == MazeAlgorithm.ELLER) {
+      carveEllerMaze(rows, columns, wrapped, interconnectivity, randomizer);
+      phaseStart = recordPhase(GenerationPhase.SPANNING_TREE, phaseStart,
+              EllerMazeGenerator.getTotalEdges(rows, columns, wrapped));
+    } else if (options.getMazeAlgorithm() == MazeAlgorithm.PARALLEL_TILED) {
+      int[] skippedEdges = new TiledMazeGenerator(maze, wrapped, drawSeed(randomizer))
+              .generate(options.getParallelism());
+      phaseStart = recordPhase(GenerationPhase.SPANNING_TREE, phaseStart,
+              EllerMazeGenerator.getTotalEdges(rows, columns, wrapped));
+      connectInterconnectivity(interconnectivity, skippedEdges);
+      phaseStart = recordPhase(GenerationPhase.INTERCONNECTIVITY, phaseStart,
+              interconnectivity);
+    } else {
+      int[] edges = generateEdges(rows, columns, wrapped);
+      int numberOfEdges = edges.length;
+      phaseStart = recordPhase(GenerationPhase.EDGES, phaseStart, numberOfEdges);
+      DisjointSet cellSets = new DisjointSet(rows * columns);
+      int[] skippedEdges = connectMazeEdges(randomizer, edges, cellSets);
+      phaseStart = recordPhase(GenerationPhase.SPANNING_TREE, phaseStart, numberOfEdges);
+      connectInterconnectivity(interconnectivity, skippedEdges);
+      phaseStart = recordPhase(GenerationPhase.INTERCONNECTIVITY, phaseStart,
+              interconnectivity);
+    }
+    int numberOfCaves = countCaves();
     if (numberOfMonsters > numberOfCaves) {
       throw new IllegalArgumentException("Number of monsters is greater than number of caves: "
               + numberOfCaves);
     }
-    fillUpTreasure(treasurePercentage, randomizer);
-    generateStartEndNodes(randomizer);
-    fillUpArrows(treasurePercentage, randomizer);
-    fillUpMonsters(numberOfMonsters,randomizer);
+    int treasureCaves = 0;
+    if (options.getContentsMode() == ContentsMode.LAZY) {
+      maze.setContents(new LazyContents(maze, drawSeed(randomizer), treasurePercentage));
+    } else {
+      treasureCaves = fillUpTreasure(treasurePercentage, randomizer);
+    }
+    phaseStart = recordPhase(GenerationPhase.TREASURE, phaseStart, treasureCaves);
+    int cellsVisited = selectStartEndNodes(randomizer);
+    phaseStart = recordPhase(GenerationPhase.START_END, phaseStart, cellsVisited);
+    int arrowLocations = 0;
+    if (options.getContentsMode() == ContentsMode.EAGER) {
+      arrowLocations = fillUpArrows(treasurePercentage, randomizer);
+    }
+    phaseStart = recordPhase(GenerationPhase.ARROWS, phaseStart, arrowLocations);
+    int monsters = fillUpMonsters(numberOfMonsters, randomizer);
+    maze.freeze();
+    smellField = new SmellField(state);
+    recordPhase(GenerationPhase.MONSTERS, phaseStart, monsters);
+  }
+
+  private void carveEllerMaze(int rows, int columns, boolean wrapped, int interconnectivity,
+                              Randomizer randomizer) {
+    EllerMazeGenerator generator = new EllerMazeGenerator(rows, columns, wrapped,
+            interconnectivity, randomizer);
+    try {
+      generator.generate((row, exits) -> {
+        for (int y = 0; y < exits.length; y++) {
+          maze.setExitMask(row * columns + y, exits[y]);
+        }
+      });
+    } catch (IOException ioe) {
+      //Writing into the grid never fails
+      throw new IllegalStateException("Could not carve maze", ioe);
+    }
+  }
+
+  private long drawSeed(Randomizer randomizer) {
+    return ((long) randomizer.getRandomValue(0, Integer.MAX_VALUE - 1) << 31)
+            ^ randomizer.getRandomValue(0, Integer.MAX_VALUE - 1);
+  }
+
+  private long recordPhase(GenerationPhase phase, long phaseStart, long workUnits) {
+    long now = System.nanoTime();
+    generationMetrics.record(phase, now - phaseStart, workUnits);
+    return now;
   }
 }
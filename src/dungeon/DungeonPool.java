@@ -0,0 +1,269 @@
+package dungeon;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps dungeons built ahead of time for the parameter sets registered with it, so a game can
+ * start without waiting for its dungeon to be generated. Every parameter set has a pool of up
+ * to the given depth of dungeons, each built with its own seed, and worker threads refill a
+ * pool in the background as soon as a dungeon is taken from it.
+ * A parameter set is described by a {@link DungeonSpec} whose seed is ignored. When a pool is
+ * empty, or the spec was not registered, the dungeon is built on the calling thread instead.
+ * The pool may be used from several threads.
+ */
+public final class DungeonPool implements AutoCloseable {
+  private final int depth;
+  private final ExecutorService workers;
+  private final Map<DungeonSpec, Slot> slots;
+  private final ReentrantLock seedLock;
+  private final SplittableRandom seeds;
+  private final long startNanos;
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+  private final AtomicLong built;
+  private final AtomicLong buildNanos;
+  private final AtomicLong failures;
+
+  /**
+   * Creates a pool with no registered parameter sets.
+   *
+   * @param depth   the number of dungeons kept ready for each parameter set.
+   * @param workers the number of threads building dungeons in the background.
+   * @param seed    the seed the seeds of the pooled dungeons are drawn from.
+   * @throws IllegalArgumentException if depth or workers is not positive.
+   */
+  public DungeonPool(int depth, int workers, long seed) throws IllegalArgumentException {
+    if (depth <= 0 || workers <= 0) {
+      throw new IllegalArgumentException("Depth and workers must be positive");
+    }
+    this.depth = depth;
+    this.workers = Executors.newFixedThreadPool(workers, new WorkerFactory());
+    this.slots = new ConcurrentHashMap<>();
+    this.seedLock = new ReentrantLock();
+    this.seeds = new SplittableRandom(seed);
+    this.startNanos = System.nanoTime();
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+    this.built = new AtomicLong();
+    this.buildNanos = new AtomicLong();
+    this.failures = new AtomicLong();
+  }
+
+  /**
+   * Starts keeping dungeons of the given parameter set ready. Registering a parameter set
+   * again has no effect.
+   *
+   * @param spec the parameters of the dungeons, its seed is ignored.
+   * @throws IllegalArgumentException if spec is null.
+   * @throws IllegalStateException    if the pool is closed.
+   */
+  public void register(DungeonSpec spec) throws IllegalArgumentException, IllegalStateException {
+    if (spec == null) {
+      throw new IllegalArgumentException("Spec cannot be null");
+    }
+    if (workers.isShutdown()) {
+      throw new IllegalStateException("Pool is closed");
+    }
+    DungeonSpec key = spec.withSeed(0);
+    refill(slots.computeIfAbsent(key, Slot::new));
+  }
+
+  /**
+   * Returns a new game of a dungeon with the given parameters, taken from the pool if one is
+   * ready and built on the calling thread otherwise.
+   *
+   * @param spec the parameters of the dungeon, its seed is ignored.
+   * @return the new game.
+   * @throws IllegalArgumentException if spec is null or its parameters are not valid.
+   */
+  public DungeonModel take(DungeonSpec spec) throws IllegalArgumentException {
+    if (spec == null) {
+      throw new IllegalArgumentException("Spec cannot be null");
+    }
+    Slot slot = slots.get(spec.withSeed(0));
+    DungeonModel dungeon = slot == null ? null : slot.ready.poll();
+    if (dungeon != null) {
+      hits.incrementAndGet();
+      refill(slot);
+      return dungeon;
+    }
+    misses.incrementAndGet();
+    if (slot != null) {
+      refill(slot);
+    }
+    return spec.withSeed(nextSeed()).build();
+  }
+
+  /**
+   * Returns the number of dungeons of the given parameter set ready to be taken.
+   *
+   * @param spec the parameters of the dungeons, its seed is ignored.
+   * @return the number of dungeons ready, 0 if the parameter set is not registered.
+   * @throws IllegalArgumentException if spec is null.
+   */
+  public int getDepth(DungeonSpec spec) throws IllegalArgumentException {
+    if (spec == null) {
+      throw new IllegalArgumentException("Spec cannot be null");
+    }
+    Slot slot = slots.get(spec.withSeed(0));
+    return slot == null ? 0 : slot.ready.size();
+  }
+
+  /**
+   * Returns the number of dungeons kept ready for each parameter set.
+   *
+   * @return the maximum depth of a pool.
+   */
+  public int getMaximumDepth() {
+    return depth;
+  }
+
+  /**
+   * Returns the number of dungeons taken from a pool.
+   *
+   * @return the number of hits.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns the number of dungeons built on the calling thread because none was ready.
+   *
+   * @return the number of misses.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Returns the number of dungeons built by the workers.
+   *
+   * @return the number of dungeons built in the background.
+   */
+  public long getBuilt() {
+    return built.get();
+  }
+
+  /**
+   * Returns the number of background builds that failed because the parameters of a
+   * registered spec are not valid. Such a parameter set is not refilled again.
+   *
+   * @return the number of failed builds.
+   */
+  public long getFailures() {
+    return failures.get();
+  }
+
+  /**
+   * Returns the number of dungeons the workers have added to the pools per second since the
+   * pool was created.
+   *
+   * @return the refill rate in dungeons per second.
+   */
+  public double getRefillRate() {
+    long elapsed = System.nanoTime() - startNanos;
+    return elapsed <= 0 ? 0 : built.get() * 1e9 / elapsed;
+  }
+
+  /**
+   * Returns the average time a worker took to build a dungeon.
+   *
+   * @return the average build time in nanoseconds, 0 if nothing was built.
+   */
+  public long getAverageBuildNanos() {
+    long count = built.get();
+    return count == 0 ? 0 : buildNanos.get() / count;
+  }
+
+  /**
+   * Stops the workers, waiting for up to a second for the builds in progress. Dungeons already
+   * in the pools can still be taken.
+   */
+  @Override
+  public void close() {
+    workers.shutdownNow();
+    try {
+      workers.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void refill(Slot slot) {
+    int scheduled = slot.pending.get();
+    while (!slot.failed && slot.ready.size() + scheduled < depth) {
+      if (slot.pending.compareAndSet(scheduled, scheduled + 1)) {
+        try {
+          workers.execute(() -> build(slot));
+        } catch (RejectedExecutionException e) {
+          slot.pending.decrementAndGet();
+          return;
+        }
+      }
+      scheduled = slot.pending.get();
+    }
+  }
+
+  private void build(Slot slot) {
+    try {
+      long start = System.nanoTime();
+      DungeonModel dungeon = slot.spec.withSeed(nextSeed()).build();
+      buildNanos.addAndGet(System.nanoTime() - start);
+      built.incrementAndGet();
+      slot.ready.offer(dungeon);
+    } catch (IllegalArgumentException e) {
+      failures.incrementAndGet();
+      slot.failed = true;
+    } finally {
+      slot.pending.decrementAndGet();
+    }
+  }
+
+  private long nextSeed() {
+    seedLock.lock();
+    try {
+      return seeds.nextLong();
+    } finally {
+      seedLock.unlock();
+    }
+  }
+
+  //Dungeons ready for one parameter set and the number of builds scheduled for it.
+  private final class Slot {
+    private final DungeonSpec spec;
+    private final BlockingQueue<DungeonModel> ready;
+    private final AtomicInteger pending;
+    private volatile boolean failed;
+
+    Slot(DungeonSpec spec) {
+      this.spec = spec;
+      this.ready = new ArrayBlockingQueue<>(depth);
+      this.pending = new AtomicInteger();
+    }
+  }
+
+  //Creates the daemon worker threads, so an open pool does not keep the JVM running.
+  private static final class WorkerFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "dungeon-pool-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
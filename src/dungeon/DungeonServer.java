@@ -0,0 +1,429 @@
+package dungeon;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Hosts games for many players at once over plain text TCP connections, such as telnet or
+ * netcat sessions. Every connection plays its own game through a
+ * {@link DungeonConsoleController} reading from and writing to the connection, on its own
+ * thread of the given {@link SessionExecution}.
+ * Connections beyond the maximum number of sessions are told the server is full and closed.
+ * A session whose player sends nothing for longer than the idle timeout is ended. The server
+ * keeps {@link SessionMetrics} of its active sessions and of the most recently ended ones.
+ * Players may send several actions on one line; an action that fails drops the rest of its
+ * line, see {@link PipelineErrorPolicy#DISCARD_LINE}.
+ */
+public final class DungeonServer implements AutoCloseable {
+  private static final int HISTORY_SIZE = 1024;
+  private static final int FLUSH_THRESHOLD = 8192;
+
+  private final int port;
+  private final InetAddress address;
+  private final int maximumSessions;
+  private final int idleTimeoutMillis;
+  private final Supplier<Dungeon> dungeons;
+  private final ThreadFactory sessionThreads;
+  private final Map<Long, Session> sessions;
+  private final Deque<SessionMetrics> history;
+  private final ReentrantLock historyLock;
+  private final AtomicInteger activeSessions;
+  private final AtomicLong acceptedSessions;
+  private final AtomicLong rejectedSessions;
+  private final AtomicLong timedOutSessions;
+  private ServerSocket serverSocket;
+  private Thread acceptor;
+
+  /**
+   * Creates a server listening on the loopback address. The server is started with
+   * {@link #start()}.
+   *
+   * @param port              the port to listen on, 0 for any free port.
+   * @param maximumSessions   the maximum number of sessions played at the same time.
+   * @param idleTimeoutMillis the time a session may wait for its player before it is ended.
+   * @param dungeons          supplies the dungeon of every new session.
+   * @throws IllegalArgumentException if port is not a valid port, maximumSessions or
+   *                                  idleTimeoutMillis is not positive or dungeons is null.
+   */
+  public DungeonServer(int port, int maximumSessions, int idleTimeoutMillis,
+                       Supplier<Dungeon> dungeons) throws IllegalArgumentException {
+    this(port, InetAddress.getLoopbackAddress(), maximumSessions, idleTimeoutMillis, dungeons);
+  }
+
+  /**
+   * Creates a server listening on the given address. The server is started with
+   * {@link #start()}.
+   *
+   * @param port              the port to listen on, 0 for any free port.
+   * @param address           the local address to listen on.
+   * @param maximumSessions   the maximum number of sessions played at the same time.
+   * @param idleTimeoutMillis the time a session may wait for its player before it is ended.
+   * @param dungeons          supplies the dungeon of every new session.
+   * @throws IllegalArgumentException if port is not a valid port, address or dungeons is null or
+   *                                  maximumSessions or idleTimeoutMillis is not positive.
+   */
+  public DungeonServer(int port, InetAddress address, int maximumSessions,
+                       int idleTimeoutMillis, Supplier<Dungeon> dungeons)
+          throws IllegalArgumentException {
+    this(port, address, maximumSessions, idleTimeoutMillis, dungeons,
+            SessionExecution.PLATFORM_THREADS);
+  }
+
+  /**
+   * Creates a server listening on the given address that plays its sessions on threads of the
+   * given kind. The server is started with {@link #start()}.
+   *
+   * @param port              the port to listen on, 0 for any free port.
+   * @param address           the local address to listen on.
+   * @param maximumSessions   the maximum number of sessions played at the same time.
+   * @param idleTimeoutMillis the time a session may wait for its player before it is ended.
+   * @param dungeons          supplies the dungeon of every new session.
+   * @param execution         the kind of thread sessions are played on.
+   * @throws IllegalArgumentException if port is not a valid port, address, dungeons or execution
+   *                                  is null or maximumSessions or idleTimeoutMillis is not
+   *                                  positive.
+   */
+  public DungeonServer(int port, InetAddress address, int maximumSessions,
+                       int idleTimeoutMillis, Supplier<Dungeon> dungeons,
+                       SessionExecution execution) throws IllegalArgumentException {
+    if (port < 0 || port > 65535) {
+      throw new IllegalArgumentException("Invalid port: " + port);
+    }
+    if (maximumSessions <= 0 || idleTimeoutMillis <= 0) {
+      throw new IllegalArgumentException("Maximum sessions and idle timeout must be positive");
+    }
+    if (address == null || dungeons == null || execution == null) {
+      throw new IllegalArgumentException("Address, dungeon supplier and execution cannot be null");
+    }
+    this.port = port;
+    this.address = address;
+    this.maximumSessions = maximumSessions;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.dungeons = dungeons;
+    this.sessionThreads = execution.newThreadFactory("dungeon-session-");
+    this.sessions = new ConcurrentHashMap<>();
+    this.history = new ArrayDeque<>();
+    this.historyLock = new ReentrantLock();
+    this.activeSessions = new AtomicInteger();
+    this.acceptedSessions = new AtomicLong();
+    this.rejectedSessions = new AtomicLong();
+    this.timedOutSessions = new AtomicLong();
+  }
+
+  /**
+   * Starts listening and accepting sessions in the background.
+   *
+   * @throws IOException           if the server cannot listen on its port.
+   * @throws IllegalStateException if the server was already started.
+   */
+  public void start() throws IOException, IllegalStateException {
+    if (serverSocket != null) {
+      throw new IllegalStateException("Server already started");
+    }
+    serverSocket = new ServerSocket(port, 0, address);
+    acceptor = new Thread(this::acceptSessions, "dungeon-server-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  /**
+   * Returns the port the server listens on.
+   *
+   * @return the local port.
+   * @throws IllegalStateException if the server was not started.
+   */
+  public int getPort() throws IllegalStateException {
+    if (serverSocket == null) {
+      throw new IllegalStateException("Server not started");
+    }
+    return serverSocket.getLocalPort();
+  }
+
+  /**
+   * Returns the number of sessions being played.
+   *
+   * @return the number of active sessions.
+   */
+  public int getActiveSessions() {
+    return activeSessions.get();
+  }
+
+  /**
+   * Returns the number of sessions accepted since the server started.
+   *
+   * @return the number of accepted sessions.
+   */
+  public long getAcceptedSessions() {
+    return acceptedSessions.get();
+  }
+
+  /**
+   * Returns the number of connections refused because the server was full.
+   *
+   * @return the number of rejected sessions.
+   */
+  public long getRejectedSessions() {
+    return rejectedSessions.get();
+  }
+
+  /**
+   * Returns the number of sessions ended because their player was idle.
+   *
+   * @return the number of timed out sessions.
+   */
+  public long getTimedOutSessions() {
+    return timedOutSessions.get();
+  }
+
+  /**
+   * Returns the metrics of the active sessions followed by those of the most recently ended
+   * ones, oldest first.
+   *
+   * @return the metrics of the sessions.
+   */
+  public List<SessionMetrics> getSessionMetrics() {
+    List<SessionMetrics> metrics = new ArrayList<>();
+    for (Session session : sessions.values()) {
+      metrics.add(session.metrics);
+    }
+    historyLock.lock();
+    try {
+      metrics.addAll(history);
+    } finally {
+      historyLock.unlock();
+    }
+    return metrics;
+  }
+
+  /**
+   * Stops accepting sessions and ends the active ones.
+   */
+  @Override
+  public void close() {
+    if (serverSocket == null) {
+      return;
+    }
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      //nothing left to release
+    }
+    for (Session session : sessions.values()) {
+      session.close();
+    }
+  }
+
+  private void acceptSessions() {
+    long nextId = 0;
+    while (!serverSocket.isClosed()) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException e) {
+        return;
+      }
+      long id = nextId++;
+      if (activeSessions.incrementAndGet() > maximumSessions) {
+        activeSessions.decrementAndGet();
+        reject(socket, id);
+        continue;
+      }
+      acceptedSessions.incrementAndGet();
+      Session session = new Session(socket, new SessionMetrics(id));
+      sessions.put(id, session);
+      sessionThreads.newThread(session).start();
+    }
+  }
+
+  private void reject(Socket socket, long id) {
+    rejectedSessions.incrementAndGet();
+    SessionMetrics metrics = new SessionMetrics(id);
+    try (Socket rejected = socket) {
+      byte[] message = "Server is full, please try again later\n"
+              .getBytes(StandardCharsets.UTF_8);
+      rejected.getOutputStream().write(message);
+      metrics.addWrite(message.length);
+    } catch (IOException e) {
+      //the player is gone already
+    }
+    metrics.end(SessionStatus.REJECTED);
+    addToHistory(metrics);
+  }
+
+  private void addToHistory(SessionMetrics metrics) {
+    historyLock.lock();
+    try {
+      if (history.size() == HISTORY_SIZE) {
+        history.removeFirst();
+      }
+      history.addLast(metrics);
+    } finally {
+      historyLock.unlock();
+    }
+  }
+
+  //Plays the game of one connection.
+  private final class Session implements Runnable {
+    private final Socket socket;
+    private final SessionMetrics metrics;
+
+    Session(Socket socket, SessionMetrics metrics) {
+      this.socket = socket;
+      this.metrics = metrics;
+    }
+
+    @Override
+    public void run() {
+      SessionStatus status = SessionStatus.FAILED;
+      SessionReader in = null;
+      try {
+        socket.setSoTimeout(idleTimeoutMillis);
+        SessionWriter out = new SessionWriter(new OutputStreamWriter(socket.getOutputStream(),
+                StandardCharsets.UTF_8), metrics);
+        in = new SessionReader(new InputStreamReader(socket.getInputStream(),
+                StandardCharsets.UTF_8), out, metrics);
+        try {
+          new DungeonConsoleController(in, out, FlushPolicy.PER_TURN, FLUSH_THRESHOLD,
+                  PipelineErrorPolicy.DISCARD_LINE).play(dungeons.get());
+          out.append("\n");
+          status = SessionStatus.COMPLETED;
+        } catch (NoSuchElementException e) {
+          if (in.timedOut) {
+            out.append("\nYou have been idle for too long, goodbye\n");
+            status = SessionStatus.TIMED_OUT;
+          } else {
+            status = SessionStatus.DISCONNECTED;
+          }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+          out.append("\nThe game could not be played: ").append(e.getMessage()).append("\n");
+        }
+        out.flush();
+      } catch (IOException e) {
+        status = in != null && in.timedOut ? SessionStatus.TIMED_OUT
+                : SessionStatus.DISCONNECTED;
+      } finally {
+        close();
+        if (status == SessionStatus.TIMED_OUT) {
+          timedOutSessions.incrementAndGet();
+        }
+        metrics.end(status);
+        sessions.remove(metrics.getId());
+        addToHistory(metrics);
+        activeSessions.decrementAndGet();
+      }
+    }
+
+    void close() {
+      try {
+        socket.close();
+      } catch (IOException e) {
+        //nothing left to release
+      }
+    }
+  }
+
+  //Reads the input of a session, sending the pending output first so the player sees the
+  //prompt before the session waits for them. The controller's CommandTokenizer only reads when
+  //it has used up the characters it holds, asking for as many as fit after the partial token it
+  //keeps, so a read returns whatever the player has sent so far. A read that waits longer than
+  //the socket timeout marks the session as timed out; the tokenizer takes the exception as the
+  //end of input and the game ends.
+  private static final class SessionReader extends Reader {
+    private final Reader reader;
+    private final SessionWriter writer;
+    private final SessionMetrics metrics;
+    private volatile boolean timedOut;
+
+    SessionReader(Reader reader, SessionWriter writer, SessionMetrics metrics) {
+      this.reader = reader;
+      this.writer = writer;
+      this.metrics = metrics;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+      writer.flush();
+      try {
+        int read = reader.read(buffer, offset, length);
+        if (read > 0) {
+          metrics.addRead(read);
+        }
+        return read;
+      } catch (SocketTimeoutException e) {
+        timedOut = true;
+        throw e;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  //Collects the output of a session and sends it when flushed. The methods of Writer that
+  //synchronize on its lock are overridden, so writing never pins a virtual thread.
+  private static final class SessionWriter extends Writer {
+    private final Writer writer;
+    private final SessionMetrics metrics;
+    private final StringBuilder pending;
+
+    SessionWriter(Writer writer, SessionMetrics metrics) {
+      this.writer = writer;
+      this.metrics = metrics;
+      this.pending = new StringBuilder();
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      pending.append(buffer, offset, length);
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+      pending.append(text, offset, offset + length);
+    }
+
+    @Override
+    public Writer append(CharSequence sequence) {
+      pending.append(sequence);
+      return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (pending.length() > 0) {
+        writer.append(pending);
+        writer.flush();
+        metrics.addWrite(pending.length());
+        pending.setLength(0);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      flush();
+      writer.close();
+    }
+  }
+}
@@ -0,0 +1,211 @@
+package dungeon;
+
+import java.util.Objects;
+
+import randomizer.Randomizer;
+import randomizer.SplittableRandomizer;
+
+/**
+ * Describes a dungeon by all the parameters it is built from, including the seed of its
+ * randomizer. Dungeons built from equal specs are identical, which makes a spec usable as the
+ * key of a {@link DungeonCache}.
+ */
+public final class DungeonSpec {
+  private final int rows;
+  private final int columns;
+  private final boolean wrapped;
+  private final int interconnectivity;
+  private final int treasureAndArrowPercentage;
+  private final int numberOfMonsters;
+  private final long seed;
+  private final GenerationOptions options;
+
+  /**
+   * Creates a spec built with the default {@link GenerationOptions}.
+   *
+   * @param rows                       the number of rows in the dungeon maze.
+   * @param columns                    the number of columns in the dungeon maze.
+   * @param wrapped                    if the maze is wrapped around edges or not.
+   * @param interconnectivity          the interconnectivity.
+   * @param treasureAndArrowPercentage the percentage of caves that have treasure or arrows.
+   * @param numberOfMonsters           the number of monsters in the dungeon of caves.
+   * @param seed                       the seed of the randomizer.
+   */
+  public DungeonSpec(int rows, int columns, boolean wrapped, int interconnectivity,
+                     int treasureAndArrowPercentage, int numberOfMonsters, long seed) {
+    this(rows, columns, wrapped, interconnectivity, treasureAndArrowPercentage,
+            numberOfMonsters, seed, new GenerationOptions());
+  }
+
+  /**
+   * Creates a spec built with the given {@link GenerationOptions}.
+   * The parameters are validated when the dungeon is built.
+   *
+   * @param rows                       the number of rows in the dungeon maze.
+   * @param columns                    the number of columns in the dungeon maze.
+   * @param wrapped                    if the maze is wrapped around edges or not.
+   * @param interconnectivity          the interconnectivity.
+   * @param treasureAndArrowPercentage the percentage of caves that have treasure or arrows.
+   * @param numberOfMonsters           the number of monsters in the dungeon of caves.
+   * @param seed                       the seed of the randomizer.
+   * @param options                    the options to build the dungeon with.
+   * @throws IllegalArgumentException if options is null.
+   */
+  public DungeonSpec(int rows, int columns, boolean wrapped, int interconnectivity,
+                     int treasureAndArrowPercentage, int numberOfMonsters, long seed,
+                     GenerationOptions options) throws IllegalArgumentException {
+    if (options == null) {
+      throw new IllegalArgumentException("Generation options cannot be null");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.wrapped = wrapped;
+    this.interconnectivity = interconnectivity;
+    this.treasureAndArrowPercentage = treasureAndArrowPercentage;
+    this.numberOfMonsters = numberOfMonsters;
+    this.seed = seed;
+    this.options = options;
+  }
+
+  /**
+   * Builds a new dungeon from this spec without any caching.
+   * The dungeon is generated with a {@link SplittableRandomizer} seeded with the seed of this
+   * spec, and the game is played with a child split from a randomizer with the same seed.
+   *
+   * @return the new dungeon.
+   * @throws IllegalArgumentException if the parameters of this spec are not valid.
+   */
+  public DungeonModel build() throws IllegalArgumentException {
+    return newGame(buildTemplate());
+  }
+
+  DungeonModel buildTemplate() throws IllegalArgumentException {
+    return new DungeonModel(rows, columns, wrapped, interconnectivity,
+            treasureAndArrowPercentage, numberOfMonsters, new SplittableRandomizer(seed), options);
+  }
+
+  DungeonModel newGame(DungeonModel template) {
+    return new DungeonModel(template, newGameRandomizer());
+  }
+
+  /**
+   * Returns the randomizer a game of this spec is played with.
+   */
+  Randomizer newGameRandomizer() {
+    return new SplittableRandomizer(seed).split();
+  }
+
+  /**
+   * Returns the number of rows in the dungeon maze.
+   *
+   * @return the number of rows in the dungeon maze.
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Returns the number of columns in the dungeon maze.
+   *
+   * @return the number of columns in the dungeon maze.
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Returns true if the maze is wrapped around edges.
+   *
+   * @return true if the maze is wrapped around edges.
+   */
+  public boolean isWrapped() {
+    return wrapped;
+  }
+
+  /**
+   * Returns the interconnectivity.
+   *
+   * @return the interconnectivity.
+   */
+  public int getInterconnectivity() {
+    return interconnectivity;
+  }
+
+  /**
+   * Returns the percentage of caves that have treasure or arrows.
+   *
+   * @return the percentage of caves that have treasure or arrows.
+   */
+  public int getTreasureAndArrowPercentage() {
+    return treasureAndArrowPercentage;
+  }
+
+  /**
+   * Returns the number of monsters in the dungeon.
+   *
+   * @return the number of monsters in the dungeon.
+   */
+  public int getNumberOfMonsters() {
+    return numberOfMonsters;
+  }
+
+  /**
+   * Returns the seed of the randomizer.
+   *
+   * @return the seed of the randomizer.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Returns the options the dungeon is built with.
+   *
+   * @return the options the dungeon is built with.
+   */
+  public GenerationOptions getOptions() {
+    return options;
+  }
+
+  /**
+   * Returns a spec with the same parameters as this one and the given seed.
+   *
+   * @param seed the seed of the randomizer.
+   * @return the spec with the given seed.
+   */
+  public DungeonSpec withSeed(long seed) {
+    return new DungeonSpec(rows, columns, wrapped, interconnectivity, treasureAndArrowPercentage,
+            numberOfMonsters, seed, options);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DungeonSpec)) {
+      return false;
+    }
+    DungeonSpec that = (DungeonSpec) o;
+    return rows == that.rows && columns == that.columns && wrapped == that.wrapped
+            && interconnectivity == that.interconnectivity
+            && treasureAndArrowPercentage == that.treasureAndArrowPercentage
+            && numberOfMonsters == that.numberOfMonsters
+            && seed == that.seed
+            && options.equals(that.options);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rows, columns, wrapped, interconnectivity, treasureAndArrowPercentage,
+            numberOfMonsters, seed, options);
+  }
+
+  @Override
+  public String toString() {
+    return rows + "x" + columns + (wrapped ? " wrapped" : "")
+            + ", interconnectivity=" + interconnectivity
+            + ", treasureAndArrowPercentage=" + treasureAndArrowPercentage
+            + ", numberOfMonsters=" + numberOfMonsters + ", seed=" + seed + ", " + options;
+  }
+}
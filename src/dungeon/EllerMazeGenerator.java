@@ -0,0 +1,245 @@
+package dungeon;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import randomizer.Randomizer;
+
+/**
+ * Generates a dungeon maze one row at a time using Eller's algorithm.
+ * Only the current and next rows are held in memory, so memory use is proportional to the
+ * number of columns and the rows can be streamed to a file or into another store through a
+ * {@link MazeRowSink}.
+ * The result is a spanning tree over the cells, using the wrapped edges if the maze is wrapped,
+ * plus interconnectivity extra edges chosen uniformly from the edges left out of the tree.
+ * A wrapped maze keeps the set of every cell of its first row, so the last row can join the
+ * tree through the vertical wrap edges as well as through its horizontal edges.
+ */
+public final class EllerMazeGenerator {
+  private static final byte NORTH = (byte) (1 << Move.NORTH.ordinal());
+  private static final byte SOUTH = (byte) (1 << Move.SOUTH.ordinal());
+  private static final byte EAST = (byte) (1 << Move.EAST.ordinal());
+  private static final byte WEST = (byte) (1 << Move.WEST.ordinal());
+
+  private final int rows;
+  private final int columns;
+  private final boolean wrapped;
+  private final int interconnectivity;
+  private final Randomizer randomizer;
+  private long remainingCandidates;
+  private int remainingExtraEdges;
+
+  /**
+   * Creates a new generator for a maze of the given shape.
+   *
+   * @param rows              the number of rows in the maze.
+   * @param columns           the number of columns in the maze.
+   * @param wrapped           if the maze is wrapped around edges or not.
+   * @param interconnectivity the number of edges to add on top of the spanning tree.
+   * @param randomizer        the randomizer to use.
+   * @throws IllegalArgumentException if the maze is smaller than 2x2, or 3x3 when wrapped.
+   * @throws IllegalArgumentException if randomizer is null.
+   * @throws IllegalArgumentException if interconnectivity is not between 0
+   *                                  and maximum possible interconnectivity.
+   */
+  public EllerMazeGenerator(int rows, int columns, boolean wrapped, int interconnectivity,
+                            Randomizer randomizer) throws IllegalArgumentException {
+    if (randomizer == null) {
+      throw new IllegalArgumentException("Randomizer cannot be null");
+    }
+    int minimum = wrapped ? 3 : 2;
+    if (rows < minimum || columns < minimum) {
+      throw new IllegalArgumentException("Maze dimensions cannot be less than " + minimum
+              + "x" + minimum);
+    }
+    long limit = getTotalEdges(rows, columns, wrapped) - ((long) rows * columns - 1);
+    if (interconnectivity < 0 || interconnectivity > limit) {
+      throw new IllegalArgumentException("Interconnectivity must be between 0 and " + limit);
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.wrapped = wrapped;
+    this.interconnectivity = interconnectivity;
+    this.randomizer = randomizer;
+  }
+
+  /**
+   * Generates the maze, handing each completed row to the given sink.
+   *
+   * @param sink the sink receiving the rows.
+   * @throws IOException if the sink fails to accept a row.
+   * @throws IllegalArgumentException if sink is null.
+   */
+  public void generate(MazeRowSink sink) throws IOException, IllegalArgumentException {
+    if (sink == null) {
+      throw new IllegalArgumentException("Sink cannot be null");
+    }
+    remainingCandidates = getTotalEdges(rows, columns, wrapped) - ((long) rows * columns - 1);
+    remainingExtraEdges = interconnectivity;
+    byte[] firstRow = new byte[columns];
+    byte[] current = new byte[columns];
+    byte[] next = new byte[columns];
+    int[] label = new int[columns];
+    int[] parent = new int[columns];
+    int[] setSize = new int[columns];
+    int[] setOffset = new int[columns];
+    int[] cellsBySet = new int[columns];
+    boolean[] down = new boolean[columns];
+    boolean[] setGoesDown = new boolean[columns];
+    boolean[] labelUsed = new boolean[columns];
+    int[] firstRowSet = new int[columns];
+    for (int y = 0; y < columns; y++) {
+      label[y] = y;
+    }
+    int horizontalEdges = wrapped ? columns : columns - 1;
+    for (int x = 0; x < rows; x++) {
+      boolean lastRow = x == rows - 1;
+      for (int i = 0; i < columns; i++) {
+        parent[i] = i;
+      }
+      if (wrapped && lastRow) {
+        for (int y = 0; y < columns; y++) {
+          int setA = find(parent, label[y]);
+          int setB = find(parent, firstRowSet[y]);
+          if (setA != setB && randomizer.getRandomValue(0, 1) == 1) {
+            parent[setB] = setA;
+            current[y] |= SOUTH;
+            firstRow[y] |= NORTH;
+          }
+        }
+      }
+      for (int y = 0; y < horizontalEdges; y++) {
+        int y2 = (y == columns - 1) ? 0 : y + 1;
+        int setA = find(parent, label[y]);
+        int setB = find(parent, label[y2]);
+        if (setA != setB && (lastRow || randomizer.getRandomValue(0, 1) == 1)) {
+          parent[setB] = setA;
+          current[y] |= WEST;
+          current[y2] |= EAST;
+        } else if (isExtraEdge()) {
+          current[y] |= WEST;
+          current[y2] |= EAST;
+        }
+      }
+      for (int y = 0; y < columns; y++) {
+        label[y] = find(parent, label[y]);
+      }
+      //Every set has a cell in the current row, so its label still names the set of each cell
+      //of the first row.
+      if (wrapped && !lastRow) {
+        for (int y = 0; y < columns; y++) {
+          firstRowSet[y] = x == 0 ? label[y] : find(parent, firstRowSet[y]);
+        }
+      }
+      if (!lastRow) {
+        Arrays.fill(setSize, 0);
+        Arrays.fill(setGoesDown, false);
+        for (int y = 0; y < columns; y++) {
+          setSize[label[y]]++;
+          down[y] = randomizer.getRandomValue(0, 1) == 1;
+          if (down[y]) {
+            setGoesDown[label[y]] = true;
+          }
+        }
+        int offset = 0;
+        for (int set = 0; set < columns; set++) {
+          setOffset[set] = offset;
+          offset += setSize[set];
+        }
+        for (int y = 0; y < columns; y++) {
+          cellsBySet[setOffset[label[y]]++] = y;
+        }
+        for (int set = 0; set < columns; set++) {
+          if (setSize[set] > 0 && !setGoesDown[set]) {
+            int start = setOffset[set] - setSize[set];
+            down[cellsBySet[start + randomizer.getRandomValue(0, setSize[set] - 1)]] = true;
+          }
+        }
+        Arrays.fill(labelUsed, false);
+        for (int y = 0; y < columns; y++) {
+          if (down[y]) {
+            current[y] |= SOUTH;
+            next[y] |= NORTH;
+            labelUsed[label[y]] = true;
+          } else {
+            if (isExtraEdge()) {
+              current[y] |= SOUTH;
+              next[y] |= NORTH;
+            }
+            label[y] = -1;
+          }
+        }
+        int freeLabel = 0;
+        for (int y = 0; y < columns; y++) {
+          if (label[y] == -1) {
+            while (labelUsed[freeLabel]) {
+              freeLabel++;
+            }
+            labelUsed[freeLabel] = true;
+            label[y] = freeLabel;
+          }
+        }
+      }
+      if (wrapped && x == 0) {
+        System.arraycopy(current, 0, firstRow, 0, columns);
+      } else if (!(wrapped && lastRow)) {
+        sink.acceptRow(x, current);
+      }
+      if (!lastRow) {
+        byte[] swap = current;
+        current = next;
+        next = swap;
+        Arrays.fill(next, (byte) 0);
+      }
+    }
+    if (wrapped) {
+      for (int y = 0; y < columns; y++) {
+        if ((current[y] & SOUTH) == 0 && isExtraEdge()) {
+          current[y] |= SOUTH;
+          firstRow[y] |= NORTH;
+        }
+      }
+      sink.acceptRow(0, firstRow);
+      sink.acceptRow(rows - 1, current);
+    }
+  }
+
+  /**
+   * Returns the number of edges between adjacent cells of a maze of the given shape.
+   *
+   * @param rows    the number of rows in the maze.
+   * @param columns the number of columns in the maze.
+   * @param wrapped if the maze is wrapped around edges or not.
+   * @return the number of edges.
+   */
+  static long getTotalEdges(int rows, int columns, boolean wrapped) {
+    long totalEdges = (long) rows * (columns - 1) + (long) (rows - 1) * columns;
+    if (wrapped) {
+      totalEdges += rows + columns;
+    }
+    return totalEdges;
+  }
+
+  //Selection sampling: each edge left out of the spanning tree is kept with probability
+  //extra edges still needed / candidates still to come, which picks a uniform subset.
+  private boolean isExtraEdge() {
+    boolean selected = false;
+    if (remainingExtraEdges > 0) {
+      int candidates = (int) Math.min(remainingCandidates, Integer.MAX_VALUE);
+      selected = randomizer.getRandomValue(0, candidates - 1) < remainingExtraEdges;
+      if (selected) {
+        remainingExtraEdges--;
+      }
+    }
+    remainingCandidates--;
+    return selected;
+  }
+
+  private static int find(int[] parent, int set) {
+    while (parent[set] != set) {
+      parent[set] = parent[parent[set]];
+      set = parent[set];
+    }
+    return set;
+  }
+}
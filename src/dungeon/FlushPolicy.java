@@ -0,0 +1,23 @@
+package dungeon;
+
+/**
+ * Represents when a {@link DungeonConsoleController} sends the text it renders to its
+ * appendable. A turn renders dozens of small pieces of text, and against a console or a socket
+ * every piece sent on its own can cost a system call.
+ */
+public enum FlushPolicy {
+  /**
+   * Every piece of text is sent as soon as it is rendered. This is the original behaviour.
+   */
+  UNBUFFERED,
+  /**
+   * The text of a turn is kept and sent in one write just before the game waits for the
+   * player.
+   */
+  PER_TURN,
+  /**
+   * As {@link #PER_TURN}, but the kept text is also sent whenever it reaches the flush
+   * threshold of the controller, which bounds the memory taken by a long turn.
+   */
+  PER_THRESHOLD
+}
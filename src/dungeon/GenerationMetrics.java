@@ -0,0 +1,72 @@
+package dungeon;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Holds the cost of each {@link GenerationPhase} of building a dungeon.
+ * For every phase it records the elapsed time and the number of work units processed, where a
+ * work unit is an edge for the maze phases, a visited cell for start/end selection and a
+ * placed item for the filling phases.
+ */
+public final class GenerationMetrics {
+  private final Map<GenerationPhase, Long> elapsedNanos;
+  private final Map<GenerationPhase, Long> workUnits;
+
+  /**
+   * Creates an empty set of generation metrics.
+   */
+  public GenerationMetrics() {
+    this.elapsedNanos = new EnumMap<>(GenerationPhase.class);
+    this.workUnits = new EnumMap<>(GenerationPhase.class);
+  }
+
+  //package-private
+  void record(GenerationPhase phase, long nanos, long units) {
+    elapsedNanos.merge(phase, nanos, Long::sum);
+    workUnits.merge(phase, units, Long::sum);
+  }
+
+  /**
+   * Returns the time spent in the given phase.
+   *
+   * @param phase the generation phase.
+   * @return the elapsed time in nanoseconds, 0 if the phase did not run.
+   */
+  public long getElapsedNanos(GenerationPhase phase) {
+    return elapsedNanos.getOrDefault(phase, 0L);
+  }
+
+  /**
+   * Returns the number of work units processed in the given phase.
+   *
+   * @param phase the generation phase.
+   * @return the number of work units, 0 if the phase did not run.
+   */
+  public long getWorkUnits(GenerationPhase phase) {
+    return workUnits.getOrDefault(phase, 0L);
+  }
+
+  /**
+   * Returns the total time spent building the dungeon.
+   *
+   * @return the elapsed time of all phases in nanoseconds.
+   */
+  public long getTotalNanos() {
+    long total = 0;
+    for (long nanos : elapsedNanos.values()) {
+      total += nanos;
+    }
+    return total;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (GenerationPhase phase : elapsedNanos.keySet()) {
+      sb.append(phase.name()).append(": ").append(getElapsedNanos(phase) / 1000)
+              .append("us ").append(getWorkUnits(phase)).append(" units\n");
+    }
+    return sb.toString();
+  }
+}
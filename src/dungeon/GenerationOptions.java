@@ -0,0 +1,223 @@
+package dungeon;
+
+import java.util.Objects;
+
+/**
+ * Holds the optional settings used when building a {@link DungeonModel}.
+ * Instances are immutable, each with method returns a copy with one setting changed.
+ */
+public final class GenerationOptions {
+  static final int DEFAULT_MINIMUM_DISTANCE = 6;
+
+  private final int minimumDistance;
+  private final StartEndStrategy startEndStrategy;
+  private final MazeAlgorithm mazeAlgorithm;
+  private final int parallelism;
+  private final SamplingMode samplingMode;
+  private final ContentsMode contentsMode;
+
+  /**
+   * Creates the default options: a maze carved with {@link MazeAlgorithm#KRUSKAL} and start
+   * and end caves at least 6 moves apart, chosen with {@link StartEndStrategy#RANDOM_RETRY}.
+   * Parallel generation uses one thread per available processor, random draws use
+   * {@link SamplingMode#ORDERED} and cell contents are placed {@link ContentsMode#EAGER}ly.
+   */
+  public GenerationOptions() {
+    this(DEFAULT_MINIMUM_DISTANCE, StartEndStrategy.RANDOM_RETRY, MazeAlgorithm.KRUSKAL,
+            Runtime.getRuntime().availableProcessors(), SamplingMode.ORDERED, ContentsMode.EAGER);
+  }
+
+  private GenerationOptions(int minimumDistance, StartEndStrategy startEndStrategy,
+                            MazeAlgorithm mazeAlgorithm, int parallelism,
+                            SamplingMode samplingMode, ContentsMode contentsMode) {
+    this.minimumDistance = minimumDistance;
+    this.startEndStrategy = startEndStrategy;
+    this.mazeAlgorithm = mazeAlgorithm;
+    this.parallelism = parallelism;
+    this.samplingMode = samplingMode;
+    this.contentsMode = contentsMode;
+  }
+
+  /**
+   * Returns a copy of these options with the given minimum distance between the start and end
+   * caves, the length of the shortest path between them.
+   *
+   * @param minimumDistance the minimum number of moves between start and end.
+   * @return the updated options.
+   * @throws IllegalArgumentException if minimumDistance is less than 1.
+   */
+  public GenerationOptions withMinimumDistance(int minimumDistance)
+          throws IllegalArgumentException {
+    if (minimumDistance < 1) {
+      throw new IllegalArgumentException("Minimum distance cannot be less than 1");
+    }
+    return new GenerationOptions(minimumDistance, startEndStrategy, mazeAlgorithm, parallelism,
+            samplingMode, contentsMode);
+  }
+
+  /**
+   * Returns a copy of these options with the given start and end selection strategy.
+   *
+   * @param startEndStrategy the strategy used to choose the start and end caves.
+   * @return the updated options.
+   * @throws IllegalArgumentException if startEndStrategy is null.
+   */
+  public GenerationOptions withStartEndStrategy(StartEndStrategy startEndStrategy)
+          throws IllegalArgumentException {
+    if (startEndStrategy == null) {
+      throw new IllegalArgumentException("Start end strategy cannot be null");
+    }
+    return new GenerationOptions(minimumDistance, startEndStrategy, mazeAlgorithm, parallelism,
+            samplingMode, contentsMode);
+  }
+
+  /**
+   * Returns a copy of these options with the given maze carving algorithm.
+   *
+   * @param mazeAlgorithm the algorithm used to carve the maze.
+   * @return the updated options.
+   * @throws IllegalArgumentException if mazeAlgorithm is null.
+   */
+  public GenerationOptions withMazeAlgorithm(MazeAlgorithm mazeAlgorithm)
+          throws IllegalArgumentException {
+    if (mazeAlgorithm == null) {
+      throw new IllegalArgumentException("Maze algorithm cannot be null");
+    }
+    return new GenerationOptions(minimumDistance, startEndStrategy, mazeAlgorithm, parallelism,
+            samplingMode, contentsMode);
+  }
+
+  /**
+   * Returns a copy of these options with the given number of worker threads for
+   * {@link MazeAlgorithm#PARALLEL_TILED} generation.
+   *
+   * @param parallelism the number of worker threads.
+   * @return the updated options.
+   * @throws IllegalArgumentException if parallelism is not positive.
+   */
+  public GenerationOptions withParallelism(int parallelism) throws IllegalArgumentException {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    return new GenerationOptions(minimumDistance, startEndStrategy, mazeAlgorithm, parallelism,
+            samplingMode, contentsMode);
+  }
+
+  /**
+   * Returns a copy of these options with the given sampling mode for random draws.
+   *
+   * @param samplingMode how a random index picks one of the remaining candidates.
+   * @return the updated options.
+   * @throws IllegalArgumentException if samplingMode is null.
+   */
+  public GenerationOptions withSamplingMode(SamplingMode samplingMode)
+          throws IllegalArgumentException {
+    if (samplingMode == null) {
+      throw new IllegalArgumentException("Sampling mode cannot be null");
+    }
+    return new GenerationOptions(minimumDistance, startEndStrategy, mazeAlgorithm, parallelism,
+            samplingMode, contentsMode);
+  }
+
+  /**
+   * Returns a copy of these options with the given way of placing treasure and arrows.
+   *
+   * @param contentsMode when the treasure and arrows of each location are decided.
+   * @return the updated options.
+   * @throws IllegalArgumentException if contentsMode is null.
+   */
+  public GenerationOptions withContentsMode(ContentsMode contentsMode)
+          throws IllegalArgumentException {
+    if (contentsMode == null) {
+      throw new IllegalArgumentException("Contents mode cannot be null");
+    }
+    return new GenerationOptions(minimumDistance, startEndStrategy, mazeAlgorithm, parallelism,
+            samplingMode, contentsMode);
+  }
+
+  /**
+   * Returns the minimum number of moves between the start and end caves.
+   *
+   * @return the minimum distance.
+   */
+  public int getMinimumDistance() {
+    return minimumDistance;
+  }
+
+  /**
+   * Returns the strategy used to choose the start and end caves.
+   *
+   * @return the start and end selection strategy.
+   */
+  public StartEndStrategy getStartEndStrategy() {
+    return startEndStrategy;
+  }
+
+  /**
+   * Returns the algorithm used to carve the maze.
+   *
+   * @return the maze algorithm.
+   */
+  public MazeAlgorithm getMazeAlgorithm() {
+    return mazeAlgorithm;
+  }
+
+  /**
+   * Returns the number of worker threads used for parallel generation.
+   *
+   * @return the parallelism.
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Returns how a random index picks one of the remaining candidates.
+   *
+   * @return the sampling mode.
+   */
+  public SamplingMode getSamplingMode() {
+    return samplingMode;
+  }
+
+  /**
+   * Returns when the treasure and arrows of each location are decided.
+   *
+   * @return the contents mode.
+   */
+  public ContentsMode getContentsMode() {
+    return contentsMode;
+  }
+
+  //The parallelism only decides how many threads build the maze, the same options give the same
+  //dungeon at any thread count, so it takes no part in equality and options from hosts with
+  //different numbers of processors are the same cache key.
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof GenerationOptions)) {
+      return false;
+    }
+    GenerationOptions that = (GenerationOptions) o;
+    return minimumDistance == that.minimumDistance
+            && startEndStrategy == that.startEndStrategy
+            && mazeAlgorithm == that.mazeAlgorithm
+            && samplingMode == that.samplingMode
+            && contentsMode == that.contentsMode;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(minimumDistance, startEndStrategy, mazeAlgorithm, samplingMode,
+            contentsMode);
+  }
+
+  @Override
+  public String toString() {
+    return "minimumDistance=" + minimumDistance + ", startEndStrategy=" + startEndStrategy
+            + ", mazeAlgorithm=" + mazeAlgorithm + ", parallelism=" + parallelism
+            + ", samplingMode=" + samplingMode + ", contentsMode=" + contentsMode;
+  }
+}
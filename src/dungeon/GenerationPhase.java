@@ -0,0 +1,8 @@
+package dungeon;
+
+/**
+ * Represents the phases of building a dungeon, in the order they run.
+ */
+public enum GenerationPhase {
+  EDGES, SPANNING_TREE, INTERCONNECTIVITY, TREASURE, START_END, ARROWS, MONSTERS
+}
@@ -0,0 +1,103 @@
+package dungeon;
+
+import java.util.SplittableRandom;
+
+//package-private
+//Decides the treasure and arrows of each cell of a MazeGrid when the cell is read, instead of
+//filling the whole grid while the dungeon is built.
+//The treasure and the arrows of every cell draw from their own generators derived from the
+//dungeon seed and the cell id, so the contents of a cell are the same whenever and in whatever
+//order cells are read, and nothing needs to be stored. A cell holds treasure, if it is a cave,
+//and arrows, each with the given percentage as probability. Changes made while playing are kept
+//by the MazeState of the game.
+final class LazyContents implements CellContents {
+  private static final Treasure[] TREASURES = Treasure.values();
+  private static final int IDENTITY_ORDER = identityOrder();
+
+  private final MazeGrid maze;
+  private final long seed;
+  private final int treasurePercentage;
+  private final double percentage;
+
+  /**
+   * Creates the contents of a maze.
+   *
+   * @param maze               the maze whose cells are filled.
+   * @param seed               the dungeon seed.
+   * @param treasurePercentage the percentage chance of treasure in a cave and of arrows in a
+   *                           cell.
+   * @throws IllegalArgumentException if maze is null or the percentage is not between 0 and
+   *                                  100.
+   */
+  LazyContents(MazeGrid maze, long seed, int treasurePercentage)
+          throws IllegalArgumentException {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null");
+    }
+    if (treasurePercentage < 0 || treasurePercentage > 100) {
+      throw new IllegalArgumentException(
+              "Treasure percentage cannot be negative or greater than 100");
+    }
+    this.maze = maze;
+    this.seed = seed;
+    this.treasurePercentage = treasurePercentage;
+    this.percentage = treasurePercentage / 100.00;
+  }
+
+  //Byte i holds ordinal i; an int holds the order of up to four treasure types.
+  private static int identityOrder() {
+    if (TREASURES.length > 4) {
+      throw new IllegalStateException("Treasure order does not fit in an int");
+    }
+    int order = 0;
+    for (int i = 0; i < TREASURES.length; i++) {
+      order |= i << (8 * i);
+    }
+    return order;
+  }
+
+  long getSeed() {
+    return seed;
+  }
+
+  int getTreasurePercentage() {
+    return treasurePercentage;
+  }
+
+  @Override
+  public int getTreasureBits(int cell) {
+    if (percentage == 0) {
+      return 0;
+    }
+    SplittableRandom random = new SplittableRandom(SeedMixer.mix(seed, 2L * cell));
+    if (random.nextDouble() >= percentage || !maze.isCave(cell)) {
+      return 0;
+    }
+    //Partial Fisher-Yates shuffle of the treasure ordinals, kept one per byte of an int rather
+    //than in a copy of the treasure array.
+    int order = IDENTITY_ORDER;
+    int numberOfTreasures = 1 + random.nextInt(TREASURES.length);
+    int bits = 0;
+    for (int i = 0; i < numberOfTreasures; i++) {
+      int j = i + random.nextInt(TREASURES.length - i);
+      int treasure = (order >>> (8 * j)) & 0xff;
+      int replaced = (order >>> (8 * i)) & 0xff;
+      order = (order & ~(0xff << (8 * j))) | (replaced << (8 * j));
+      order = (order & ~(0xff << (8 * i))) | (treasure << (8 * i));
+      bits = MazeGrid.packTreasure(bits, TREASURES[treasure], 1 + random.nextInt(5));
+    }
+    return bits;
+  }
+
+  @Override
+  public int getArrows(int cell) {
+    if (percentage == 0) {
+      return 0;
+    }
+    SplittableRandom random = new SplittableRandom(SeedMixer.mix(seed, 2L * cell + 1));
+    if (random.nextDouble() >= percentage) {
+      return 0;
+    }
+    return 1 + random.nextInt(3);
+  }
+}
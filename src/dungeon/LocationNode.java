@@ -1,6 +1,6 @@
 package dungeon;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -30,7 +30,7 @@ public final class LocationNode implements LocationPrivate {
     this.row = row;
     this.column = column;
     this.nextMoves = new TreeSet<>();
-    this.treasure = new HashMap<>();
+    this.treasure = new EnumMap<>(Treasure.class);
     this.monster = null;
     this.arrows = 0;
   }
@@ -124,7 +124,7 @@ public final class LocationNode implements LocationPrivate {
    */
   @Override
   public Map<Treasure, Integer> getTreasure() {
-    return new HashMap<>(treasure);
+    return new EnumMap<>(treasure);
   }
 
   /**
@@ -0,0 +1,164 @@
+package dungeon;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+//package-private
+//Thin view of a single cell of a MazeState. Views are created on demand and hold no state of
+//their own, two views are equal if they refer to the same cell of the same game state.
+final class LocationView implements LocationPrivate {
+  private static final Treasure[] TREASURES = Treasure.values();
+
+  private final MazeState state;
+  private final int cell;
+
+  LocationView(MazeState state, int cell) throws IllegalArgumentException {
+    if (state == null) {
+      throw new IllegalArgumentException("State cannot be null");
+    }
+    if (cell < 0 || cell >= state.getSize()) {
+      throw new IllegalArgumentException("Please provide valid coordinates");
+    }
+    this.state = state;
+    this.cell = cell;
+  }
+
+  int getCell() {
+    return cell;
+  }
+
+  @Override
+  public void setNextMove(Move move) throws IllegalArgumentException {
+    state.addExit(cell, move);
+  }
+
+  @Override
+  public void setTreasure(Treasure treasure, int treasureQuantity)
+          throws IllegalArgumentException {
+    if (treasure == null) {
+      throw new IllegalArgumentException("Treasure cannot be null");
+    }
+    if (treasureQuantity < 0) {
+      throw new IllegalArgumentException("Treasure quantity cannot be less than 0");
+    }
+    state.setTreasure(cell, treasure, state.getTreasure(cell, treasure) + treasureQuantity);
+  }
+
+  @Override
+  public void pickTreasure(Treasure treasure, int treasureQuantity)
+          throws IllegalArgumentException {
+    if (treasure == null) {
+      throw new IllegalArgumentException("Treasure cannot be null");
+    }
+    int quantity = state.getTreasure(cell, treasure);
+    if (quantity == 0 || treasureQuantity < 0 || quantity - treasureQuantity < 0) {
+      throw new IllegalArgumentException(
+              "No such treasure or treasure quantity insufficient or treasure to be picked is "
+                      + "negative");
+    }
+    state.setTreasure(cell, treasure, quantity - treasureQuantity);
+  }
+
+  @Override
+  public Set<Move> getNextMoves() {
+    return state.getExits(cell);
+  }
+
+  @Override
+  public Map<Treasure, Integer> getTreasure() {
+    Map<Treasure, Integer> treasure = new EnumMap<>(Treasure.class);
+    int bits = state.getTreasureBits(cell);
+    if (bits != 0) {
+      for (Treasure type : TREASURES) {
+        int quantity = MazeGrid.unpackTreasure(bits, type);
+        if (quantity > 0) {
+          treasure.put(type, quantity);
+        }
+      }
+    }
+    return treasure;
+  }
+
+  @Override
+  public int getRow() {
+    return state.getRow(cell);
+  }
+
+  @Override
+  public int getColumn() {
+    return state.getColumn(cell);
+  }
+
+  @Override
+  public boolean hasTreasure() {
+    return state.hasTreasure(cell);
+  }
+
+  @Override
+  public boolean hasMonster() {
+    return state.hasLiveMonster(cell);
+  }
+
+  @Override
+  public Monster getMonster() {
+    return state.getMonster(cell);
+  }
+
+  @Override
+  public boolean isCave() {
+    return state.isCave(cell);
+  }
+
+  @Override
+  public boolean hasArrows() {
+    return state.getArrows(cell) > 0;
+  }
+
+  @Override
+  public int getArrows() {
+    return state.getArrows(cell);
+  }
+
+  @Override
+  public void hitMonster() {
+    state.hitMonster(cell);
+  }
+
+  @Override
+  public void setMonster() {
+    state.setMonster(cell);
+  }
+
+  @Override
+  public int pickArrows() throws IllegalStateException {
+    int arrows = state.getArrows(cell);
+    if (arrows > 0) {
+      state.setArrows(cell, 0);
+      return arrows;
+    }
+    throw new IllegalStateException("There are no arrows to pick");
+  }
+
+  @Override
+  public void setArrows(int numberOfArrows) {
+    state.setArrows(cell, numberOfArrows);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof LocationView)) {
+      return false;
+    }
+    LocationView that = (LocationView) o;
+    return state == that.state && cell == that.cell;
+  }
+
+  @Override
+  public int hashCode() {
+    return cell;
+  }
+}
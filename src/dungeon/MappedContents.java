@@ -0,0 +1,62 @@
+package dungeon;
+
+import java.nio.ByteBuffer;
+
+//package-private
+//Initial treasure and arrows of the cells of a dungeon file, read straight from the mapped
+//file. Only cells with some contents have a record, the records are sorted by cell and found by
+//binary search, so loading a dungeon does not read or copy its contents.
+final class MappedContents implements CellContents {
+  static final int RECORD_SIZE = Integer.BYTES + Integer.BYTES + Byte.BYTES;
+
+  private final ByteBuffer records;
+  private final int count;
+
+  /**
+   * Creates the contents read from the given records.
+   *
+   * @param records the records, starting at the position of the buffer.
+   * @param count   the number of records.
+   * @throws IllegalArgumentException if the buffer is null, count is negative or the buffer
+   *                                  holds fewer than count records.
+   */
+  MappedContents(ByteBuffer records, int count) throws IllegalArgumentException {
+    if (records == null) {
+      throw new IllegalArgumentException("Records cannot be null");
+    }
+    if (count < 0 || (long) count * RECORD_SIZE > records.remaining()) {
+      throw new IllegalArgumentException("Invalid number of records: " + count);
+    }
+    this.records = records.slice();
+    this.count = count;
+  }
+
+  @Override
+  public int getTreasureBits(int cell) {
+    int index = find(cell);
+    return index < 0 ? 0 : records.getInt(index * RECORD_SIZE + Integer.BYTES);
+  }
+
+  @Override
+  public int getArrows(int cell) {
+    int index = find(cell);
+    return index < 0 ? 0 : records.get(index * RECORD_SIZE + 2 * Integer.BYTES);
+  }
+
+  private int find(int cell) {
+    int low = 0;
+    int high = count - 1;
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int middleCell = records.getInt(middle * RECORD_SIZE);
+      if (middleCell < cell) {
+        low = middle + 1;
+      } else if (middleCell > cell) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+}
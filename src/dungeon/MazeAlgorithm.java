@@ -0,0 +1,23 @@
+package dungeon;
+
+/**
+ * Represents the algorithms available to carve the dungeon maze.
+ */
+public enum MazeAlgorithm {
+  /**
+   * Kruskal's algorithm over every edge of the grid. This is the original behaviour and keeps
+   * existing randomizer sequences reproducible.
+   */
+  KRUSKAL,
+  /**
+   * Eller's algorithm, which carves the maze one row at a time with memory proportional to the
+   * number of columns.
+   */
+  ELLER,
+  /**
+   * Kruskal's algorithm run concurrently on square tiles of the grid, which are then stitched
+   * into a single spanning tree. The maze depends only on a seed drawn from the randomizer, not
+   * on the number of threads.
+   */
+  PARALLEL_TILED
+}
@@ -0,0 +1,92 @@
+package dungeon;
+
+import java.util.Arrays;
+
+//package-private
+//Breadth first search over the cells of a MazeGrid using flat int arrays.
+//The buffers are allocated once and reused by every sweep, a sweep costs time linear in the
+//number of cells reached and does not allocate.
+final class MazeBfs {
+  private final MazeGrid maze;
+  private final int[] order;
+  private final int[] distance;
+  private final int[] mark;
+  private int stamp;
+  private int reached;
+
+  MazeBfs(MazeGrid maze) throws IllegalArgumentException {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null");
+    }
+    this.maze = maze;
+    this.order = new int[maze.getSize()];
+    this.distance = new int[maze.getSize()];
+    this.mark = new int[maze.getSize()];
+    this.stamp = 0;
+    this.reached = 0;
+  }
+
+  /**
+   * Runs a breadth first search from the given cell following the exits of the maze.
+   *
+   * @param start the cell to start from.
+   * @return the number of cells reached, including the start cell.
+   */
+  int sweep(int start) {
+    stamp++;
+    if (stamp == 0) {
+      Arrays.fill(mark, 0);
+      stamp = 1;
+    }
+    int head = 0;
+    int tail = 0;
+    order[tail++] = start;
+    mark[start] = stamp;
+    distance[start] = 0;
+    Move[] moves = Move.values();
+    while (head < tail) {
+      int cell = order[head++];
+      int exits = maze.getExitMask(cell);
+      for (Move move : moves) {
+        if ((exits & (1 << move.ordinal())) != 0) {
+          int next = maze.getNeighbour(cell, move);
+          if (mark[next] != stamp) {
+            mark[next] = stamp;
+            distance[next] = distance[cell] + 1;
+            order[tail++] = next;
+          }
+        }
+      }
+    }
+    reached = tail;
+    return reached;
+  }
+
+  /**
+   * Returns the number of cells reached by the last sweep.
+   */
+  int getReached() {
+    return reached;
+  }
+
+  /**
+   * Returns the cell visited at the given position of the last sweep, in visiting order.
+   */
+  int getCell(int index) {
+    return order[index];
+  }
+
+  /**
+   * Returns whether the given cell was reached by the last sweep.
+   */
+  boolean isReached(int cell) {
+    return mark[cell] == stamp;
+  }
+
+  /**
+   * Returns the number of steps from the start of the last sweep to the given cell.
+   */
+  int getDistance(int cell) {
+    return distance[cell];
+  }
+}
@@ -0,0 +1,358 @@
+package dungeon;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+//package-private
+//Compact store for the topology and initial contents of the dungeon maze. Cells are identified
+//by row * columns + column.
+//Exits are kept as a 4-bit mask per cell (one bit per Move ordinal), arrows as a byte per cell
+//and treasure as three 10-bit quantities packed into an int per cell. The exits are held in a
+//ByteBuffer so a grid can be served straight from a memory mapped dungeon file. The content
+//arrays are only allocated once something is stored in them, and contents generated lazily or
+//read from a file come from a CellContents instead. Monsters are sparse and kept in a map.
+//The grid is written while the dungeon is built and then frozen, after which it never changes
+//and can be shared by any number of games, each keeping its changes in its own MazeState.
+final class MazeGrid {
+  private static final int TREASURE_BITS = 10;
+  private static final int TREASURE_MASK = (1 << TREASURE_BITS) - 1;
+  private static final int ALL_EXITS = (1 << Move.values().length) - 1;
+
+  private final int rows;
+  private final int columns;
+  private final int size;
+  private final ByteBuffer exits;
+  private final Map<Integer, Monster> monsters;
+  private byte[] arrows;
+  private int[] treasure;
+  private CellContents contents;
+  private boolean frozen;
+
+  /**
+   * Creates an empty grid with no exits and no contents.
+   *
+   * @param rows    the number of rows of the grid.
+   * @param columns the number of columns of the grid.
+   * @throws IllegalArgumentException if rows or columns are not positive.
+   */
+  MazeGrid(int rows, int columns) throws IllegalArgumentException {
+    if (rows <= 0 || columns <= 0) {
+      throw new IllegalArgumentException("Rows and columns must be positive");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.size = Math.multiplyExact(rows, columns);
+    this.exits = ByteBuffer.wrap(new byte[size]);
+    this.monsters = new HashMap<>();
+    this.frozen = false;
+  }
+
+  /**
+   * Creates a grid whose exits are read from the given buffer, one byte per cell starting at
+   * its position, as when loading a dungeon file. The buffer is not copied, so the exits cannot
+   * be changed; the contents are set with setContents before the grid is frozen.
+   *
+   * @param monsterHealth the health of the monster at each cell that has one.
+   * @throws IllegalArgumentException if rows or columns are not positive, the buffer is too
+   *                                  small or a monster is outside the grid.
+   */
+  MazeGrid(int rows, int columns, ByteBuffer exits, Map<Integer, Integer> monsterHealth)
+          throws IllegalArgumentException {
+    if (rows <= 0 || columns <= 0) {
+      throw new IllegalArgumentException("Rows and columns must be positive");
+    }
+    if (exits == null || monsterHealth == null) {
+      throw new IllegalArgumentException("Exits and monsters cannot be null");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.size = Math.multiplyExact(rows, columns);
+    if (exits.remaining() < size) {
+      throw new IllegalArgumentException("Exits buffer is smaller than the grid");
+    }
+    this.exits = exits.slice();
+    this.monsters = new HashMap<>();
+    for (Map.Entry<Integer, Integer> monster : monsterHealth.entrySet()) {
+      if (monster.getKey() < 0 || monster.getKey() >= size) {
+        throw new IllegalArgumentException("Monster outside the grid: " + monster.getKey());
+      }
+      monsters.put(monster.getKey(), new Otyugh(monster.getValue()));
+    }
+    this.frozen = false;
+  }
+
+  int getRows() {
+    return rows;
+  }
+
+  int getColumns() {
+    return columns;
+  }
+
+  int getSize() {
+    return size;
+  }
+
+  int getCell(int row, int column) throws IllegalArgumentException {
+    if (row < 0 || column < 0 || row >= rows || column >= columns) {
+      throw new IllegalArgumentException("Please provide valid coordinates");
+    }
+    return row * columns + column;
+  }
+
+  int getRow(int cell) {
+    return cell / columns;
+  }
+
+  int getColumn(int cell) {
+    return cell % columns;
+  }
+
+  /**
+   * Returns the cell reached by taking the given move from the given cell.
+   * NORTH decreases the row, SOUTH increases it, WEST increases the column and EAST decreases
+   * it; coordinates wrap around the edges of the grid.
+   */
+  int getNeighbour(int cell, Move move) throws IllegalArgumentException {
+    if (move == null) {
+      throw new IllegalArgumentException("Move cannot be null");
+    }
+    int row = cell / columns;
+    int column = cell % columns;
+    switch (move) {
+      case NORTH:
+        return (row == 0 ? rows - 1 : row - 1) * columns + column;
+      case SOUTH:
+        return (row == rows - 1 ? 0 : row + 1) * columns + column;
+      case WEST:
+        return row * columns + (column == columns - 1 ? 0 : column + 1);
+      case EAST:
+        return row * columns + (column == 0 ? columns - 1 : column - 1);
+      default:
+        throw new IllegalStateException("getNeighbour should never be in default condition");
+    }
+  }
+
+  void addExit(int cell, Move move) throws IllegalArgumentException, IllegalStateException {
+    if (move == null) {
+      throw new IllegalArgumentException("Move cannot be null");
+    }
+    checkNotFrozen();
+    exits.put(cell, (byte) (exits.get(cell) | (1 << move.ordinal())));
+  }
+
+  void setExitMask(int cell, int mask) throws IllegalArgumentException, IllegalStateException {
+    if ((mask & ~ALL_EXITS) != 0) {
+      throw new IllegalArgumentException("Invalid exit mask: " + mask);
+    }
+    checkNotFrozen();
+    exits.put(cell, (byte) mask);
+  }
+
+  boolean hasExit(int cell, Move move) {
+    return (exits.get(cell) & (1 << move.ordinal())) != 0;
+  }
+
+  int getExitMask(int cell) {
+    return exits.get(cell) & ALL_EXITS;
+  }
+
+  Set<Move> getExits(int cell) {
+    Set<Move> moves = EnumSet.noneOf(Move.class);
+    int mask = exits.get(cell);
+    for (Move move : Move.values()) {
+      if ((mask & (1 << move.ordinal())) != 0) {
+        moves.add(move);
+      }
+    }
+    return moves;
+  }
+
+  boolean isCave(int cell) {
+    return Integer.bitCount(exits.get(cell) & ALL_EXITS) != 2;
+  }
+
+  /**
+   * Returns the treasure of the given cell with the quantity of each type packed in 10 bits.
+   */
+  int getTreasureBits(int cell) {
+    if (contents != null) {
+      return contents.getTreasureBits(cell);
+    }
+    return treasure == null ? 0 : treasure[cell];
+  }
+
+  int getTreasure(int cell, Treasure type) {
+    return unpackTreasure(getTreasureBits(cell), type);
+  }
+
+  boolean hasTreasure(int cell) {
+    return getTreasureBits(cell) != 0;
+  }
+
+  void setTreasure(int cell, Treasure type, int quantity)
+          throws IllegalArgumentException, IllegalStateException {
+    int bits = packTreasure(getTreasureBits(cell), type, quantity);
+    checkNotFrozen();
+    checkNoContents();
+    if (treasure == null) {
+      treasure = new int[size];
+    }
+    treasure[cell] = bits;
+  }
+
+  int getArrows(int cell) {
+    if (contents != null) {
+      return contents.getArrows(cell);
+    }
+    return arrows == null ? 0 : arrows[cell];
+  }
+
+  void setArrows(int cell, int numberOfArrows)
+          throws IllegalArgumentException, IllegalStateException {
+    checkArrows(numberOfArrows);
+    checkNotFrozen();
+    checkNoContents();
+    if (arrows == null) {
+      arrows = new byte[size];
+    }
+    arrows[cell] = (byte) numberOfArrows;
+  }
+
+  /**
+   * Makes the treasure and arrows of every cell come from the given contents instead of being
+   * stored in the grid.
+   */
+  void setContents(CellContents contents) throws IllegalStateException {
+    checkNotFrozen();
+    if (treasure != null || arrows != null) {
+      throw new IllegalStateException("Grid already has contents");
+    }
+    this.contents = contents;
+  }
+
+  /**
+   * Returns the contents the treasure and arrows come from, or null if they are stored in the
+   * grid.
+   */
+  CellContents getContents() {
+    return contents;
+  }
+
+  /**
+   * Returns the monster placed at the given cell. Monsters of a frozen grid keep the health
+   * they had when it was frozen and are only read to start the monsters of a MazeState.
+   */
+  Monster getMonster(int cell) {
+    return monsters.get(cell);
+  }
+
+  void setMonster(int cell) throws IllegalStateException {
+    checkNotFrozen();
+    monsters.putIfAbsent(cell, new Otyugh());
+  }
+
+
+  boolean hasLiveMonster(int cell) {
+    Monster monster = monsters.get(cell);
+    return monster != null && !monster.isDead();
+  }
+
+  Set<Integer> getMonsterCells() {
+    return Collections.unmodifiableSet(monsters.keySet());
+  }
+
+  /**
+   * Prevents any further change to this grid.
+   */
+  void freeze() {
+    frozen = true;
+  }
+
+  boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Checks that every exit of this grid leads to a cell with the opposite exit back, and that
+   * an unwrapped grid has no exits across its edges.
+   *
+   * @param wrapped whether exits may cross the edges of the grid.
+   * @throws IllegalArgumentException if a cell has an unknown exit bit, a one-way exit or an
+   *                                  exit out of an unwrapped grid.
+   */
+  void checkExits(boolean wrapped) throws IllegalArgumentException {
+    Move[] moves = Move.values();
+    for (int cell = 0; cell < size; cell++) {
+      int mask = exits.get(cell);
+      if ((mask & ~ALL_EXITS) != 0) {
+        throw new IllegalArgumentException("Invalid exit mask " + mask + " at cell " + cell);
+      }
+      for (Move move : moves) {
+        if ((mask & (1 << move.ordinal())) == 0) {
+          continue;
+        }
+        if (!wrapped && crossesEdge(cell, move)) {
+          throw new IllegalArgumentException("Exit " + move + " of cell " + cell
+                  + " leaves the grid");
+        }
+        if (!hasExit(getNeighbour(cell, move), move.getOpposite())) {
+          throw new IllegalArgumentException("Exit " + move + " of cell " + cell
+                  + " has no exit back");
+        }
+      }
+    }
+  }
+
+  static int unpackTreasure(int bits, Treasure type) {
+    return (bits >>> (type.ordinal() * TREASURE_BITS)) & TREASURE_MASK;
+  }
+
+  static int packTreasure(int bits, Treasure type, int quantity)
+          throws IllegalArgumentException {
+    if (quantity < 0 || quantity > TREASURE_MASK) {
+      throw new IllegalArgumentException("Treasure quantity must be between 0 and "
+              + TREASURE_MASK);
+    }
+    int shift = type.ordinal() * TREASURE_BITS;
+    return (bits & ~(TREASURE_MASK << shift)) | (quantity << shift);
+  }
+
+  static void checkArrows(int numberOfArrows) throws IllegalArgumentException {
+    if (numberOfArrows < 0 || numberOfArrows > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException("Number of arrows must be between 0 and "
+              + Byte.MAX_VALUE);
+    }
+  }
+
+  private boolean crossesEdge(int cell, Move move) {
+    switch (move) {
+      case NORTH:
+        return getRow(cell) == 0;
+      case SOUTH:
+        return getRow(cell) == rows - 1;
+      case WEST:
+        return getColumn(cell) == columns - 1;
+      case EAST:
+        return getColumn(cell) == 0;
+      default:
+        throw new IllegalStateException("crossesEdge should never be in default condition");
+    }
+  }
+
+  private void checkNotFrozen() throws IllegalStateException {
+    if (frozen) {
+      throw new IllegalStateException("Maze cannot be changed once frozen");
+    }
+  }
+
+  private void checkNoContents() throws IllegalStateException {
+    if (contents != null) {
+      throw new IllegalStateException("Maze contents are not stored in the grid");
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package dungeon;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes generated maze rows to a file as one exit mask byte per cell in row major order.
+ * Rows are written at their position in the file, so they may arrive in any order.
+ */
+public final class MazeRowFileSink implements MazeRowSink, Closeable {
+  private final FileChannel channel;
+  private final int columns;
+  private final long offset;
+
+  /**
+   * Creates a sink writing to the given file, starting at the given byte offset.
+   *
+   * @param path    the file to write to, created if it does not exist.
+   * @param columns the number of columns in each row.
+   * @param offset  the position in the file of the first row.
+   * @throws IOException if the file cannot be opened.
+   * @throws IllegalArgumentException if path is null, columns is not positive or offset is
+   *                                  negative.
+   */
+  public MazeRowFileSink(Path path, int columns, long offset)
+          throws IOException, IllegalArgumentException {
+    if (path == null || columns <= 0 || offset < 0) {
+      throw new IllegalArgumentException("Please provide valid parameters to the sink");
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    this.columns = columns;
+    this.offset = offset;
+  }
+
+  @Override
+  public void acceptRow(int row, byte[] exits) throws IOException {
+    if (exits == null || exits.length != columns) {
+      throw new IllegalArgumentException("Row must have " + columns + " columns");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(exits);
+    long position = offset + (long) row * columns;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
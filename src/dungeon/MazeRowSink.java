@@ -0,0 +1,22 @@
+package dungeon;
+
+import java.io.IOException;
+
+/**
+ * Receives the rows of a maze as they are generated.
+ * Each row is given as one exit mask per column where bit {@code 1 << move.ordinal()} is set if
+ * the cell has an exit in that {@link Move} direction.
+ */
+public interface MazeRowSink {
+
+  /**
+   * Accepts a completed row of the maze. Rows of a wrapped maze may arrive out of order, the
+   * first and last rows are delivered last because they share the wrapped edges.
+   * The given array is reused once this method returns.
+   *
+   * @param row   the row number.
+   * @param exits the exit mask of each cell in the row.
+   * @throws IOException if the row cannot be written.
+   */
+  void acceptRow(int row, byte[] exits) throws IOException;
+}
@@ -0,0 +1,232 @@
+package dungeon;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+//package-private
+//State of one game played on a MazeGrid. The grid is shared and never written, the state only
+//keeps what the game changed: the treasure and arrows of the cells picked from and the
+//monsters that were hit, copied from the grid on the first hit. Reading a cell never copies
+//it. Memory therefore grows with the number of cells changed, not with the size of the maze.
+//The maps are only allocated on the first change.
+final class MazeState {
+  private final MazeGrid grid;
+  private Map<Integer, Integer> treasure;
+  private Map<Integer, Integer> arrows;
+  private Map<Integer, Monster> monsters;
+
+  MazeState(MazeGrid grid) throws IllegalArgumentException {
+    if (grid == null) {
+      throw new IllegalArgumentException("Grid cannot be null");
+    }
+    this.grid = grid;
+  }
+
+  MazeGrid getGrid() {
+    return grid;
+  }
+
+  int getRows() {
+    return grid.getRows();
+  }
+
+  int getColumns() {
+    return grid.getColumns();
+  }
+
+  int getSize() {
+    return grid.getSize();
+  }
+
+  int getCell(int row, int column) throws IllegalArgumentException {
+    return grid.getCell(row, column);
+  }
+
+  int getRow(int cell) {
+    return grid.getRow(cell);
+  }
+
+  int getColumn(int cell) {
+    return grid.getColumn(cell);
+  }
+
+  int getNeighbour(int cell, Move move) throws IllegalArgumentException {
+    return grid.getNeighbour(cell, move);
+  }
+
+  void addExit(int cell, Move move) throws IllegalArgumentException, IllegalStateException {
+    grid.addExit(cell, move);
+  }
+
+  boolean hasExit(int cell, Move move) {
+    return grid.hasExit(cell, move);
+  }
+
+  Set<Move> getExits(int cell) {
+    return grid.getExits(cell);
+  }
+
+  boolean isCave(int cell) {
+    return grid.isCave(cell);
+  }
+
+  int getTreasure(int cell, Treasure type) {
+    return MazeGrid.unpackTreasure(getTreasureBits(cell), type);
+  }
+
+  boolean hasTreasure(int cell) {
+    return getTreasureBits(cell) != 0;
+  }
+
+  void setTreasure(int cell, Treasure type, int quantity) throws IllegalArgumentException {
+    int bits = MazeGrid.packTreasure(getTreasureBits(cell), type, quantity);
+    if (treasure == null) {
+      treasure = new HashMap<>();
+    }
+    treasure.put(cell, bits);
+  }
+
+  int getArrows(int cell) {
+    if (arrows != null) {
+      Integer changed = arrows.get(cell);
+      if (changed != null) {
+        return changed;
+      }
+    }
+    return grid.getArrows(cell);
+  }
+
+  void setArrows(int cell, int numberOfArrows) throws IllegalArgumentException {
+    MazeGrid.checkArrows(numberOfArrows);
+    if (arrows == null) {
+      arrows = new HashMap<>();
+    }
+    arrows.put(cell, numberOfArrows);
+  }
+
+  /**
+   * Returns the monster of this game at the given cell. A monster this game has not hit is the
+   * one of the grid and must not be changed, monsters are hit with hitMonster.
+   */
+  Monster getMonster(int cell) {
+    if (monsters != null) {
+      Monster monster = monsters.get(cell);
+      if (monster != null) {
+        return monster;
+      }
+    }
+    return grid.getMonster(cell);
+  }
+
+  /**
+   * Hits the monster at the given cell with an arrow, copying it from the grid the first time
+   * so hitting it does not change the grid. Does nothing if the cell has no monster.
+   */
+  void hitMonster(int cell) {
+    Monster monster = monsters == null ? null : monsters.get(cell);
+    if (monster == null) {
+      Monster initial = grid.getMonster(cell);
+      if (initial == null) {
+        return;
+      }
+      monster = new Otyugh(initial.getHealth());
+      putMonster(cell, monster);
+    }
+    monster.arrowHit();
+  }
+
+  void setMonster(int cell) {
+    if (getMonster(cell) == null) {
+      putMonster(cell, new Otyugh());
+    }
+  }
+
+  boolean hasLiveMonster(int cell) {
+    Monster monster = getMonster(cell);
+    return monster != null && !monster.isDead();
+  }
+
+  /**
+   * Returns the cells that hold a monster, dead or alive.
+   */
+  Set<Integer> getMonsterCells() {
+    if (monsters == null) {
+      return grid.getMonsterCells();
+    }
+    Set<Integer> cells = new HashSet<>(grid.getMonsterCells());
+    cells.addAll(monsters.keySet());
+    return Collections.unmodifiableSet(cells);
+  }
+
+  /**
+   * Returns the cells whose contents or monster this game has changed.
+   */
+  Set<Integer> getChangedCellSet() {
+    Set<Integer> cells = new HashSet<>();
+    if (treasure != null) {
+      cells.addAll(treasure.keySet());
+    }
+    if (arrows != null) {
+      cells.addAll(arrows.keySet());
+    }
+    if (monsters != null) {
+      cells.addAll(monsters.keySet());
+    }
+    return cells;
+  }
+
+  /**
+   * Returns the number of cells whose contents or monster this game has changed. A cell changed
+   * in several ways is counted once.
+   */
+  int getChangedCells() {
+    return getChangedCellSet().size();
+  }
+
+  LocationPrivate getLocation(int cell) {
+    return new LocationView(this, cell);
+  }
+
+  /**
+   * Restores the contents and monster of a cell saved from another game on the same grid.
+   * Contents equal to those of the grid are not stored.
+   *
+   * @param monsterHealth the health of the monster of the cell, or -1 if it has none.
+   */
+  void restoreCell(int cell, int treasureBits, int numberOfArrows, int monsterHealth)
+          throws IllegalArgumentException {
+    MazeGrid.checkArrows(numberOfArrows);
+    if (treasureBits != getTreasureBits(cell)) {
+      if (treasure == null) {
+        treasure = new HashMap<>();
+      }
+      treasure.put(cell, treasureBits);
+    }
+    if (numberOfArrows != getArrows(cell)) {
+      setArrows(cell, numberOfArrows);
+    }
+    if (monsterHealth >= 0) {
+      putMonster(cell, new Otyugh(monsterHealth));
+    }
+  }
+
+  int getTreasureBits(int cell) {
+    if (treasure != null) {
+      Integer changed = treasure.get(cell);
+      if (changed != null) {
+        return changed;
+      }
+    }
+    return grid.getTreasureBits(cell);
+  }
+
+  private void putMonster(int cell, Monster monster) {
+    if (monsters == null) {
+      monsters = new HashMap<>();
+    }
+    monsters.put(cell, monster);
+  }
+}
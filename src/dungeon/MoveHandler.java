@@ -0,0 +1,36 @@
+package dungeon;
+
+import java.io.IOException;
+
+/**
+ * Moves the player in the direction they choose. A move always ends the turn, even one the
+ * game refuses.
+ */
+//package-private
+final class MoveHandler implements CommandHandler {
+
+  @Override
+  public boolean isAvailable(Dungeon model, Location location) {
+    return true;
+  }
+
+  @Override
+  public Result execute(CommandContext context) throws IOException {
+    Dungeon model = context.getModel();
+    TurnOutput output = context.getOutput();
+    Move direction = context.readDirection("\nWhere do we go?\n");
+    try {
+      model.movePlayer(direction);
+    }
+    catch (IllegalArgumentException iae) {
+      output.append(iae.getMessage());
+      context.failed();
+    }
+    Location newPlayerLocation = model.getPlayerCurrentLocation();
+    if (newPlayerLocation.hasMonster() && !model.isPlayerDead()) {
+      output.append("\nThere is an injured Otyugh resting. You have miraculously "
+              + "survived!!");
+    }
+    return Result.NEXT_TURN;
+  }
+}
@@ -13,6 +13,13 @@ final class Otyugh implements Monster {
     this.health = DEFAULT_HEALTH;
   }
 
+  Otyugh(int health) throws IllegalArgumentException {
+    if (health < 0 || health > DEFAULT_HEALTH) {
+      throw new IllegalArgumentException("Health must be between 0 and " + DEFAULT_HEALTH);
+    }
+    this.health = health;
+  }
+
   @Override
   public int getHealth() {
     return health;
@@ -0,0 +1,38 @@
+package dungeon;
+
+//package-private
+//Encodes an edge of the maze grid as an int: cell * 2 for the edge from the cell to its NORTH
+//neighbour and cell * 2 + 1 for the edge to its WEST neighbour.
+final class PackedEdge {
+
+  private PackedEdge() {
+  }
+
+  static int of(int cell, Move move) throws IllegalArgumentException {
+    if (move == Move.NORTH) {
+      return cell * 2;
+    }
+    if (move == Move.WEST) {
+      return cell * 2 + 1;
+    }
+    throw new IllegalArgumentException("Edges are stored as NORTH or WEST moves");
+  }
+
+  static int getCell(int edge) {
+    return edge >>> 1;
+  }
+
+  static Move getMove(int edge) {
+    return (edge & 1) == 0 ? Move.NORTH : Move.WEST;
+  }
+
+  /**
+   * Adds the exits on both sides of the given edge.
+   */
+  static void carve(MazeGrid maze, int edge) {
+    int cell = getCell(edge);
+    Move move = getMove(edge);
+    maze.addExit(cell, move);
+    maze.addExit(maze.getNeighbour(cell, move), move.getOpposite());
+  }
+}
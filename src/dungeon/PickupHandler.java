@@ -0,0 +1,69 @@
+package dungeon;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Picks up the arrows or the treasure of the location, whichever the player chooses, and
+ * describes what the player then has.
+ */
+//package-private
+final class PickupHandler implements CommandHandler {
+
+  @Override
+  public boolean isAvailable(Dungeon model, Location location) {
+    return location.hasTreasure() || location.hasArrows();
+  }
+
+  @Override
+  public Result execute(CommandContext context) throws IOException {
+    Dungeon model = context.getModel();
+    Location location = context.getLocation();
+    CommandTokenizer tokens = context.getTokens();
+    TurnOutput output = context.getOutput();
+    Commands itemCommand = null;
+    while (itemCommand == null) {
+      output.append("\nWhat to pick? Enter A for arrows or T for treasure\n");
+      tokens.next();
+      try {
+        itemCommand = Commands.getByShortHand(tokens.chars(), tokens.start(), tokens.length());
+        if (!itemCommand.equals(Commands.PICKARROWS)
+                && !itemCommand.equals(Commands.PICKTREASURE)) {
+          itemCommand = null;
+          context.failed();
+        }
+      }
+      catch (IllegalArgumentException iae) {
+        output.append("Please pick a valid pickup option");
+        context.failed();
+      }
+    }
+    if (itemCommand == Commands.PICKARROWS) {
+      try {
+        int arrows = location.getArrows();
+        model.playerPickArrows();
+        output.append("\nYou have picked up ").append(String.valueOf(arrows));
+        if (arrows > 1) {
+          output.append(" arrows");
+        } else {
+          output.append(" arrow");
+        }
+      } catch (IllegalStateException ise) {
+        output.append("\nNo arrows to pick");
+        context.failed();
+      }
+    } else {
+      try {
+        Map<Treasure, Integer> treasure = location.getTreasure();
+        model.playerPickTreasure();
+        output.append("\nYou picked up");
+        context.printTreasures(treasure);
+      } catch (IllegalStateException ise) {
+        output.append("\nNo treasure to pick");
+        context.failed();
+      }
+    }
+    context.printPlayerDescription(model.getPlayerDescription());
+    return Result.NEXT_COMMAND;
+  }
+}
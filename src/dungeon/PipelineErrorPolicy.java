@@ -0,0 +1,23 @@
+package dungeon;
+
+/**
+ * Represents what a {@link DungeonConsoleController} does with the rest of a line of input
+ * when an action typed on it fails, for players and bots that type several actions on one line
+ * such as {@code M N M E S W 3 P A}. An action fails when its command, direction, pickup item
+ * or distance is not valid, or when the game refuses it, such as a move into a wall or a pickup
+ * where there is nothing to pick.
+ * Either way the failure is reported as it is for a single action, and the question that was
+ * not answered is asked again.
+ */
+public enum PipelineErrorPolicy {
+  /**
+   * The rest of the line is kept, so the next token answers the question asked again and the
+   * actions after it are read from there. This is the original behaviour.
+   */
+  CONTINUE,
+  /**
+   * The rest of the line is dropped and reported as skipped, so no action typed after a failed
+   * one is run. The question asked again is answered by the next line.
+   */
+  DISCARD_LINE
+}
@@ -1,6 +1,6 @@
 package dungeon;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 /**
@@ -17,7 +17,7 @@ public class PlayerModel implements PlayerPrivate {
    * Creates a new instance of PlayerModel.
    */
   public PlayerModel() {
-    this.treasure = new HashMap<>();
+    this.treasure = new EnumMap<>(Treasure.class);
     this.arrows = 3;
   }
 
@@ -28,7 +28,7 @@ public class PlayerModel implements PlayerPrivate {
    */
   @Override
   public Map<Treasure, Integer> getTreasure() {
-    return new HashMap<>(treasure);
+    return new EnumMap<>(treasure);
   }
 
   /**
@@ -117,4 +117,13 @@ public class PlayerModel implements PlayerPrivate {
     }
     this.arrows += arrows;
   }
+
+  //package-private due to interface
+  @Override
+  public void setArrows(int arrows) throws IllegalArgumentException {
+    if (arrows < 0) {
+      throw new IllegalArgumentException("Arrows cannot be negative");
+    }
+    this.arrows = arrows;
+  }
 }
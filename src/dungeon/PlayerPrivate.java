@@ -9,4 +9,6 @@ interface PlayerPrivate extends Player {
   void fireArrow();
 
   void pickArrows(int arrows);
+
+  void setArrows(int arrows) throws IllegalArgumentException;
 }
@@ -0,0 +1,18 @@
+package dungeon;
+
+/**
+ * Ends the game at the player's request.
+ */
+//package-private
+final class QuitHandler implements CommandHandler {
+
+  @Override
+  public boolean isAvailable(Dungeon model, Location location) {
+    return true;
+  }
+
+  @Override
+  public Result execute(CommandContext context) {
+    return Result.END_GAME;
+  }
+}
@@ -0,0 +1,193 @@
+package dungeon;
+
+import java.util.List;
+import java.util.Set;
+
+import randomizer.Randomizer;
+
+/**
+ * A game that records itself into a {@link CommandLog} as it is played. Every action is
+ * recorded with the cell the player ends in and its outcome, including actions that fail, and
+ * every value the game draws from its randomizer is recorded before the action that drew it.
+ * The game is the same as the one built by {@link DungeonSpec#build()}.
+ */
+public final class RecordingDungeon implements Dungeon {
+  static final int FAILED_ARGUMENT = -1;
+  static final int FAILED_STATE = -2;
+  static final int DEAD_FLAG = 1;
+  static final int GAME_OVER_FLAG = 2;
+  static final int VISITED_END_FLAG = 4;
+
+  private final DungeonModel game;
+  private final CommandLog log;
+
+  /**
+   * Builds the dungeon of the given spec and starts recording a game on it.
+   *
+   * @param spec the spec of the dungeon.
+   * @throws IllegalArgumentException if spec is null or its parameters are not valid.
+   */
+  public RecordingDungeon(DungeonSpec spec) throws IllegalArgumentException {
+    this(spec, null);
+  }
+
+  /**
+   * Starts recording a game on the dungeon of the given spec, taking the dungeon from the given
+   * cache.
+   *
+   * @param spec  the spec of the dungeon.
+   * @param cache the cache the dungeon is taken from, or null to build it.
+   * @throws IllegalArgumentException if spec is null or its parameters are not valid.
+   */
+  public RecordingDungeon(DungeonSpec spec, DungeonCache cache) throws IllegalArgumentException {
+    if (spec == null) {
+      throw new IllegalArgumentException("Spec cannot be null");
+    }
+    DungeonModel template = cache == null ? spec.buildTemplate() : cache.getTemplate(spec);
+    this.log = new CommandLog(spec);
+    this.game = new DungeonModel(template, new RecordingRandomizer(spec.newGameRandomizer()));
+  }
+
+  /**
+   * Returns the log of this game so far.
+   *
+   * @return the log of this game.
+   */
+  public CommandLog getLog() {
+    return log;
+  }
+
+  @Override
+  public List<List<Location>> getMaze() {
+    return game.getMaze();
+  }
+
+  @Override
+  public Location getStartLocation() {
+    return game.getStartLocation();
+  }
+
+  @Override
+  public Location getEndLocation() {
+    return game.getEndLocation();
+  }
+
+  @Override
+  public Location getPlayerCurrentLocation() {
+    return game.getPlayerCurrentLocation();
+  }
+
+  @Override
+  public Set<Move> getAvailableDirections() {
+    return game.getAvailableDirections();
+  }
+
+  @Override
+  public boolean playerVisitedEnd() {
+    return game.playerVisitedEnd();
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return game.isGameOver();
+  }
+
+  @Override
+  public void movePlayer(Move move) throws IllegalArgumentException, IllegalStateException {
+    try {
+      game.movePlayer(move);
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw failed(CommandLog.MOVE, move, 0, e);
+    }
+    record(CommandLog.MOVE, move, 0, getFlags(game));
+  }
+
+  @Override
+  public void playerPickTreasure() throws IllegalStateException {
+    try {
+      game.playerPickTreasure();
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw failed(CommandLog.PICK_TREASURE, null, 0, e);
+    }
+    record(CommandLog.PICK_TREASURE, null, 0, 0);
+  }
+
+  @Override
+  public Player getPlayerDescription() {
+    return game.getPlayerDescription();
+  }
+
+  @Override
+  public SmellLevel getSmell(Location location) throws IllegalStateException {
+    return game.getSmell(location);
+  }
+
+  @Override
+  public ArrowHitOutcome shootArrow(Move direction, int arrowDistance)
+          throws IllegalArgumentException, IllegalStateException {
+    ArrowHitOutcome outcome;
+    try {
+      outcome = game.shootArrow(direction, arrowDistance);
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw failed(CommandLog.SHOOT, direction, arrowDistance, e);
+    }
+    record(CommandLog.SHOOT, direction, arrowDistance, outcome.ordinal());
+    return outcome;
+  }
+
+  @Override
+  public void playerPickArrows() throws IllegalStateException {
+    try {
+      game.playerPickArrows();
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw failed(CommandLog.PICK_ARROWS, null, 0, e);
+    }
+    record(CommandLog.PICK_ARROWS, null, 0, 0);
+  }
+
+  @Override
+  public boolean isPlayerDead() {
+    return game.isPlayerDead();
+  }
+
+  /**
+   * Returns the state of the game after a move as flags.
+   */
+  static int getFlags(DungeonModel game) {
+    return (game.isPlayerDead() ? DEAD_FLAG : 0) | (game.isGameOver() ? GAME_OVER_FLAG : 0)
+            | (game.playerVisitedEnd() ? VISITED_END_FLAG : 0);
+  }
+
+  /**
+   * Returns the outcome recorded for an action that failed with the given exception.
+   */
+  static int getFailure(RuntimeException e) {
+    return e instanceof IllegalArgumentException ? FAILED_ARGUMENT : FAILED_STATE;
+  }
+
+  private void record(byte action, Move move, int argument, int outcome) {
+    log.appendAction(action, move == null ? -1 : move.ordinal(), argument,
+            game.getCurrentCell(), outcome);
+  }
+
+  private RuntimeException failed(byte action, Move move, int argument, RuntimeException e) {
+    record(action, move, argument, getFailure(e));
+    return e;
+  }
+
+  //Records every value drawn by the game.
+  private final class RecordingRandomizer implements Randomizer {
+    private final Randomizer randomizer;
+
+    RecordingRandomizer(Randomizer randomizer) {
+      this.randomizer = randomizer;
+    }
+
+    @Override
+    public int getRandomValue(int minBound, int maxBound) {
+      int value = randomizer.getRandomValue(minBound, maxBound);
+      log.appendDraw(minBound, maxBound, value);
+      return value;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package dungeon;
+
+//package-private
+//List of int candidates from which elements are removed by index, as used for randomly
+//drawing edges and cells. In ORDERED mode the index counts the remaining elements in their
+//original order, found through a Fenwick tree of the remaining positions in O(log n). In SWAP
+//mode the removed element is replaced by the last one in O(1).
+final class RemovalList {
+  private final int[] values;
+  private final int[] tree;
+  private final int capacity;
+  private final SamplingMode mode;
+  private int size;
+
+  /**
+   * Creates a list over the first size elements of the given array. The array is used in place
+   * and is modified by removals.
+   */
+  RemovalList(int[] values, int size, SamplingMode mode) throws IllegalArgumentException {
+    if (values == null || mode == null || size < 0 || size > values.length) {
+      throw new IllegalArgumentException("Please provide valid arguments");
+    }
+    this.values = values;
+    this.capacity = size;
+    this.mode = mode;
+    this.size = size;
+    if (mode == SamplingMode.ORDERED) {
+      this.tree = new int[size + 1];
+      for (int i = 1; i <= size; i++) {
+        tree[i] = i & -i;
+      }
+    } else {
+      this.tree = null;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Removes and returns the element at the given index of the remaining elements.
+   */
+  int remove(int index) throws IllegalArgumentException {
+    if (index < 0 || index >= size) {
+      throw new IllegalArgumentException("Index out of range: " + index);
+    }
+    size--;
+    if (mode == SamplingMode.SWAP) {
+      int value = values[index];
+      values[index] = values[size];
+      values[size] = value;
+      return value;
+    }
+    int position = 0;
+    int remaining = index + 1;
+    for (int step = Integer.highestOneBit(capacity); step > 0; step >>= 1) {
+      int next = position + step;
+      if (next <= capacity && tree[next] < remaining) {
+        position = next;
+        remaining -= tree[next];
+      }
+    }
+    for (int i = position + 1; i <= capacity; i += i & -i) {
+      tree[i]--;
+    }
+    return values[position];
+  }
+}
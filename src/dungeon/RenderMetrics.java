@@ -0,0 +1,80 @@
+package dungeon;
+
+/**
+ * Holds how much text a {@link DungeonConsoleController} has rendered and how many writes to
+ * its appendable it took, over all the turns it has played. The metrics are updated by the
+ * thread playing the game and may be read from any thread.
+ */
+public final class RenderMetrics {
+  private volatile long turns;
+  private volatile long charactersWritten;
+  private volatile long writes;
+
+  //package-private
+  RenderMetrics() {
+  }
+
+  /**
+   * Returns the number of turns played, a turn being everything that happens in one location
+   * of the player.
+   *
+   * @return the number of turns.
+   */
+  public long getTurns() {
+    return turns;
+  }
+
+  /**
+   * Returns the number of characters written to the appendable.
+   *
+   * @return the number of characters written.
+   */
+  public long getCharactersWritten() {
+    return charactersWritten;
+  }
+
+  /**
+   * Returns the number of calls made to the appendable.
+   *
+   * @return the number of writes.
+   */
+  public long getWrites() {
+    return writes;
+  }
+
+  /**
+   * Returns the average number of characters written in a turn.
+   *
+   * @return the characters per turn, 0 if no turn was played.
+   */
+  public double getCharactersPerTurn() {
+    long count = turns;
+    return count == 0 ? 0 : (double) charactersWritten / count;
+  }
+
+  /**
+   * Returns the average number of calls made to the appendable in a turn.
+   *
+   * @return the writes per turn, 0 if no turn was played.
+   */
+  public double getWritesPerTurn() {
+    long count = turns;
+    return count == 0 ? 0 : (double) writes / count;
+  }
+
+  //Only the thread playing the game updates the metrics, so the increments need no atomics.
+  void addTurn() {
+    turns++;
+  }
+
+  void addWrite(int characters) {
+    charactersWritten += characters;
+    writes++;
+  }
+
+  @Override
+  public String toString() {
+    return turns + " turns, wrote " + charactersWritten + " characters in " + writes
+            + " writes";
+  }
+}
@@ -0,0 +1,22 @@
+package dungeon;
+
+/**
+ * Represents how a random index drawn from the randomizer picks an element out of the
+ * remaining candidates, such as the edges of the maze or the cells to fill.
+ * Both modes draw one value per picked element, so a randomizer sequence is reproducible under
+ * either mode but gives different dungeons.
+ */
+public enum SamplingMode {
+  /**
+   * Index i picks the i-th remaining candidate in its original order. This is the original
+   * behaviour and keeps existing randomizer sequences reproducible; each pick costs
+   * O(log n).
+   */
+  ORDERED,
+  /**
+   * Index i picks the candidate at position i and moves the last candidate into its place,
+   * a Fisher-Yates shuffle where each pick costs O(1). Monsters are drawn from the caves other
+   * than the start and end, so every draw places a monster.
+   */
+  SWAP
+}
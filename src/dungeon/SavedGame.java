@@ -0,0 +1,458 @@
+package dungeon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import randomizer.Randomizer;
+
+/**
+ * A game that is saved as it is played, so it can be restored after the process restarts.
+ * The save is made of two files. The dungeon as generated is written once to the given path in
+ * the {@link DungeonFile} format. The game is kept in a journal next to it, named after the
+ * path with ".journal" appended, that starts with a snapshot of the game and is followed by a
+ * record of every action applied since, a few bytes each. Once the journal holds the given
+ * number of actions it is compacted, replaced by a new snapshot of the current game.
+ * Actions that fail are not recorded. Records are written to the file as each action
+ * completes and survive the process, a record cut short by a crash is dropped on restore.
+ */
+public final class SavedGame implements Dungeon, Closeable {
+  /**
+   * The number of actions after which the journal is compacted by default.
+   */
+  public static final int DEFAULT_COMPACTION_INTERVAL = 256;
+
+  private static final int MAGIC = 0x444a4e4c;
+  private static final short VERSION = 1;
+  private static final String JOURNAL_SUFFIX = ".journal";
+  private static final byte MOVE = 1;
+  private static final byte SHOOT = 2;
+  private static final byte PICK_TREASURE = 3;
+  private static final byte PICK_ARROWS = 4;
+  private static final int VISITED_END_FLAG = 1;
+  private static final int GAME_OVER_FLAG = 2;
+  private static final int DEAD_FLAG = 4;
+  private static final Move[] MOVES = Move.values();
+  private static final Treasure[] TREASURES = Treasure.values();
+
+  private final DungeonModel dungeon;
+  private final Path journal;
+  private final int compactionInterval;
+  private final ByteBuffer record;
+  private FileChannel channel;
+  private int journalEntries;
+
+  private SavedGame(DungeonModel dungeon, Path journal, int compactionInterval,
+                    FileChannel channel, int journalEntries) {
+    this.dungeon = dungeon;
+    this.journal = journal;
+    this.compactionInterval = compactionInterval;
+    this.record = ByteBuffer.allocate(3);
+    this.channel = channel;
+    this.journalEntries = journalEntries;
+  }
+
+  /**
+   * Saves the given game, replacing any save at the given path, and keeps saving it as it is
+   * played through the returned game.
+   *
+   * @param dungeon the game to save.
+   * @param path    the file the dungeon is written to.
+   * @return the saved game.
+   * @throws IllegalArgumentException if dungeon or path is null or the dungeon was not built by
+   *                                  this package.
+   * @throws IOException              if the save cannot be written.
+   */
+  public static SavedGame create(Dungeon dungeon, Path path)
+          throws IllegalArgumentException, IOException {
+    return create(dungeon, path, DEFAULT_COMPACTION_INTERVAL);
+  }
+
+  /**
+   * Saves the given game, replacing any save at the given path, and keeps saving it as it is
+   * played through the returned game.
+   *
+   * @param dungeon            the game to save.
+   * @param path               the file the dungeon is written to.
+   * @param compactionInterval the number of actions after which the journal is compacted.
+   * @return the saved game.
+   * @throws IllegalArgumentException if dungeon or path is null, the dungeon was not built by
+   *                                  this package or compactionInterval is not positive.
+   * @throws IOException              if the save cannot be written.
+   */
+  public static SavedGame create(Dungeon dungeon, Path path, int compactionInterval)
+          throws IllegalArgumentException, IOException {
+    if (!(dungeon instanceof DungeonModel) || path == null) {
+      throw new IllegalArgumentException("Please provide a valid dungeon and path");
+    }
+    checkCompactionInterval(compactionInterval);
+    DungeonFile.write(dungeon, path);
+    SavedGame game = new SavedGame((DungeonModel) dungeon, getJournal(path),
+            compactionInterval, null, 0);
+    game.compact();
+    return game;
+  }
+
+  /**
+   * Restores the game saved at the given path and keeps saving it as it is played.
+   *
+   * @param path       the file the dungeon was written to.
+   * @param randomizer the randomizer used while playing.
+   * @return the restored game.
+   * @throws IllegalArgumentException if path or randomizer is null.
+   * @throws IOException              if the save cannot be read or is not valid.
+   */
+  public static SavedGame restore(Path path, Randomizer randomizer)
+          throws IllegalArgumentException, IOException {
+    return restore(path, randomizer, DEFAULT_COMPACTION_INTERVAL);
+  }
+
+  /**
+   * Restores the game saved at the given path and keeps saving it as it is played.
+   *
+   * @param path               the file the dungeon was written to.
+   * @param randomizer         the randomizer used while playing.
+   * @param compactionInterval the number of actions after which the journal is compacted.
+   * @return the restored game.
+   * @throws IllegalArgumentException if path or randomizer is null or compactionInterval is
+   *                                  not positive.
+   * @throws IOException              if the save cannot be read or is not valid.
+   */
+  public static SavedGame restore(Path path, Randomizer randomizer, int compactionInterval)
+          throws IllegalArgumentException, IOException {
+    if (path == null || randomizer == null) {
+      throw new IllegalArgumentException("Please provide a valid path and randomizer");
+    }
+    checkCompactionInterval(compactionInterval);
+    DungeonModel dungeon = (DungeonModel) DungeonFile.load(path, randomizer);
+    Path journal = getJournal(path);
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journal));
+    int entries = 0;
+    try {
+      readSnapshot(dungeon, buffer);
+      int end = buffer.position();
+      while (buffer.hasRemaining()) {
+        if (!replay(dungeon, buffer)) {
+          break;
+        }
+        end = buffer.position();
+        entries++;
+      }
+      buffer.position(end);
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Journal snapshot is truncated: " + journal, e);
+    } catch (IndexOutOfBoundsException e) {
+      throw new IOException("Invalid journal: " + journal, e);
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      throw new IOException("Invalid journal: " + journal + ": " + e.getMessage(), e);
+    }
+    FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE);
+    try {
+      channel.truncate(buffer.position());
+      channel.position(buffer.position());
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return new SavedGame(dungeon, journal, compactionInterval, channel, entries);
+  }
+
+  /**
+   * Replaces the journal with a snapshot of the current game. This happens by itself every
+   * time the journal reaches the compaction interval.
+   *
+   * @throws IOException if the journal cannot be written.
+   */
+  public void compact() throws IOException {
+    Path temporary = journal.resolveSibling(journal.getFileName() + ".tmp");
+    try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      ByteBuffer snapshot = ByteBuffer.wrap(writeSnapshot(dungeon));
+      while (snapshot.hasRemaining()) {
+        out.write(snapshot);
+      }
+      out.force(true);
+    }
+    Files.move(temporary, journal, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    if (channel != null) {
+      channel.close();
+    }
+    channel = FileChannel.open(journal, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    journalEntries = 0;
+  }
+
+  /**
+   * Returns the number of actions recorded in the journal since the last snapshot.
+   */
+  public int getJournalEntries() {
+    return journalEntries;
+  }
+
+  /**
+   * Returns the size of the journal in bytes.
+   *
+   * @throws IOException if the size cannot be read.
+   */
+  public long getJournalSize() throws IOException {
+    return channel.size();
+  }
+
+  /**
+   * Writes any buffered records to the storage device and closes the journal.
+   *
+   * @throws IOException if the journal cannot be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.force(true);
+      channel.close();
+      channel = null;
+    }
+  }
+
+  @Override
+  public List<List<Location>> getMaze() {
+    return dungeon.getMaze();
+  }
+
+  @Override
+  public Location getStartLocation() {
+    return dungeon.getStartLocation();
+  }
+
+  @Override
+  public Location getEndLocation() {
+    return dungeon.getEndLocation();
+  }
+
+  @Override
+  public Location getPlayerCurrentLocation() {
+    return dungeon.getPlayerCurrentLocation();
+  }
+
+  @Override
+  public Set<Move> getAvailableDirections() {
+    return dungeon.getAvailableDirections();
+  }
+
+  @Override
+  public boolean playerVisitedEnd() {
+    return dungeon.playerVisitedEnd();
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return dungeon.isGameOver();
+  }
+
+  /**
+   * Moves the player and records the move with its outcome.
+   *
+   * @throws UncheckedIOException  if the move cannot be recorded.
+   * @throws IllegalStateException if the saved game is closed, the game is then unchanged.
+   */
+  @Override
+  public void movePlayer(Move move) throws IllegalArgumentException, IllegalStateException {
+    checkOpen();
+    dungeon.movePlayer(move);
+    append(MOVE, move.ordinal(), dungeon.isPlayerDead() ? 1 : 0);
+  }
+
+  /**
+   * Picks the treasure and records it.
+   *
+   * @throws UncheckedIOException  if the action cannot be recorded.
+   * @throws IllegalStateException if the saved game is closed, the game is then unchanged.
+   */
+  @Override
+  public void playerPickTreasure() throws IllegalStateException {
+    checkOpen();
+    dungeon.playerPickTreasure();
+    append(PICK_TREASURE, 0, 0);
+  }
+
+  @Override
+  public Player getPlayerDescription() {
+    return dungeon.getPlayerDescription();
+  }
+
+  @Override
+  public SmellLevel getSmell(Location location) throws IllegalStateException {
+    return dungeon.getSmell(location);
+  }
+
+  /**
+   * Shoots the arrow and records it.
+   *
+   * @throws UncheckedIOException  if the shot cannot be recorded.
+   * @throws IllegalStateException if the saved game is closed, the game is then unchanged.
+   */
+  @Override
+  public ArrowHitOutcome shootArrow(Move direction, int arrowDistance)
+          throws IllegalArgumentException, IllegalStateException {
+    checkOpen();
+    ArrowHitOutcome outcome = dungeon.shootArrow(direction, arrowDistance);
+    append(SHOOT, direction.ordinal(), arrowDistance);
+    return outcome;
+  }
+
+  /**
+   * Picks the arrows and records it.
+   *
+   * @throws UncheckedIOException  if the action cannot be recorded.
+   * @throws IllegalStateException if the saved game is closed, the game is then unchanged.
+   */
+  @Override
+  public void playerPickArrows() throws IllegalStateException {
+    checkOpen();
+    dungeon.playerPickArrows();
+    append(PICK_ARROWS, 0, 0);
+  }
+
+  @Override
+  public boolean isPlayerDead() {
+    return dungeon.isPlayerDead();
+  }
+
+  //Checked before an action is played, so a closed saved game never changes its game.
+  private void checkOpen() throws IllegalStateException {
+    if (channel == null) {
+      throw new IllegalStateException("Saved game is closed");
+    }
+  }
+
+  private void append(byte action, int first, int second) throws UncheckedIOException {
+    record.clear();
+    record.put(action);
+    if (action == MOVE || action == SHOOT) {
+      record.put((byte) first);
+      record.put((byte) second);
+    }
+    record.flip();
+    try {
+      while (record.hasRemaining()) {
+        channel.write(record);
+      }
+      journalEntries++;
+      if (journalEntries >= compactionInterval) {
+        compact();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot save the game to " + journal, e);
+    }
+  }
+
+  private static boolean replay(DungeonModel dungeon, ByteBuffer buffer)
+          throws IllegalArgumentException, IllegalStateException {
+    byte action = buffer.get();
+    if (action == PICK_TREASURE) {
+      dungeon.playerPickTreasure();
+      return true;
+    }
+    if (action == PICK_ARROWS) {
+      dungeon.playerPickArrows();
+      return true;
+    }
+    if (action != MOVE && action != SHOOT) {
+      throw new IllegalArgumentException("Unknown action: " + action);
+    }
+    if (buffer.remaining() < 2) {
+      return false;
+    }
+    Move move = MOVES[buffer.get()];
+    int argument = buffer.get();
+    if (action == MOVE) {
+      dungeon.movePlayer(move, (minBound, maxBound) -> argument == 1 ? maxBound : minBound);
+    } else {
+      dungeon.shootArrow(move, argument);
+    }
+    return true;
+  }
+
+  private static byte[] writeSnapshot(DungeonModel dungeon) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeShort(VERSION);
+    out.writeInt(dungeon.getCurrentCell());
+    out.writeByte((dungeon.playerVisitedEnd() ? VISITED_END_FLAG : 0)
+            | (dungeon.isGameOver() ? GAME_OVER_FLAG : 0)
+            | (dungeon.isPlayerDead() ? DEAD_FLAG : 0));
+    Player player = dungeon.getPlayerDescription();
+    out.writeInt(player.getArrows());
+    Map<Treasure, Integer> treasure = player.getTreasure();
+    for (Treasure type : TREASURES) {
+      out.writeInt(treasure.getOrDefault(type, 0));
+    }
+    MazeState state = dungeon.getState();
+    Set<Integer> cells = new TreeSet<>(state.getChangedCellSet());
+    out.writeInt(cells.size());
+    for (int cell : cells) {
+      Monster monster = state.getMonster(cell);
+      out.writeInt(cell);
+      out.writeInt(state.getTreasureBits(cell));
+      out.writeByte(state.getArrows(cell));
+      out.writeByte(monster == null ? -1 : monster.getHealth());
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static void readSnapshot(DungeonModel dungeon, ByteBuffer buffer)
+          throws IOException {
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a game journal");
+    }
+    short version = buffer.getShort();
+    if (version != VERSION) {
+      throw new IOException("Unsupported game journal version: " + version);
+    }
+    int currentCell = buffer.getInt();
+    int flags = buffer.get();
+    PlayerPrivate player = dungeon.getPlayer();
+    player.setArrows(buffer.getInt());
+    for (Treasure type : TREASURES) {
+      int quantity = buffer.getInt();
+      if (quantity > 0) {
+        player.addToTreasure(type, quantity);
+      }
+    }
+    MazeState state = dungeon.getState();
+    int count = buffer.getInt();
+    for (int i = 0; i < count; i++) {
+      int cell = buffer.getInt();
+      if (cell < 0 || cell >= state.getSize()) {
+        throw new IOException("Cell outside the dungeon: " + cell);
+      }
+      state.restoreCell(cell, buffer.getInt(), buffer.get(), buffer.get());
+    }
+    dungeon.restoreGame(currentCell, (flags & VISITED_END_FLAG) != 0,
+            (flags & GAME_OVER_FLAG) != 0, (flags & DEAD_FLAG) != 0);
+  }
+
+  private static Path getJournal(Path path) {
+    return path.resolveSibling(path.getFileName() + JOURNAL_SUFFIX);
+  }
+
+  private static void checkCompactionInterval(int compactionInterval)
+          throws IllegalArgumentException {
+    if (compactionInterval <= 0) {
+      throw new IllegalArgumentException("Compaction interval must be positive");
+    }
+  }
+}
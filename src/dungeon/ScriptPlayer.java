@@ -0,0 +1,150 @@
+package dungeon;
+
+import java.nio.CharBuffer;
+
+/**
+ * Plays a game from a script, as input and output of a {@link DungeonConsoleController}. The
+ * script is fed to the game a line per read, as a player typing at a console would.
+ * A script is either a list of commands or a transcript captured from a console, which holds
+ * the output of the game with the lines typed by the player after its prompts. A transcript is
+ * fed the lines that follow the output of the game, and the game diverges from it as soon as
+ * it prints something else. What a transcript holds after the game has ended, such as the exit
+ * message of an IDE, is ignored.
+ * The output is not kept, only hashed with 64-bit FNV-1a, so a script of any length plays in
+ * constant memory.
+ */
+//package-private
+final class ScriptPlayer implements Readable, Appendable {
+  private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final int EXCERPT_LENGTH = 40;
+
+  private final String script;
+  private final boolean transcript;
+  private final StringBuilder pending;
+  private int position;
+  private int line;
+  private long hash;
+  private String divergence;
+
+  ScriptPlayer(String script, boolean transcript) {
+    this.script = script;
+    this.transcript = transcript;
+    this.pending = new StringBuilder();
+    this.line = 1;
+    this.hash = FNV_OFFSET;
+  }
+
+  /**
+   * Returns whether the given script is a transcript captured from a console.
+   */
+  static boolean isTranscript(String script) {
+    return script.startsWith("Welcome to the dungeons");
+  }
+
+  @Override
+  public int read(CharBuffer buffer) {
+    if (!matchPending()) {
+      return -1;
+    }
+    if (position == script.length()) {
+      if (transcript) {
+        diverge("the transcript ends while the game waits for input");
+      }
+      return -1;
+    }
+    int end = script.indexOf('\n', position);
+    end = end < 0 ? script.length() : end + 1;
+    end = Math.min(end, position + buffer.remaining());
+    buffer.put(script, position, end);
+    int read = end - position;
+    if (script.charAt(end - 1) == '\n') {
+      line++;
+    }
+    position = end;
+    return read;
+  }
+
+  @Override
+  public Appendable append(CharSequence sequence) {
+    return append(sequence == null ? "null" : sequence, 0,
+            sequence == null ? 4 : sequence.length());
+  }
+
+  @Override
+  public Appendable append(CharSequence sequence, int start, int end) {
+    CharSequence text = sequence == null ? "null" : sequence;
+    for (int i = start; i < end; i++) {
+      append(text.charAt(i));
+    }
+    return this;
+  }
+
+  @Override
+  public Appendable append(char c) {
+    hash = (hash ^ c) * FNV_PRIME;
+    if (transcript) {
+      pending.append(c);
+    }
+    return this;
+  }
+
+  /**
+   * Checks the output printed after the last read, once the game has ended.
+   */
+  void finish() {
+    matchPending();
+  }
+
+  /**
+   * Returns the hash of everything the game printed.
+   */
+  long getHash() {
+    return hash;
+  }
+
+  /**
+   * Returns where the game diverged from the transcript, or null if it did not.
+   */
+  String getDivergence() {
+    return divergence;
+  }
+
+  //Checks the output printed since the last read against the transcript and moves past it.
+  private boolean matchPending() {
+    if (divergence != null) {
+      return false;
+    }
+    if (!transcript) {
+      return true;
+    }
+    for (int i = 0; i < pending.length(); i++) {
+      if (position == script.length() || script.charAt(position) != pending.charAt(i)) {
+        int lineStart = script.lastIndexOf('\n', position - 1) + 1;
+        int pendingStart = Math.max(0, i - (position - lineStart));
+        diverge("line " + line + " of the transcript is \""
+                + excerpt(script, lineStart) + "\" but the game printed \""
+                + excerpt(pending, pendingStart) + "\"");
+        return false;
+      }
+      if (script.charAt(position) == '\n') {
+        line++;
+      }
+      position++;
+    }
+    pending.setLength(0);
+    return true;
+  }
+
+  private void diverge(String message) {
+    divergence = message;
+  }
+
+  private static String excerpt(CharSequence text, int start) {
+    int end = start;
+    while (end < text.length() && end - start < EXCERPT_LENGTH && text.charAt(end) != '\n') {
+      end++;
+    }
+    return text.subSequence(start, end).toString();
+  }
+}
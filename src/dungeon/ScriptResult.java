@@ -0,0 +1,84 @@
+package dungeon;
+
+/**
+ * Holds the outcome of playing one script of a {@link BatchRunner}, over all its repetitions.
+ */
+public final class ScriptResult {
+  private final String name;
+  private final int games;
+  private final long turns;
+  private final long outputHash;
+  private final String divergence;
+
+  //package-private
+  ScriptResult(String name, int games, long turns, long outputHash, String divergence) {
+    this.name = name;
+    this.games = games;
+    this.turns = turns;
+    this.outputHash = outputHash;
+    this.divergence = divergence;
+  }
+
+  /**
+   * Returns the name the script was added with.
+   *
+   * @return the name of the script.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the number of games played from the script.
+   *
+   * @return the number of games.
+   */
+  public int getGames() {
+    return games;
+  }
+
+  /**
+   * Returns the number of turns played in all the games of the script.
+   *
+   * @return the number of turns.
+   */
+  public long getTurns() {
+    return turns;
+  }
+
+  /**
+   * Returns the 64-bit FNV-1a hash of the output of the first game of the script. Two scripts
+   * with the same hash almost certainly printed the same output.
+   *
+   * @return the hash of the output.
+   */
+  public long getOutputHash() {
+    return outputHash;
+  }
+
+  /**
+   * Returns whether a game of the script diverged from its transcript, or printed other output
+   * than the first game of the script.
+   *
+   * @return true if the script diverged.
+   */
+  public boolean hasDiverged() {
+    return divergence != null;
+  }
+
+  /**
+   * Returns where the script first diverged.
+   *
+   * @return the description of the divergence, or null if the script did not diverge.
+   */
+  public String getDivergence() {
+    return divergence;
+  }
+
+  @Override
+  public String toString() {
+    return name + ": " + games + " games, " + turns + " turns, output "
+            + String.format("%016x", outputHash)
+            + (divergence == null ? "" : ", DIVERGED: " + divergence);
+  }
+}
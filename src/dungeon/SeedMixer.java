@@ -0,0 +1,18 @@
+package dungeon;
+
+//package-private
+//Derives independent seeds for parts of the dungeon, such as a tile or a cell, from the
+//dungeon seed with the SplitMix64 finalizer.
+final class SeedMixer {
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private SeedMixer() {
+  }
+
+  static long mix(long seed, long index) {
+    long z = seed + (index + 1) * GOLDEN_GAMMA;
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,80 @@
+package dungeon;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Represents the kind of thread a game session is played on.
+ * A session spends most of its time blocked waiting for its player, so on a Java runtime with
+ * virtual threads (Java 21 or later) sessions are best played on virtual threads, which do not
+ * hold an operating system thread while blocked. The play loop and the model use no
+ * synchronized blocks. The session I/O of {@link DungeonServer} is built on InputStreamReader
+ * and OutputStreamWriter, which lock with java.util.concurrent locks rather than monitors from
+ * Java 21, so there a blocked session does not pin its carrier thread. On Java 19 and 20, where
+ * virtual threads are a preview, those readers and writers synchronize internally and a session
+ * blocked reading its socket would pin its carrier.
+ * Virtual threads are created through reflection so the game still runs on older runtimes,
+ * where {@link #VIRTUAL_THREADS} falls back to platform threads.
+ */
+public enum SessionExecution {
+  /**
+   * Every session is played on its own daemon platform thread.
+   */
+  PLATFORM_THREADS,
+  /**
+   * Every session is played on its own virtual thread, or on a daemon platform thread if the
+   * runtime has no virtual threads.
+   */
+  VIRTUAL_THREADS;
+
+  private static final ThreadFactory VIRTUAL_FACTORY = createVirtualFactory();
+
+  /**
+   * Returns whether sessions really run on this kind of thread on the current runtime.
+   *
+   * @return false for virtual threads on a runtime without them, true otherwise.
+   */
+  public boolean isSupported() {
+    return this == PLATFORM_THREADS || VIRTUAL_FACTORY != null;
+  }
+
+  /**
+   * Returns a factory of threads of this kind. Threads are named with the given prefix followed
+   * by a number.
+   *
+   * @param namePrefix the prefix of the names of the threads.
+   * @return the thread factory.
+   * @throws IllegalArgumentException if namePrefix is null.
+   */
+  public ThreadFactory newThreadFactory(String namePrefix) throws IllegalArgumentException {
+    if (namePrefix == null) {
+      throw new IllegalArgumentException("Name prefix cannot be null");
+    }
+    AtomicInteger count = new AtomicInteger();
+    if (this == VIRTUAL_THREADS && VIRTUAL_FACTORY != null) {
+      return runnable -> {
+        Thread thread = VIRTUAL_FACTORY.newThread(runnable);
+        thread.setName(namePrefix + count.incrementAndGet());
+        return thread;
+      };
+    }
+    return runnable -> {
+      Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  //Calls Thread.ofVirtual().factory() if the runtime has it. The methods are looked up on the
+  //public Thread.Builder interface, the builder itself is of a class that is not accessible.
+  private static ThreadFactory createVirtualFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+      return (ThreadFactory) factory.invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package dungeon;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds what one session of a {@link DungeonServer} has done so far: how long it has run, how
+ * much it read from and wrote to its player and how it ended. The metrics of an active session
+ * change as it is played and may be read from any thread.
+ */
+public final class SessionMetrics {
+  private final long id;
+  private final long startNanos;
+  private final AtomicLong charactersRead;
+  private final AtomicLong charactersWritten;
+  private final AtomicLong writes;
+  private volatile long endNanos;
+  private volatile SessionStatus status;
+
+  //package-private
+  SessionMetrics(long id) {
+    this.id = id;
+    this.startNanos = System.nanoTime();
+    this.charactersRead = new AtomicLong();
+    this.charactersWritten = new AtomicLong();
+    this.writes = new AtomicLong();
+    this.status = SessionStatus.ACTIVE;
+  }
+
+  /**
+   * Returns the number of the session, in the order sessions were accepted.
+   *
+   * @return the id of the session.
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Returns how long the session has run, or ran if it has ended.
+   *
+   * @return the duration in milliseconds.
+   */
+  public long getDurationMillis() {
+    long end = status == SessionStatus.ACTIVE ? System.nanoTime() : endNanos;
+    return (end - startNanos) / 1000000;
+  }
+
+  /**
+   * Returns the number of characters read from the player.
+   *
+   * @return the number of characters read.
+   */
+  public long getCharactersRead() {
+    return charactersRead.get();
+  }
+
+  /**
+   * Returns the number of characters written to the player.
+   *
+   * @return the number of characters written.
+   */
+  public long getCharactersWritten() {
+    return charactersWritten.get();
+  }
+
+  /**
+   * Returns the number of times output was sent to the player.
+   *
+   * @return the number of writes to the connection.
+   */
+  public long getWrites() {
+    return writes.get();
+  }
+
+  /**
+   * Returns the state of the session.
+   *
+   * @return the {@link SessionStatus} of the session.
+   */
+  public SessionStatus getStatus() {
+    return status;
+  }
+
+  void addRead(int characters) {
+    charactersRead.addAndGet(characters);
+  }
+
+  void addWrite(int characters) {
+    charactersWritten.addAndGet(characters);
+    writes.incrementAndGet();
+  }
+
+  void end(SessionStatus status) {
+    this.endNanos = System.nanoTime();
+    this.status = status;
+  }
+
+  @Override
+  public String toString() {
+    return "Session " + id + " " + status + " in " + getDurationMillis() + "ms, read "
+            + getCharactersRead() + " characters, wrote " + getCharactersWritten()
+            + " characters in " + getWrites() + " writes";
+  }
+}
@@ -0,0 +1,32 @@
+package dungeon;
+
+/**
+ * Represents the state of a game session of a {@link DungeonServer}.
+ */
+public enum SessionStatus {
+  /**
+   * The session is being played.
+   */
+  ACTIVE,
+  /**
+   * The game ended or the player quit.
+   */
+  COMPLETED,
+  /**
+   * The player sent nothing for longer than the idle timeout.
+   */
+  TIMED_OUT,
+  /**
+   * The player closed the connection before the game ended.
+   */
+  DISCONNECTED,
+  /**
+   * The session was refused because the server had reached its connection limit.
+   */
+  REJECTED,
+  /**
+   * The session ended because of an error of the server, such as a dungeon that could not be
+   * built.
+   */
+  FAILED
+}
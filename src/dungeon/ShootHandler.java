@@ -0,0 +1,80 @@
+package dungeon;
+
+import java.io.IOException;
+
+/**
+ * Shoots an arrow in the direction and over the distance the player chooses, and tells what
+ * it hit. Shooting where the location has no exit ends the turn, and a shot that ends the
+ * game ends it.
+ */
+//package-private
+final class ShootHandler implements CommandHandler {
+
+  @Override
+  public boolean isAvailable(Dungeon model, Location location) {
+    return model.getPlayerDescription().hasArrows();
+  }
+
+  @Override
+  public Result execute(CommandContext context) throws IOException {
+    Dungeon model = context.getModel();
+    CommandTokenizer tokens = context.getTokens();
+    TurnOutput output = context.getOutput();
+    Move direction = context.readDirection("\nWhere do you want to shoot?\n");
+    Integer arrowDistance = null;
+    ArrowHitOutcome arrowHit = ArrowHitOutcome.MISS;
+    while (arrowDistance == null) {
+      try {
+        output.append("\nHow far do you want to shoot? (1-5)\n");
+        tokens.next();
+        arrowDistance = tokens.parseInt();
+        arrowHit = model.shootArrow(direction, arrowDistance);
+      } catch (NumberFormatException ime) {
+        output.append("\nPlease enter a valid distance as an integer\n");
+        context.failed();
+      } catch (IllegalArgumentException iae) {
+        output.append("\n").append(iae.getMessage());
+        context.failed();
+        if (iae.getMessage().startsWith("Provided direction is not a valid")) {
+          return Result.NEXT_TURN;
+        }
+        arrowDistance = null;
+      } catch (IllegalStateException ise) {
+        output.append(ise.getMessage());
+        if (model.isGameOver()) {
+          return Result.END_GAME;
+        }
+        context.failed();
+      }
+    }
+    switch (arrowHit) {
+      case INJURED: {
+        output.append("\nYou hear a painful roar in the distance. "
+                + "It seems your arrow hit an Otyugh");
+        break;
+      }
+      case KILLED: {
+        output.append("\nYou hear a painful roar and wild thrashing in the "
+                + "darkness and then silence. "
+                + "It seems you've killed an Otyugh");
+        break;
+      }
+      default: {
+        output.append("\nYour arrow goes whistling through the dungeon "
+                + "and there's a clunk "
+                + "as it falls to the ground after hitting a cave wall");
+      }
+    }
+    int remainingArrows = model.getPlayerDescription().getArrows();
+    if (remainingArrows == 0) {
+      output.append("\nYou have no arrows remaining");
+    } else if (remainingArrows == 1) {
+      output.append("\nYou have ").append(String.valueOf(remainingArrows))
+              .append(" arrow left");
+    } else {
+      output.append("\nYou have ").append(String.valueOf(remainingArrows))
+              .append(" arrows left");
+    }
+    return Result.NEXT_COMMAND;
+  }
+}
@@ -0,0 +1,131 @@
+package dungeon;
+
+import java.util.HashMap;
+import java.util.Map;
+
+//package-private
+//Smell level of every cell of a game, kept up to date as its monsters die.
+//A cell smells strongly when a live monster is one move away or when there are at least two
+//walks of two moves that end at a live monster, and faintly when there is exactly one such
+//walk. Walks may return to the cell itself, so a cell holding a monster smells of it too.
+final class SmellField {
+  private final MazeState maze;
+  private final byte[] smell;
+  private Map<Integer, Byte> changedSmell;
+
+  /**
+   * Computes the smell of every cell from the monsters currently in the maze.
+   * Only the two move neighbourhood of each monster is visited.
+   */
+  SmellField(MazeState maze) throws IllegalArgumentException {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null");
+    }
+    this.maze = maze;
+    this.smell = new byte[maze.getSize()];
+    byte[] walks = new byte[maze.getSize()];
+    Move[] moves = Move.values();
+    for (int monsterCell : maze.getMonsterCells()) {
+      if (!maze.hasLiveMonster(monsterCell)) {
+        continue;
+      }
+      for (Move move : moves) {
+        if (maze.hasExit(monsterCell, move)) {
+          int neighbour = maze.getNeighbour(monsterCell, move);
+          smell[neighbour] = 2;
+          for (Move nextMove : moves) {
+            if (maze.hasExit(neighbour, nextMove)) {
+              int cell = maze.getNeighbour(neighbour, nextMove);
+              if (walks[cell] < 2) {
+                walks[cell]++;
+              }
+            }
+          }
+        }
+      }
+    }
+    for (int cell = 0; cell < smell.length; cell++) {
+      if (smell[cell] != 2) {
+        smell[cell] = walks[cell];
+      }
+    }
+  }
+
+  private SmellField(SmellField initial, MazeState maze) {
+    this.maze = maze;
+    this.smell = initial.smell;
+  }
+
+  /**
+   * Returns a field for another game on the same grid that starts from the smell this field
+   * was computed with. The computed smell is shared, each field only keeps the cells it
+   * updated.
+   */
+  SmellField newGame(MazeState maze) throws IllegalArgumentException {
+    if (maze == null || maze.getGrid() != this.maze.getGrid()) {
+      throw new IllegalArgumentException("Maze must be a game on the grid of this field");
+    }
+    return new SmellField(this, maze);
+  }
+
+  /**
+   * Returns the smell level of the given cell as 0, 1 or 2.
+   */
+  int getSmell(int cell) {
+    if (changedSmell != null) {
+      Byte changed = changedSmell.get(cell);
+      if (changed != null) {
+        return changed;
+      }
+    }
+    return smell[cell];
+  }
+
+  /**
+   * Recomputes the smell of every cell within two moves of the given cell. Called after the
+   * monster at that cell has died.
+   */
+  void update(int cell) {
+    setSmell(cell, computeSmell(cell));
+    Move[] moves = Move.values();
+    for (Move move : moves) {
+      if (maze.hasExit(cell, move)) {
+        int neighbour = maze.getNeighbour(cell, move);
+        setSmell(neighbour, computeSmell(neighbour));
+        for (Move nextMove : moves) {
+          if (maze.hasExit(neighbour, nextMove)) {
+            int next = maze.getNeighbour(neighbour, nextMove);
+            setSmell(next, computeSmell(next));
+          }
+        }
+      }
+    }
+  }
+
+  private void setSmell(int cell, int level) {
+    if (changedSmell == null) {
+      changedSmell = new HashMap<>();
+    }
+    changedSmell.put(cell, (byte) level);
+  }
+
+  private int computeSmell(int cell) {
+    int walks = 0;
+    Move[] moves = Move.values();
+    for (Move move : moves) {
+      if (maze.hasExit(cell, move)) {
+        int neighbour = maze.getNeighbour(cell, move);
+        if (maze.hasLiveMonster(neighbour)) {
+          return 2;
+        }
+        for (Move nextMove : moves) {
+          if (maze.hasExit(neighbour, nextMove)
+                  && maze.hasLiveMonster(maze.getNeighbour(neighbour, nextMove))) {
+            walks++;
+          }
+        }
+      }
+    }
+    return Math.min(walks, 2);
+  }
+}
@@ -0,0 +1,165 @@
+package dungeon;
+
+import randomizer.Randomizer;
+
+//package-private
+//Chooses a start and end cave pair at least a minimum distance apart.
+//A double BFS sweep first bounds the largest cave to cave distance: the sweep from any cave
+//gives an upper bound of twice its eccentricity, the sweep from the farthest cave found gives a
+//lower bound. If the upper bound is below the minimum no pair exists and selection fails
+//immediately. Small mazes then count the valid ends of every cave in one sweep each and sample
+//uniformly from all valid ordered pairs. Large mazes never sweep from every cave: they use
+//rejection sampling with a bounded number of attempts, which is uniform when it succeeds. If
+//every attempt is rejected the two caves of the lower bound sweep are returned when they are
+//far enough apart, a fixed pair rather than a uniform sample, and selection fails otherwise.
+//Either way a large maze costs at most MAX_ATTEMPTS + 2 sweeps.
+final class StartEndSelector {
+  private static final int EXACT_CAVE_LIMIT = 1024;
+  private static final int MAX_ATTEMPTS = 64;
+
+  private final MazeGrid maze;
+  private final MazeBfs bfs;
+  private final int minimumDistance;
+  private final int[] caves;
+  private int cellsVisited;
+
+  StartEndSelector(MazeGrid maze, int minimumDistance) throws IllegalArgumentException {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null");
+    }
+    if (minimumDistance < 1) {
+      throw new IllegalArgumentException("Minimum distance cannot be less than 1");
+    }
+    this.maze = maze;
+    this.bfs = new MazeBfs(maze);
+    this.minimumDistance = minimumDistance;
+    int numberOfCaves = 0;
+    for (int cell = 0; cell < maze.getSize(); cell++) {
+      if (maze.isCave(cell)) {
+        numberOfCaves++;
+      }
+    }
+    this.caves = new int[numberOfCaves];
+    int index = 0;
+    for (int cell = 0; cell < maze.getSize(); cell++) {
+      if (maze.isCave(cell)) {
+        caves[index++] = cell;
+      }
+    }
+    this.cellsVisited = 0;
+  }
+
+  /**
+   * Selects a start and end cave.
+   *
+   * @param randomizer the randomizer used to sample the pair.
+   * @return the start cell and the end cell.
+   * @throws IllegalArgumentException if no two caves are at least the minimum distance apart, or
+   *                                  if a maze too large to count every pair has such caves but
+   *                                  the bounded number of sweeps found none.
+   */
+  int[] select(Randomizer randomizer) throws IllegalArgumentException {
+    if (randomizer == null) {
+      throw new IllegalArgumentException("Please provide valid randomizer");
+    }
+    if (caves.length < 2) {
+      throw noPairException();
+    }
+    sweep(caves[0]);
+    int farthest = farthestCave();
+    if (2 * bfs.getDistance(farthest) < minimumDistance) {
+      throw noPairException();
+    }
+    sweep(farthest);
+    int opposite = farthestCave();
+    int lowerBound = bfs.getDistance(opposite);
+    if (caves.length <= EXACT_CAVE_LIMIT) {
+      return selectExact(randomizer);
+    }
+    for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+      int start = caves[randomizer.getRandomValue(0, caves.length - 1)];
+      sweep(start);
+      int validEnds = countValidEnds();
+      if (validEnds > 0 && randomizer.getRandomValue(1, caves.length - 1) <= validEnds) {
+        return new int[]{start, getValidEnd(randomizer.getRandomValue(0, validEnds - 1))};
+      }
+    }
+    if (lowerBound >= minimumDistance) {
+      return new int[]{farthest, opposite};
+    }
+    throw new IllegalArgumentException("Found no two caves at least " + minimumDistance
+            + " moves apart in " + (MAX_ATTEMPTS + 2) + " sweeps of this maze");
+  }
+
+  /**
+   * Returns the number of cells visited by all sweeps so far.
+   */
+  int getCellsVisited() {
+    return cellsVisited;
+  }
+
+  private int[] selectExact(Randomizer randomizer) throws IllegalArgumentException {
+    int[] validEnds = new int[caves.length];
+    long totalPairs = 0;
+    for (int i = 0; i < caves.length; i++) {
+      sweep(caves[i]);
+      validEnds[i] = countValidEnds();
+      totalPairs += validEnds[i];
+    }
+    if (totalPairs == 0) {
+      throw noPairException();
+    }
+    //At most EXACT_CAVE_LIMIT squared pairs, so the index fits in an int.
+    int pair = randomizer.getRandomValue(0, Math.toIntExact(totalPairs - 1));
+    int i = 0;
+    while (pair >= validEnds[i]) {
+      pair -= validEnds[i];
+      i++;
+    }
+    sweep(caves[i]);
+    return new int[]{caves[i], getValidEnd(pair)};
+  }
+
+  private void sweep(int start) {
+    cellsVisited += bfs.sweep(start);
+  }
+
+  private int farthestCave() {
+    for (int i = bfs.getReached() - 1; i >= 0; i--) {
+      int cell = bfs.getCell(i);
+      if (maze.isCave(cell)) {
+        return cell;
+      }
+    }
+    throw new IllegalStateException("Sweep reached no caves");
+  }
+
+  private int countValidEnds() {
+    int count = 0;
+    for (int i = bfs.getReached() - 1; i >= 0; i--) {
+      int cell = bfs.getCell(i);
+      if (bfs.getDistance(cell) < minimumDistance) {
+        break;
+      }
+      if (maze.isCave(cell)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private int getValidEnd(int index) {
+    for (int i = bfs.getReached() - 1; i >= 0; i--) {
+      int cell = bfs.getCell(i);
+      if (maze.isCave(cell) && index-- == 0) {
+        return cell;
+      }
+    }
+    throw new IllegalStateException("Valid end index out of range");
+  }
+
+  private IllegalArgumentException noPairException() {
+    return new IllegalArgumentException("No two caves are at least " + minimumDistance
+            + " moves apart in this maze");
+  }
+}
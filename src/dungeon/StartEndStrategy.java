@@ -0,0 +1,23 @@
+package dungeon;
+
+/**
+ * Represents the ways of choosing the start and end caves of a dungeon.
+ */
+public enum StartEndStrategy {
+  /**
+   * Tries random start caves one at a time until one has a cave far enough away.
+   * This is the original behaviour and keeps existing randomizer sequences reproducible. With
+   * the default minimum distance of 6 it also keeps the original distance count, which credits
+   * the farthest caves of each BFS level with one extra move; any other minimum distance is
+   * compared with the true shortest path length.
+   */
+  RANDOM_RETRY,
+  /**
+   * Bounds the cave distances with a double BFS sweep, fails fast when no pair of caves is far
+   * enough apart and otherwise samples uniformly from all valid start and end pairs.
+   * Mazes of more than 1024 caves are limited to a bounded number of sweeps: when random start
+   * caves keep failing they get the two caves of the bounding sweep, and generation fails if
+   * those are too close.
+   */
+  DOUBLE_SWEEP
+}
@@ -0,0 +1,196 @@
+package dungeon;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//package-private
+//Carves the spanning tree of a maze in parallel. The grid is split into square tiles, each
+//tile gets its own spanning tree from Kruskal's algorithm over its internal edges on a
+//ForkJoinPool, and the tiles are then stitched into a single tree by Kruskal's algorithm over
+//the edges crossing tile boundaries.
+//Every tile draws from its own generator derived from the seed and the tile index, and the
+//tile size does not depend on the number of threads, so the maze only depends on the seed.
+//Edges are encoded as PackedEdge values.
+final class TiledMazeGenerator {
+  static final int TILE_SIZE = 256;
+
+  private final MazeGrid maze;
+  private final boolean wrapped;
+  private final long seed;
+  private final int tileRows;
+  private final int tileColumns;
+  private final int[][] tileSkippedEdges;
+  private final int[] tileSkippedCounts;
+
+  TiledMazeGenerator(MazeGrid maze, boolean wrapped, long seed) throws IllegalArgumentException {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null");
+    }
+    this.maze = maze;
+    this.wrapped = wrapped;
+    this.seed = seed;
+    this.tileRows = (maze.getRows() + TILE_SIZE - 1) / TILE_SIZE;
+    this.tileColumns = (maze.getColumns() + TILE_SIZE - 1) / TILE_SIZE;
+    this.tileSkippedEdges = new int[tileRows * tileColumns][];
+    this.tileSkippedCounts = new int[tileRows * tileColumns];
+  }
+
+  /**
+   * Carves a spanning tree into the maze.
+   *
+   * @param parallelism the number of worker threads to use.
+   * @return the edges left out of the spanning tree, in a deterministic order.
+   * @throws IllegalArgumentException if parallelism is not positive.
+   */
+  int[] generate(int parallelism) throws IllegalArgumentException {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException("Parallelism must be positive");
+    }
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new TileTask(0, tileRows * tileColumns));
+    } finally {
+      pool.shutdown();
+    }
+    return stitchTiles();
+  }
+
+  private int[] stitchTiles() {
+    int rows = maze.getRows();
+    int columns = maze.getColumns();
+    int boundaryCount = 0;
+    for (int x = 0; x < rows; x++) {
+      for (int y = 0; y < columns; y++) {
+        if (isBoundaryNorthEdge(x)) {
+          boundaryCount++;
+        }
+        if (isBoundaryWestEdge(y)) {
+          boundaryCount++;
+        }
+      }
+    }
+    int[] boundaryEdges = new int[boundaryCount];
+    int index = 0;
+    for (int x = 0; x < rows; x++) {
+      for (int y = 0; y < columns; y++) {
+        int cell = x * columns + y;
+        if (isBoundaryNorthEdge(x)) {
+          boundaryEdges[index++] = PackedEdge.of(cell, Move.NORTH);
+        }
+        if (isBoundaryWestEdge(y)) {
+          boundaryEdges[index++] = PackedEdge.of(cell, Move.WEST);
+        }
+      }
+    }
+    shuffle(boundaryEdges, boundaryCount, new SplittableRandom(SeedMixer.mix(seed, -1)));
+    DisjointSet tileSets = new DisjointSet(tileRows * tileColumns);
+    int skippedCount = 0;
+    for (int count : tileSkippedCounts) {
+      skippedCount += count;
+    }
+    int[] skippedEdges = new int[skippedCount + boundaryCount];
+    int skipped = 0;
+    for (int tile = 0; tile < tileSkippedEdges.length; tile++) {
+      System.arraycopy(tileSkippedEdges[tile], 0, skippedEdges, skipped, tileSkippedCounts[tile]);
+      skipped += tileSkippedCounts[tile];
+      tileSkippedEdges[tile] = null;
+    }
+    for (int i = 0; i < boundaryCount; i++) {
+      int edge = boundaryEdges[i];
+      int cell = PackedEdge.getCell(edge);
+      int neighbour = maze.getNeighbour(cell, PackedEdge.getMove(edge));
+      if (tileSets.union(getTile(cell), getTile(neighbour))) {
+        PackedEdge.carve(maze, edge);
+      } else {
+        skippedEdges[skipped++] = edge;
+      }
+    }
+    int[] result = new int[skipped];
+    System.arraycopy(skippedEdges, 0, result, 0, skipped);
+    return result;
+  }
+
+  private void carveTile(int tile) {
+    int columns = maze.getColumns();
+    int firstRow = (tile / tileColumns) * TILE_SIZE;
+    int firstColumn = (tile % tileColumns) * TILE_SIZE;
+    int height = Math.min(TILE_SIZE, maze.getRows() - firstRow);
+    int width = Math.min(TILE_SIZE, columns - firstColumn);
+    int[] edges = new int[2 * height * width];
+    int count = 0;
+    for (int x = 0; x < height; x++) {
+      for (int y = 0; y < width; y++) {
+        int cell = (firstRow + x) * columns + firstColumn + y;
+        if (x > 0) {
+          edges[count++] = PackedEdge.of(cell, Move.NORTH);
+        }
+        if (y < width - 1) {
+          edges[count++] = PackedEdge.of(cell, Move.WEST);
+        }
+      }
+    }
+    shuffle(edges, count, new SplittableRandom(SeedMixer.mix(seed, tile)));
+    DisjointSet cellSets = new DisjointSet(height * width);
+    int skipped = 0;
+    for (int i = 0; i < count; i++) {
+      int edge = edges[i];
+      int cell = PackedEdge.getCell(edge);
+      int neighbour = maze.getNeighbour(cell, PackedEdge.getMove(edge));
+      int localCell = (maze.getRow(cell) - firstRow) * width + maze.getColumn(cell) - firstColumn;
+      int localNeighbour = (maze.getRow(neighbour) - firstRow) * width
+              + maze.getColumn(neighbour) - firstColumn;
+      if (cellSets.union(localCell, localNeighbour)) {
+        PackedEdge.carve(maze, edge);
+      } else {
+        edges[skipped++] = edge;
+      }
+    }
+    tileSkippedEdges[tile] = edges;
+    tileSkippedCounts[tile] = skipped;
+  }
+
+  private boolean isBoundaryNorthEdge(int row) {
+    return row % TILE_SIZE == 0 && (row != 0 || wrapped);
+  }
+
+  private boolean isBoundaryWestEdge(int column) {
+    return (column % TILE_SIZE == TILE_SIZE - 1 || column == maze.getColumns() - 1)
+            && (column != maze.getColumns() - 1 || wrapped);
+  }
+
+  private int getTile(int cell) {
+    return (maze.getRow(cell) / TILE_SIZE) * tileColumns + maze.getColumn(cell) / TILE_SIZE;
+  }
+
+  private static void shuffle(int[] values, int count, SplittableRandom random) {
+    for (int i = count - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int swap = values[i];
+      values[i] = values[j];
+      values[j] = swap;
+    }
+  }
+
+  private final class TileTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+
+    TileTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        carveTile(from);
+      } else if (to > from) {
+        int middle = (from + to) >>> 1;
+        invokeAll(new TileTask(from, middle), new TileTask(middle, to));
+      }
+    }
+  }
+}
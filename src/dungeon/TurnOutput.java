@@ -0,0 +1,78 @@
+package dungeon;
+
+import java.io.IOException;
+
+/**
+ * Collects the text rendered by a {@link DungeonConsoleController} and sends it to the
+ * appendable of the controller as its {@link FlushPolicy} says. The buffer is kept between
+ * turns and games, so rendering a turn allocates nothing once it has grown to the size of a
+ * turn.
+ */
+//package-private
+final class TurnOutput implements Appendable {
+  private final Appendable target;
+  private final FlushPolicy policy;
+  private final int threshold;
+  private final RenderMetrics metrics;
+  private final StringBuilder buffer;
+
+  TurnOutput(Appendable target, FlushPolicy policy, int threshold, RenderMetrics metrics) {
+    this.target = target;
+    this.policy = policy;
+    this.threshold = threshold;
+    this.metrics = metrics;
+    this.buffer = new StringBuilder();
+  }
+
+  @Override
+  public TurnOutput append(CharSequence sequence) throws IOException {
+    if (policy == FlushPolicy.UNBUFFERED) {
+      target.append(sequence);
+      metrics.addWrite(sequence == null ? 4 : sequence.length());
+      return this;
+    }
+    buffer.append(sequence);
+    return checkThreshold();
+  }
+
+  @Override
+  public TurnOutput append(CharSequence sequence, int start, int end) throws IOException {
+    if (policy == FlushPolicy.UNBUFFERED) {
+      target.append(sequence, start, end);
+      metrics.addWrite(end - start);
+      return this;
+    }
+    buffer.append(sequence, start, end);
+    return checkThreshold();
+  }
+
+  @Override
+  public TurnOutput append(char c) throws IOException {
+    if (policy == FlushPolicy.UNBUFFERED) {
+      target.append(c);
+      metrics.addWrite(1);
+      return this;
+    }
+    buffer.append(c);
+    return checkThreshold();
+  }
+
+  /**
+   * Sends the text kept so far in one write.
+   */
+  void flush() throws IOException {
+    if (buffer.length() > 0) {
+      int length = buffer.length();
+      target.append(buffer);
+      buffer.setLength(0);
+      metrics.addWrite(length);
+    }
+  }
+
+  private TurnOutput checkThreshold() throws IOException {
+    if (policy == FlushPolicy.PER_THRESHOLD && buffer.length() >= threshold) {
+      flush();
+    }
+    return this;
+  }
+}
@@ -1,7 +1,13 @@
 package randomizer;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Randomizer provides method to generate random integer values.
+ * The bulk methods draw many values in one call. Their default implementations call
+ * getRandomValue once per value in order, so a randomizer sequence gives the same values
+ * whether they are drawn one at a time or in bulk.
  */
 public interface Randomizer {
 
@@ -15,4 +21,94 @@ public interface Randomizer {
    * @return a random integer value in the given range.
    */
   int getRandomValue(int minBound, int maxBound);
+
+  /**
+   * Fills the given array with random integer values in the given range.
+   *
+   * @param values   the array to fill.
+   * @param minBound the minimum integer value of range.(inclusive)
+   * @param maxBound the maximum integer value of range.(inclusive)
+   * @throws IllegalArgumentException if values is null or minBound is greater than maxBound.
+   */
+  default void fillRandomValues(int[] values, int minBound, int maxBound)
+          throws IllegalArgumentException {
+    if (values == null || minBound > maxBound) {
+      throw new IllegalArgumentException("Please provide valid arguments");
+    }
+    for (int i = 0; i < values.length; i++) {
+      values[i] = getRandomValue(minBound, maxBound);
+    }
+  }
+
+  /**
+   * Fills the first count entries of the given array with the indices of count draws without
+   * replacement from size candidates: entry i is a random value between 0 and size - 1 - i,
+   * the index of the drawn candidate among those remaining.
+   *
+   * @param indices the array to fill.
+   * @param count   the number of draws.
+   * @param size    the number of candidates before the first draw.
+   * @throws IllegalArgumentException if indices is null, count is negative or greater than
+   *                                  size or the length of indices.
+   */
+  default void fillSamplingIndices(int[] indices, int count, int size)
+          throws IllegalArgumentException {
+    if (indices == null || count < 0 || count > size || count > indices.length) {
+      throw new IllegalArgumentException("Please provide valid arguments");
+    }
+    for (int i = 0; i < count; i++) {
+      indices[i] = getRandomValue(0, size - 1 - i);
+    }
+  }
+
+  /**
+   * Returns count distinct random values between 0 and size - 1, in random order.
+   * Uses memory proportional to count rather than size.
+   *
+   * @param count the number of values.
+   * @param size  the number of possible values.
+   * @return the distinct values.
+   * @throws IllegalArgumentException if count is negative or greater than size.
+   */
+  default int[] getDistinctValues(int count, int size) throws IllegalArgumentException {
+    if (count < 0 || count > size) {
+      throw new IllegalArgumentException("Count must be between 0 and " + size);
+    }
+    int[] values = new int[count];
+    fillSamplingIndices(values, count, size);
+    //Partial Fisher-Yates shuffle of 0..size - 1 keeping only the moved entries
+    Map<Integer, Integer> moved = new HashMap<>();
+    for (int i = 0; i < count; i++) {
+      int j = i + values[i];
+      values[i] = moved.getOrDefault(j, j);
+      moved.put(j, moved.getOrDefault(i, i));
+    }
+    return values;
+  }
+
+  /**
+   * Returns a random permutation of the values 0 to size - 1.
+   *
+   * @param size the number of values.
+   * @return the permutation.
+   * @throws IllegalArgumentException if size is negative.
+   */
+  default int[] getPermutation(int size) throws IllegalArgumentException {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size cannot be negative");
+    }
+    int[] indices = new int[size];
+    fillSamplingIndices(indices, size, size);
+    int[] permutation = new int[size];
+    for (int i = 0; i < size; i++) {
+      permutation[i] = i;
+    }
+    for (int i = 0; i < size; i++) {
+      int j = i + indices[i];
+      int swap = permutation[i];
+      permutation[i] = permutation[j];
+      permutation[j] = swap;
+    }
+    return permutation;
+  }
 }
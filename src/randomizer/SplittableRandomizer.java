@@ -0,0 +1,96 @@
+package randomizer;
+
+import java.util.SplittableRandom;
+
+/**
+ * Represents a seedable Randomizer backed by a {@link SplittableRandom}.
+ * The same seed always produces the same sequence of values, so a dungeon built from a seed can
+ * be rebuilt from it. An instance is meant to be used by one thread at a time and does no
+ * locking; other threads should use their own child randomizer obtained from {@link #split()}.
+ */
+public final class SplittableRandomizer implements Randomizer {
+
+  private final SplittableRandom random;
+  private final long seed;
+
+  /**
+   * Creates a new instance of SplittableRandomizer with the given seed.
+   *
+   * @param seed the seed of the sequence of values.
+   */
+  public SplittableRandomizer(long seed) {
+    this(new SplittableRandom(seed), seed);
+  }
+
+  private SplittableRandomizer(SplittableRandom random, long seed) {
+    this.random = random;
+    this.seed = seed;
+  }
+
+  /**
+   * Returns a random integer value in the given range.
+   *
+   * @param minBound the minimum integer value of range.(inclusive)
+   * @param maxBound the maximum integer value of range.(inclusive)
+   * @return a random integer value in the given range.
+   * @throws IllegalArgumentException if minBound is greater than maxBound.
+   */
+  @Override
+  public int getRandomValue(int minBound, int maxBound) throws IllegalArgumentException {
+    if (minBound > maxBound) {
+      throw new IllegalArgumentException("Minimum bound cannot be greater than maximum bound");
+    }
+    return nextValue(minBound, maxBound);
+  }
+
+  @Override
+  public void fillRandomValues(int[] values, int minBound, int maxBound)
+          throws IllegalArgumentException {
+    if (values == null || minBound > maxBound) {
+      throw new IllegalArgumentException("Please provide valid arguments");
+    }
+    for (int i = 0; i < values.length; i++) {
+      values[i] = nextValue(minBound, maxBound);
+    }
+  }
+
+  @Override
+  public void fillSamplingIndices(int[] indices, int count, int size)
+          throws IllegalArgumentException {
+    if (indices == null || count < 0 || count > size || count > indices.length) {
+      throw new IllegalArgumentException("Please provide valid arguments");
+    }
+    for (int i = 0; i < count; i++) {
+      indices[i] = random.nextInt(size - i);
+    }
+  }
+
+  private int nextValue(int minBound, int maxBound) {
+    if (maxBound < Integer.MAX_VALUE) {
+      return random.nextInt(minBound, maxBound + 1);
+    }
+    if (minBound == Integer.MIN_VALUE) {
+      return random.nextInt();
+    }
+    return random.nextInt(minBound - 1, maxBound) + 1;
+  }
+
+  /**
+   * Returns a new randomizer whose values are independent of this one. Splitting advances this
+   * randomizer, so the children of a seeded randomizer are reproducible as well.
+   *
+   * @return the child randomizer.
+   */
+  public SplittableRandomizer split() {
+    return new SplittableRandomizer(random.split(), seed);
+  }
+
+  /**
+   * Returns the seed of the randomizer this one was created or split from.
+   *
+   * @return the seed.
+   */
+  public long getSeed() {
+    return seed;
+  }
+}
@@ -0,0 +1,155 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.NoSuchElementException;
+
+import dungeon.BatchReport;
+import dungeon.BatchRunner;
+import dungeon.DungeonConsoleController;
+import dungeon.DungeonSpec;
+import dungeon.ScriptResult;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the BatchRunner.
+ */
+public class BatchRunnerTest {
+  private static final DungeonSpec SPEC = new DungeonSpec(8, 10, true, 5, 60, 4, 31);
+  private static final String COMMANDS = "M N\nM S\nP A\nP T\nS N 2\nM E\nM W\nq\n";
+
+  @Test
+  public void testCommandScripts() {
+    BatchRunner runner = new BatchRunner(SPEC, 4);
+    runner.add("commands", COMMANDS);
+    runner.add("quit", "q\n");
+    BatchReport report = runner.run(25);
+    assertEquals(50, report.getGames());
+    assertFalse(report.hasDivergence());
+    ScriptResult commands = report.getScripts().get(0);
+    ScriptResult quit = report.getScripts().get(1);
+    assertEquals("commands", commands.getName());
+    assertEquals(25, commands.getGames());
+    assertEquals(25, quit.getTurns());
+    assertTrue(commands.getTurns() > quit.getTurns());
+    assertNotEquals(commands.getOutputHash(), quit.getOutputHash());
+    assertEquals(commands.getTurns() + quit.getTurns(), report.getTurns());
+    assertTrue(report.getGamesPerSecond() > 0);
+    assertTrue(report.getTurnsPerSecond() > report.getGamesPerSecond());
+  }
+
+  @Test
+  public void testSameOutputAcrossRuns() {
+    BatchRunner first = new BatchRunner(SPEC, 1);
+    first.add("commands", COMMANDS);
+    BatchRunner second = new BatchRunner(SPEC, 3);
+    second.add("commands", COMMANDS);
+    assertEquals(first.run(1).getScripts().get(0).getOutputHash(),
+            second.run(10).getScripts().get(0).getOutputHash());
+  }
+
+  @Test
+  public void testScriptEndingBeforeGame() {
+    BatchRunner runner = new BatchRunner(SPEC, 2);
+    runner.add("unfinished", "M N\n");
+    ScriptResult result = runner.run(3).getScripts().get(0);
+    assertFalse(result.hasDiverged());
+    assertEquals(3, result.getGames());
+  }
+
+  @Test
+  public void testMatchingTranscript() throws IOException {
+    BatchRunner runner = new BatchRunner(SPEC, 2);
+    runner.add("transcript", transcript(COMMANDS) + "\nProcess finished with exit code 0\n");
+    BatchReport report = runner.run(4);
+    assertFalse(report.getScripts().get(0).getDivergence(), report.hasDivergence());
+  }
+
+  @Test
+  public void testDivergingTranscript() throws IOException {
+    String transcript = transcript(COMMANDS);
+    String changed = transcript.replaceFirst("You can move in", "You can walk in");
+    int line = 1;
+    for (int i = 0; i < transcript.indexOf("You can move in"); i++) {
+      if (transcript.charAt(i) == '\n') {
+        line++;
+      }
+    }
+    BatchRunner runner = new BatchRunner(SPEC, 1);
+    runner.add("changed", changed);
+    ScriptResult result = runner.run(1).getScripts().get(0);
+    assertTrue(result.hasDiverged());
+    assertTrue(result.getDivergence(), result.getDivergence().startsWith("line " + line + " "));
+    assertTrue(result.getDivergence().contains("You can walk in"));
+  }
+
+  @Test
+  public void testTruncatedTranscript() throws IOException {
+    String transcript = transcript(COMMANDS);
+    int lastInput = transcript.lastIndexOf("\nq\n");
+    BatchRunner runner = new BatchRunner(SPEC, 1);
+    runner.add("truncated", transcript.substring(0, lastInput + 1));
+    ScriptResult result = runner.run(1).getScripts().get(0);
+    assertEquals("the transcript ends while the game waits for input", result.getDivergence());
+  }
+
+  @Test
+  public void testTreasureListedInFixedOrder() throws IOException {
+    DungeonSpec spec = new DungeonSpec(8, 10, true, 5, 100, 4, 6);
+    String console = transcript(spec, "P T\nq\n");
+    assertTrue(console, console.contains("\nYou find 3 diamonds 3 sapphires 5 rubies\n"));
+    assertTrue(console,
+            console.contains("\nYou picked up 3 diamonds 3 sapphires 5 rubies\n"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidThreads() {
+    new BatchRunner(SPEC, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRepetitions() {
+    new BatchRunner(SPEC, 1).run(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullScript() {
+    new BatchRunner(SPEC, 1).add("none", null);
+  }
+
+  //Plays the commands as a console would show them, the typed lines after the output.
+  private static String transcript(String commands) throws IOException {
+    return transcript(SPEC, commands);
+  }
+
+  //Plays the commands on a dungeon of the given spec as a console would show them.
+  private static String transcript(DungeonSpec spec, String commands) throws IOException {
+    StringBuilder console = new StringBuilder();
+    Readable typed = new Readable() {
+      private int position;
+
+      @Override
+      public int read(CharBuffer buffer) {
+        if (position == commands.length()) {
+          return -1;
+        }
+        int end = commands.indexOf('\n', position) + 1;
+        console.append(commands, position, end);
+        buffer.put(commands, position, end);
+        int read = end - position;
+        position = end;
+        return read;
+      }
+    };
+    try {
+      new DungeonConsoleController(typed, console).play(spec.build());
+    } catch (NoSuchElementException e) {
+      //all commands typed
+    }
+    return console.toString();
+  }
+}
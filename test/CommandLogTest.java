@@ -0,0 +1,192 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import dungeon.ArrowHitOutcome;
+import dungeon.CommandLog;
+import dungeon.CommandReplayer;
+import dungeon.Dungeon;
+import dungeon.DungeonCache;
+import dungeon.DungeonSpec;
+import dungeon.GenerationOptions;
+import dungeon.Location;
+import dungeon.Move;
+import dungeon.RecordingDungeon;
+import dungeon.SamplingMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests recording games with RecordingDungeon and replaying them with CommandReplayer.
+ */
+public class CommandLogTest {
+
+  private DungeonSpec spec;
+
+  @Before
+  public void setUp() {
+    spec = new DungeonSpec(8, 10, true, 5, 80, 6, 31);
+  }
+
+  @Test
+  public void testReplayMatchesRecordedGame() {
+    RecordingDungeon game = new RecordingDungeon(spec);
+    play(game, 60);
+    CommandLog log = game.getLog();
+    assertTrue(log.getActions() > 0);
+    assertSameGame(game, CommandReplayer.replay(log));
+  }
+
+  @Test
+  public void testRecordedGameMatchesBuild() {
+    RecordingDungeon recorded = new RecordingDungeon(spec);
+    Dungeon built = spec.build();
+    play(recorded, 60);
+    play(built, 60);
+    assertSameGame(built, recorded);
+  }
+
+  @Test
+  public void testFailedActionsAreRecorded() {
+    RecordingDungeon game = new RecordingDungeon(spec);
+    try {
+      game.shootArrow(game.getAvailableDirections().iterator().next(), 9);
+      fail("Distance 9 should not be accepted");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+    try {
+      game.movePlayer(null);
+      fail("Null move should not be accepted");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+    assertEquals(2, game.getLog().getActions());
+    assertSameGame(game, CommandReplayer.replay(game.getLog()));
+  }
+
+  @Test
+  public void testInjuredMonsterDrawIsRecorded() {
+    for (long seed = 0; seed < 500; seed++) {
+      DungeonSpec monsters = new DungeonSpec(8, 8, true, 10, 0, 12, seed);
+      RecordingDungeon game = new RecordingDungeon(monsters);
+      for (Move move : game.getAvailableDirections()) {
+        if (game.getPlayerDescription().hasArrows()
+                && game.shootArrow(move, 1) == ArrowHitOutcome.INJURED) {
+          Move travel = move;
+          game.movePlayer(travel);
+          while (!game.getPlayerCurrentLocation().isCave()) {
+            Move back = travel.getOpposite();
+            for (Move next : game.getAvailableDirections()) {
+              if (next != back) {
+                travel = next;
+              }
+            }
+            game.movePlayer(travel);
+          }
+          if (game.getLog().getDraws() == 1) {
+            assertSameGame(game, CommandReplayer.replay(game.getLog()));
+            return;
+          }
+          break;
+        }
+      }
+    }
+    fail("No dungeon had an injured monster next to the start");
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    RecordingDungeon game = new RecordingDungeon(new DungeonSpec(8, 10, false, 2, 60, 3, 9,
+            new GenerationOptions().withSamplingMode(SamplingMode.SWAP)));
+    play(game, 30);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    game.getLog().write(out);
+    CommandLog read = CommandLog.read(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(game.getLog().getSpec(), read.getSpec());
+    assertEquals(game.getLog().getActions(), read.getActions());
+    assertEquals(game.getLog().getDraws(), read.getDraws());
+    assertEquals(game.getLog().size(), read.size());
+    assertSameGame(game, CommandReplayer.replay(read));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTamperedLogIsDetected() throws IOException {
+    RecordingDungeon game = new RecordingDungeon(spec);
+    play(game, 20);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    game.getLog().write(out);
+    byte[] bytes = out.toByteArray();
+    bytes[bytes.length - 1] ^= 0x3c;
+    CommandReplayer.replay(CommandLog.read(new ByteArrayInputStream(bytes)));
+  }
+
+  @Test(expected = IOException.class)
+  public void testBadMagic() throws IOException {
+    CommandLog.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 0, 1}));
+  }
+
+  @Test
+  public void testReplayManySessionsFromCache() {
+    DungeonCache cache = new DungeonCache(1);
+    RecordingDungeon game = new RecordingDungeon(spec, cache);
+    play(game, 60);
+    for (int i = 0; i < 1000; i++) {
+      CommandReplayer.replay(game.getLog(), cache);
+    }
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullLog() {
+    CommandReplayer.replay(null);
+  }
+
+  //Plays the given number of actions, cycling through picking, shooting and moving.
+  private static void play(Dungeon game, int actions) {
+    for (int turn = 0; turn < actions && !game.isGameOver(); turn++) {
+      Location location = game.getPlayerCurrentLocation();
+      if (location.hasTreasure()) {
+        game.playerPickTreasure();
+      } else if (location.hasArrows()) {
+        game.playerPickArrows();
+      } else if (turn % 3 == 0 && game.getPlayerDescription().hasArrows()) {
+        game.shootArrow(game.getAvailableDirections().iterator().next(), 1 + turn % 3);
+      } else {
+        List<Move> moves = Arrays.asList(game.getAvailableDirections().toArray(new Move[0]));
+        game.movePlayer(moves.get(turn % moves.size()));
+      }
+    }
+  }
+
+  private static void assertSameGame(Dungeon expected, Dungeon actual) {
+    List<List<Location>> expectedMaze = expected.getMaze();
+    List<List<Location>> actualMaze = actual.getMaze();
+    for (int row = 0; row < expectedMaze.size(); row++) {
+      for (int column = 0; column < expectedMaze.get(row).size(); column++) {
+        Location a = expectedMaze.get(row).get(column);
+        Location b = actualMaze.get(row).get(column);
+        assertEquals(a.getTreasure(), b.getTreasure());
+        assertEquals(a.getArrows(), b.getArrows());
+        assertEquals(expected.getSmell(a), actual.getSmell(b));
+      }
+    }
+    assertEquals(expected.getPlayerCurrentLocation().getRow(),
+            actual.getPlayerCurrentLocation().getRow());
+    assertEquals(expected.getPlayerCurrentLocation().getColumn(),
+            actual.getPlayerCurrentLocation().getColumn());
+    assertEquals(expected.getPlayerDescription().getArrows(),
+            actual.getPlayerDescription().getArrows());
+    assertEquals(expected.getPlayerDescription().getTreasure(),
+            actual.getPlayerDescription().getTreasure());
+    assertEquals(expected.isPlayerDead(), actual.isPlayerDead());
+    assertEquals(expected.isGameOver(), actual.isGameOver());
+  }
+}
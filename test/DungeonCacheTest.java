@@ -0,0 +1,161 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import dungeon.ContentsMode;
+import dungeon.Dungeon;
+import dungeon.DungeonCache;
+import dungeon.DungeonModel;
+import dungeon.DungeonSpec;
+import dungeon.GenerationOptions;
+import dungeon.Location;
+import dungeon.MazeAlgorithm;
+import dungeon.Move;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the DungeonCache and DungeonSpec.
+ */
+public class DungeonCacheTest {
+
+  private DungeonCache cache;
+  private DungeonSpec spec;
+
+  @Before
+  public void setUp() {
+    cache = new DungeonCache(2);
+    spec = new DungeonSpec(8, 10, true, 5, 60, 4, 31);
+  }
+
+  @Test
+  public void testHitsAndMisses() {
+    cache.getDungeon(spec);
+    cache.getDungeon(new DungeonSpec(8, 10, true, 5, 60, 4, 31));
+    cache.getDungeon(spec);
+    assertEquals(2, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testCachedGameMatchesBuild() {
+    cache.getDungeon(spec);
+    assertSameDungeon(spec.build(), cache.getDungeon(spec));
+    DungeonSpec lazySpec = new DungeonSpec(8, 10, false, 2, 60, 3, 9,
+            new GenerationOptions().withContentsMode(ContentsMode.LAZY));
+    cache.getDungeon(lazySpec);
+    assertSameDungeon(lazySpec.build(), cache.getDungeon(lazySpec));
+  }
+
+  @Test
+  public void testGamesAreIndependent() {
+    DungeonModel first = cache.getDungeon(spec);
+    DungeonModel second = cache.getDungeon(spec);
+    assertNotSame(first, second);
+    int startArrows = first.getPlayerCurrentLocation().getArrows();
+    if (startArrows > 0) {
+      first.playerPickArrows();
+    }
+    Move move = first.getAvailableDirections().iterator().next();
+    first.movePlayer(move);
+    assertEquals(startArrows, second.getPlayerCurrentLocation().getArrows());
+    assertEquals(startArrows, cache.getDungeon(spec).getStartLocation().getArrows());
+    assertEquals(3 + startArrows, first.getPlayerDescription().getArrows());
+    assertEquals(3, second.getPlayerDescription().getArrows());
+    assertEquals(second.getStartLocation().getRow(),
+            second.getPlayerCurrentLocation().getRow());
+    assertEquals(second.getStartLocation().getColumn(),
+            second.getPlayerCurrentLocation().getColumn());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() {
+    DungeonSpec second = new DungeonSpec(8, 10, true, 5, 60, 4, 32);
+    DungeonSpec third = new DungeonSpec(8, 10, true, 5, 60, 4, 33);
+    cache.getDungeon(spec);
+    cache.getDungeon(second);
+    cache.getDungeon(spec);
+    cache.getDungeon(third);
+    assertEquals(1, cache.getEvictions());
+    assertEquals(2, cache.size());
+    cache.getDungeon(spec);
+    assertEquals(2, cache.getHits());
+    cache.getDungeon(second);
+    assertEquals(4, cache.getMisses());
+  }
+
+  @Test
+  public void testSpecEquality() {
+    assertEquals(spec, new DungeonSpec(8, 10, true, 5, 60, 4, 31, new GenerationOptions()));
+    assertEquals(spec.hashCode(), new DungeonSpec(8, 10, true, 5, 60, 4, 31).hashCode());
+    assertNotEquals(spec, new DungeonSpec(8, 10, true, 5, 60, 4, 30));
+    assertNotEquals(spec, new DungeonSpec(8, 10, true, 5, 60, 4, 31,
+            new GenerationOptions().withMinimumDistance(3)));
+  }
+
+  @Test
+  public void testParallelismSharesEntry() {
+    GenerationOptions tiled = new GenerationOptions()
+            .withMazeAlgorithm(MazeAlgorithm.PARALLEL_TILED);
+    DungeonSpec one = new DungeonSpec(20, 30, true, 5, 60, 4, 31, tiled.withParallelism(1));
+    DungeonSpec four = new DungeonSpec(20, 30, true, 5, 60, 4, 31, tiled.withParallelism(4));
+    assertEquals(one, four);
+    assertEquals(one.hashCode(), four.hashCode());
+    cache.getDungeon(one);
+    cache.getDungeon(four);
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testInvalidSpecNotCached() {
+    DungeonSpec invalid = new DungeonSpec(3, 3, false, 0, 0, 1, 1);
+    try {
+      cache.getDungeon(invalid);
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+    assertEquals(1, cache.getMisses());
+    assertEquals(0, cache.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaximumSize() {
+    new DungeonCache(0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullSpec() {
+    cache.getDungeon(null);
+  }
+
+  private static void assertSameDungeon(Dungeon expected, Dungeon actual) {
+    List<List<Location>> expectedMaze = expected.getMaze();
+    List<List<Location>> actualMaze = actual.getMaze();
+    assertEquals(expectedMaze.size(), actualMaze.size());
+    for (int row = 0; row < expectedMaze.size(); row++) {
+      for (int column = 0; column < expectedMaze.get(row).size(); column++) {
+        Location a = expectedMaze.get(row).get(column);
+        Location b = actualMaze.get(row).get(column);
+        assertEquals(a.getNextMoves(), b.getNextMoves());
+        assertEquals(a.getTreasure(), b.getTreasure());
+        assertEquals(a.getArrows(), b.getArrows());
+        assertEquals(a.hasMonster(), b.hasMonster());
+        assertEquals(expected.getSmell(a), actual.getSmell(b));
+      }
+    }
+    assertEquals(expected.getStartLocation().getRow(), actual.getStartLocation().getRow());
+    assertEquals(expected.getStartLocation().getColumn(), actual.getStartLocation().getColumn());
+    assertEquals(expected.getEndLocation().getRow(), actual.getEndLocation().getRow());
+    assertEquals(expected.getEndLocation().getColumn(), actual.getEndLocation().getColumn());
+    assertFalse(actual.isGameOver());
+    assertTrue(actual.getPlayerDescription().hasArrows());
+  }
+}
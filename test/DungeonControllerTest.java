@@ -3,6 +3,7 @@ import org.junit.Test;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.CharBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -12,9 +13,13 @@ import dungeon.Dungeon;
 import dungeon.DungeonConsoleController;
 import dungeon.DungeonController;
 import dungeon.DungeonModel;
+import dungeon.DungeonSpec;
+import dungeon.FlushPolicy;
 import dungeon.Location;
 import dungeon.Move;
+import dungeon.PipelineErrorPolicy;
 import dungeon.Player;
+import dungeon.RenderMetrics;
 import dungeon.Treasure;
 import randomizer.GameRandomizer;
 import randomizer.Randomizer;
@@ -519,4 +524,203 @@ public class DungeonControllerTest {
     controller.play(dungeonMonster);
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testFlushPoliciesRenderSameText() throws IOException {
+    String input = "M N M S M E M W P T S N 2 q";
+    CountingAppendable unbuffered = play(input, FlushPolicy.UNBUFFERED, 1);
+    CountingAppendable perTurn = play(input, FlushPolicy.PER_TURN, 1);
+    CountingAppendable perThreshold = play(input, FlushPolicy.PER_THRESHOLD, 64);
+    assertEquals(unbuffered.text.toString(), perTurn.text.toString());
+    assertEquals(unbuffered.text.toString(), perThreshold.text.toString());
+    assertTrue(perTurn.writes < perThreshold.writes);
+    assertTrue(perThreshold.writes < unbuffered.writes);
+  }
+
+  @Test
+  public void testPerTurnWritesOncePerRead() throws IOException {
+    Readable tokens = new TokenReadable("M", "N", "M", "S", "q");
+    CountingAppendable gameLog = new CountingAppendable();
+    DungeonConsoleController controller = new DungeonConsoleController(tokens, gameLog);
+    controller.play(new DungeonSpec(8, 10, true, 5, 60, 4, 31).build());
+    RenderMetrics metrics = controller.getRenderMetrics();
+    assertEquals(gameLog.writes, metrics.getWrites());
+    assertEquals(gameLog.text.length(), metrics.getCharactersWritten());
+    //one write before each of the five reads, one before the end of input and one at the end
+    assertTrue(gameLog.writes <= 7);
+    assertTrue(metrics.getTurns() >= 1);
+    assertEquals((double) metrics.getWrites() / metrics.getTurns(),
+            metrics.getWritesPerTurn(), 1e-9);
+  }
+
+  @Test
+  public void testUnbufferedMetrics() throws IOException {
+    CountingAppendable gameLog = play("M N q", FlushPolicy.UNBUFFERED, 1);
+    assertTrue(gameLog.writes > 10);
+  }
+
+  @Test
+  public void testInputExceptionSendsRenderedText() throws IOException {
+    StringBuilder gameLog = new StringBuilder();
+    DungeonController controller = new DungeonConsoleController(new StringReader("M"), gameLog);
+    try {
+      controller.play(dungeonMonster);
+    } catch (NoSuchElementException e) {
+      assertTrue(gameLog.toString().endsWith("Where do we go?\n"));
+      return;
+    }
+    throw new AssertionError("Expected the input to end");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidFlushThreshold() {
+    new DungeonConsoleController(new StringReader("q"), new StringBuilder(),
+            FlushPolicy.PER_THRESHOLD, 0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullFlushPolicy() {
+    new DungeonConsoleController(new StringReader("q"), new StringBuilder(), null, 1);
+  }
+
+  @Test
+  public void testPipelinedLineInOneRead() throws IOException {
+    CountingAppendable pipelined = new CountingAppendable();
+    new DungeonConsoleController(new TokenReadable("M N M S P A q"), pipelined)
+            .play(new DungeonSpec(8, 10, true, 5, 60, 4, 31).build());
+    CountingAppendable typed = new CountingAppendable();
+    new DungeonConsoleController(new TokenReadable("M", "N", "M", "S", "P", "A", "q"), typed)
+            .play(new DungeonSpec(8, 10, true, 5, 60, 4, 31).build());
+    assertEquals(typed.text.toString(), pipelined.text.toString());
+    //the welcome turn, then the combined output of the line
+    assertEquals(2, pipelined.writes);
+  }
+
+  @Test
+  public void testContinueRunsActionsAfterFailure() throws IOException {
+    Location start = dungeonMonster.getPlayerCurrentLocation();
+    Location north = getNextLocation(Move.NORTH, dungeonMonster);
+    StringBuilder gameLog = new StringBuilder();
+    new DungeonConsoleController(new TokenReadable("D M N", "q"), gameLog,
+            FlushPolicy.PER_TURN, 1, PipelineErrorPolicy.CONTINUE).play(dungeonMonster);
+    assertFalse(gameLog.toString().contains("Skipped"));
+    assertEquals(north.getRow(), dungeonMonster.getPlayerCurrentLocation().getRow());
+    assertEquals(north.getColumn(), dungeonMonster.getPlayerCurrentLocation().getColumn());
+    assertFalse(start.getRow() == north.getRow() && start.getColumn() == north.getColumn());
+  }
+
+  @Test
+  public void testDiscardLineSkipsActionsAfterFailure() throws IOException {
+    Location start = dungeonMonster.getPlayerCurrentLocation();
+    StringBuilder gameLog = new StringBuilder();
+    new DungeonConsoleController(new TokenReadable("D M N", "q"), gameLog,
+            FlushPolicy.PER_TURN, 1, PipelineErrorPolicy.DISCARD_LINE).play(dungeonMonster);
+    assertTrue(gameLog.toString().contains("Please choose one of the valid commands"));
+    assertTrue(gameLog.toString().contains("\nSkipped the rest of the line: M N\n"));
+    assertFalse(gameLog.toString().contains("Where do we go?"));
+    assertEquals(start.getRow(), dungeonMonster.getPlayerCurrentLocation().getRow());
+    assertEquals(start.getColumn(), dungeonMonster.getPlayerCurrentLocation().getColumn());
+  }
+
+  @Test
+  public void testDiscardLineAfterFailedMove() throws IOException {
+    StringBuilder gameLog = new StringBuilder();
+    new DungeonConsoleController(new StringReader("M X P A\nN\nq\n"), gameLog,
+            FlushPolicy.PER_TURN, 1, PipelineErrorPolicy.DISCARD_LINE).play(dungeonMonster);
+    assertTrue(gameLog.toString().contains("Please enter a valid direction"));
+    assertTrue(gameLog.toString().contains("Skipped the rest of the line: P A"));
+    assertFalse(gameLog.toString().contains("What to pick?"));
+  }
+
+  @Test
+  public void testDiscardLineSkipsRestNotYetRead() throws IOException {
+    Location start = dungeonMonster.getPlayerCurrentLocation();
+    Readable split = new TokenReadable(" N", "q") {
+      private boolean first = true;
+
+      @Override
+      public int read(CharBuffer buffer) {
+        if (first) {
+          first = false;
+          buffer.put("D M");
+          return 3;
+        }
+        return super.read(buffer);
+      }
+    };
+    StringBuilder gameLog = new StringBuilder();
+    new DungeonConsoleController(split, gameLog, FlushPolicy.PER_TURN, 1,
+            PipelineErrorPolicy.DISCARD_LINE).play(dungeonMonster);
+    assertTrue(gameLog.toString().contains("Skipped the rest of the line: M"));
+    assertEquals(start.getRow(), dungeonMonster.getPlayerCurrentLocation().getRow());
+  }
+
+  @Test
+  public void testDiscardLineWithoutPipelineKeepsOutput() throws IOException {
+    String[] lines = {"D", "M", "X", "N", "S", "N", "x", "1", "q"};
+    StringBuilder discard = new StringBuilder();
+    new DungeonConsoleController(new TokenReadable(lines), discard, FlushPolicy.PER_TURN, 1,
+            PipelineErrorPolicy.DISCARD_LINE).play(new DungeonSpec(8, 10, true, 5, 60, 4, 31)
+            .build());
+    StringBuilder keep = new StringBuilder();
+    new DungeonConsoleController(new TokenReadable(lines), keep)
+            .play(new DungeonSpec(8, 10, true, 5, 60, 4, 31).build());
+    assertEquals(keep.toString(), discard.toString());
+  }
+
+  private static CountingAppendable play(String input, FlushPolicy policy, int threshold)
+          throws IOException {
+    CountingAppendable gameLog = new CountingAppendable();
+    DungeonConsoleController controller =
+            new DungeonConsoleController(new StringReader(input), gameLog, policy, threshold);
+    controller.play(new DungeonSpec(8, 10, true, 5, 60, 4, 31).build());
+    return gameLog;
+  }
+
+  //Counts the calls made to it.
+  private static final class CountingAppendable implements Appendable {
+    private final StringBuilder text = new StringBuilder();
+    private int writes;
+
+    @Override
+    public Appendable append(CharSequence sequence) {
+      writes++;
+      text.append(sequence);
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence sequence, int start, int end) {
+      writes++;
+      text.append(sequence, start, end);
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+      writes++;
+      text.append(c);
+      return this;
+    }
+  }
+
+  //Gives one token per read, as a player typing at a console.
+  private static class TokenReadable implements Readable {
+    private final String[] tokens;
+    private int next;
+
+    TokenReadable(String... tokens) {
+      this.tokens = tokens;
+    }
+
+    @Override
+    public int read(CharBuffer buffer) {
+      if (next == tokens.length) {
+        return -1;
+      }
+      String token = tokens[next++] + "\n";
+      buffer.put(token);
+      return token.length();
+    }
+  }
+
+}
@@ -0,0 +1,185 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import dungeon.ContentsMode;
+import dungeon.Dungeon;
+import dungeon.DungeonFile;
+import dungeon.DungeonSpec;
+import dungeon.GenerationOptions;
+import dungeon.Location;
+import dungeon.Move;
+import dungeon.SamplingMode;
+import randomizer.SplittableRandomizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests saving and loading dungeons with DungeonFile.
+ */
+public class DungeonFileTest {
+
+  //The exits start after the header of magic, version, flags and seven ints.
+  private static final int EXITS_OFFSET = 35;
+
+  private Path path;
+
+  @Before
+  public void setUp() throws IOException {
+    path = Files.createTempFile("dungeon", ".dngn");
+    path.toFile().deleteOnExit();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Dungeon dungeon = new DungeonSpec(8, 10, true, 5, 60, 4, 31).build();
+    DungeonFile.write(dungeon, path);
+    assertSameDungeon(dungeon, DungeonFile.load(path, new SplittableRandomizer(1)));
+  }
+
+  @Test
+  public void testLazyRoundTrip() throws IOException {
+    Dungeon dungeon = new DungeonSpec(8, 10, false, 2, 60, 3, 9,
+            new GenerationOptions().withContentsMode(ContentsMode.LAZY)).build();
+    DungeonFile.write(dungeon, path);
+    assertSameDungeon(dungeon, DungeonFile.load(path, new SplittableRandomizer(1)));
+  }
+
+  @Test
+  public void testLoadedDungeonCanBeWrittenAgain() throws IOException {
+    Dungeon dungeon = new DungeonSpec(6, 7, false, 3, 40, 2, 5).build();
+    DungeonFile.write(dungeon, path);
+    Path copy = Files.createTempFile("dungeon", ".dngn");
+    copy.toFile().deleteOnExit();
+    DungeonFile.write(DungeonFile.load(path, new SplittableRandomizer(1)), copy);
+    assertTrue(Arrays.equals(Files.readAllBytes(path), Files.readAllBytes(copy)));
+  }
+
+  @Test
+  public void testGameIsNotSaved() throws IOException {
+    Dungeon dungeon = new DungeonSpec(8, 10, true, 5, 100, 4, 31).build();
+    int arrows = dungeon.getStartLocation().getArrows();
+    dungeon.playerPickArrows();
+    DungeonFile.write(dungeon, path);
+    Dungeon loaded = DungeonFile.load(path, new SplittableRandomizer(1));
+    assertEquals(arrows, loaded.getPlayerCurrentLocation().getArrows());
+    assertEquals(3, loaded.getPlayerDescription().getArrows());
+  }
+
+  @Test
+  public void testLargeDungeon() throws IOException {
+    Dungeon dungeon = new DungeonSpec(1000, 1000, true, 100, 20, 50, 7,
+            new GenerationOptions().withSamplingMode(SamplingMode.SWAP)).build();
+    DungeonFile.write(dungeon, path);
+    long start = System.nanoTime();
+    Dungeon loaded = DungeonFile.load(path, new SplittableRandomizer(1));
+    long elapsed = System.nanoTime() - start;
+    assertTrue("Loading took " + elapsed / 1000000 + "ms", elapsed < 2_000_000_000L);
+    Location expected = dungeon.getStartLocation();
+    Location actual = loaded.getStartLocation();
+    assertEquals(expected.getRow(), actual.getRow());
+    assertEquals(expected.getColumn(), actual.getColumn());
+    assertEquals(expected.getNextMoves(), actual.getNextMoves());
+    assertEquals(expected.getTreasure(), actual.getTreasure());
+  }
+
+  @Test(expected = IOException.class)
+  public void testBadMagic() throws IOException {
+    Files.write(path, new byte[]{1, 2, 3, 4, 0, 1, 0});
+    DungeonFile.load(path, new SplittableRandomizer(1));
+  }
+
+  @Test(expected = IOException.class)
+  public void testUnsupportedVersion() throws IOException {
+    DungeonFile.write(new DungeonSpec(5, 4, false, 0, 0, 1, 3).build(), path);
+    byte[] bytes = Files.readAllBytes(path);
+    bytes[5] = 9;
+    Files.write(path, bytes);
+    DungeonFile.load(path, new SplittableRandomizer(1));
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedFile() throws IOException {
+    DungeonFile.write(new DungeonSpec(8, 10, true, 5, 60, 4, 31).build(), path);
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 3));
+    DungeonFile.load(path, new SplittableRandomizer(1));
+  }
+
+  @Test
+  public void testOneWayExit() throws IOException {
+    DungeonFile.write(new DungeonSpec(5, 4, false, 0, 0, 1, 3).build(), path);
+    byte[] bytes = Files.readAllBytes(path);
+    //Clears every exit of the first cell, its neighbours keep their exits to it.
+    bytes[EXITS_OFFSET] = 0;
+    assertRejectedExits(bytes);
+  }
+
+  @Test
+  public void testExitOutOfUnwrappedMaze() throws IOException {
+    DungeonFile.write(new DungeonSpec(5, 4, false, 0, 0, 1, 3).build(), path);
+    byte[] bytes = Files.readAllBytes(path);
+    //NORTH of the first cell leads out of the top row.
+    bytes[EXITS_OFFSET] |= 1 << Move.NORTH.ordinal();
+    assertRejectedExits(bytes);
+  }
+
+  @Test
+  public void testUnknownExitBit() throws IOException {
+    DungeonFile.write(new DungeonSpec(5, 4, true, 0, 0, 1, 3).build(), path);
+    byte[] bytes = Files.readAllBytes(path);
+    bytes[EXITS_OFFSET] |= 0x20;
+    assertRejectedExits(bytes);
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingFile() throws IOException {
+    DungeonFile.load(new File(path.toFile(), "missing").toPath(), new SplittableRandomizer(1));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullDungeon() throws IOException {
+    DungeonFile.write(null, path);
+  }
+
+  private void assertRejectedExits(byte[] bytes) throws IOException {
+    Files.write(path, bytes);
+    try {
+      DungeonFile.load(path, new SplittableRandomizer(1));
+    } catch (IOException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentException);
+      return;
+    }
+    throw new AssertionError("Expected the exits to be rejected");
+  }
+
+  private static void assertSameDungeon(Dungeon expected, Dungeon actual) {
+    List<List<Location>> expectedMaze = expected.getMaze();
+    List<List<Location>> actualMaze = actual.getMaze();
+    assertEquals(expectedMaze.size(), actualMaze.size());
+    for (int row = 0; row < expectedMaze.size(); row++) {
+      for (int column = 0; column < expectedMaze.get(row).size(); column++) {
+        Location a = expectedMaze.get(row).get(column);
+        Location b = actualMaze.get(row).get(column);
+        assertEquals(a.getNextMoves(), b.getNextMoves());
+        assertEquals(a.getTreasure(), b.getTreasure());
+        assertEquals(a.getArrows(), b.getArrows());
+        assertEquals(a.hasMonster(), b.hasMonster());
+        assertEquals(expected.getSmell(a), actual.getSmell(b));
+      }
+    }
+    assertEquals(expected.getStartLocation().getRow(), actual.getStartLocation().getRow());
+    assertEquals(expected.getStartLocation().getColumn(), actual.getStartLocation().getColumn());
+    assertEquals(expected.getEndLocation().getRow(), actual.getEndLocation().getRow());
+    assertEquals(expected.getEndLocation().getColumn(), actual.getEndLocation().getColumn());
+    assertFalse(actual.isGameOver());
+  }
+}
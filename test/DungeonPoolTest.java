@@ -0,0 +1,109 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dungeon.DungeonModel;
+import dungeon.DungeonPool;
+import dungeon.DungeonSpec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the DungeonPool.
+ */
+public class DungeonPoolTest {
+
+  private DungeonPool pool;
+  private DungeonSpec spec;
+
+  @Before
+  public void setUp() {
+    pool = new DungeonPool(3, 2, 17);
+    spec = new DungeonSpec(8, 10, true, 5, 60, 4, 0);
+  }
+
+  @After
+  public void tearDown() {
+    pool.close();
+  }
+
+  @Test
+  public void testPoolFillsInBackground() throws InterruptedException {
+    pool.register(spec);
+    awaitDepth(spec, 3);
+    assertEquals(3, pool.getBuilt());
+    assertEquals(0, pool.getMisses());
+    assertTrue(pool.getRefillRate() > 0);
+    assertTrue(pool.getAverageBuildNanos() > 0);
+  }
+
+  @Test
+  public void testTakeIsServedFromPoolAndRefilled() throws InterruptedException {
+    pool.register(spec);
+    awaitDepth(spec, 3);
+    DungeonModel dungeon = pool.take(spec);
+    assertNotNull(dungeon);
+    assertFalse(dungeon.isGameOver());
+    assertEquals(1, pool.getHits());
+    awaitDepth(spec, 3);
+    assertEquals(4, pool.getBuilt());
+  }
+
+  @Test
+  public void testSeedIsIgnored() throws InterruptedException {
+    pool.register(spec.withSeed(99));
+    awaitDepth(spec, 3);
+    pool.take(spec.withSeed(5));
+    assertEquals(1, pool.getHits());
+  }
+
+  @Test
+  public void testUnregisteredSpecIsBuiltOnCaller() {
+    DungeonSpec other = new DungeonSpec(6, 6, false, 0, 20, 1, 0);
+    assertNotNull(pool.take(other));
+    assertEquals(1, pool.getMisses());
+    assertEquals(0, pool.getDepth(other));
+  }
+
+  @Test
+  public void testInvalidSpecIsNotRefilled() throws InterruptedException {
+    DungeonSpec invalid = new DungeonSpec(3, 3, false, 0, 0, 1, 0);
+    pool.register(invalid);
+    long deadline = System.currentTimeMillis() + 10000;
+    while (pool.getFailures() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertTrue(pool.getFailures() > 0);
+    assertEquals(0, pool.getDepth(invalid));
+    try {
+      pool.take(invalid);
+      fail("Invalid spec should not be built");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+    assertTrue(pool.getFailures() <= 3);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testRegisterAfterClose() {
+    pool.close();
+    pool.register(spec);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidDepth() {
+    new DungeonPool(0, 1, 1);
+  }
+
+  private void awaitDepth(DungeonSpec spec, int depth) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (pool.getDepth(spec) < depth && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(depth, pool.getDepth(spec));
+  }
+}
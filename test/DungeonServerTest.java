@@ -0,0 +1,163 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import dungeon.DungeonServer;
+import dungeon.DungeonSpec;
+import dungeon.SessionMetrics;
+import dungeon.SessionStatus;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the DungeonServer over the loopback interface.
+ */
+public class DungeonServerTest {
+
+  private DungeonServer server;
+
+  @Before
+  public void setUp() throws IOException {
+    DungeonSpec spec = new DungeonSpec(8, 10, true, 5, 60, 4, 31);
+    server = new DungeonServer(0, 2, 500, spec::build);
+    server.start();
+  }
+
+  @After
+  public void tearDown() {
+    server.close();
+  }
+
+  @Test
+  public void testPlayAndQuit() throws IOException, InterruptedException {
+    try (Socket socket = connect()) {
+      String welcome = readUntil(socket, "What do you want to do?");
+      assertTrue(welcome.startsWith("Welcome to the dungeons"));
+      send(socket, "Q\n");
+      readToEnd(socket);
+    }
+    SessionMetrics metrics = awaitEnded();
+    assertEquals(SessionStatus.COMPLETED, metrics.getStatus());
+    assertEquals(2, metrics.getCharactersRead());
+    assertTrue(metrics.getCharactersWritten() > 0);
+    assertTrue(metrics.getWrites() >= 2);
+    assertEquals(1, server.getAcceptedSessions());
+    assertEquals(0, server.getActiveSessions());
+  }
+
+  @Test
+  public void testConcurrentSessions() throws IOException, InterruptedException {
+    try (Socket first = connect(); Socket second = connect()) {
+      readUntil(first, "What do you want to do?");
+      readUntil(second, "What do you want to do?");
+      assertEquals(2, server.getActiveSessions());
+      send(second, "M\nX\n");
+      readUntil(second, "Please enter a valid direction");
+      send(first, "Q\n");
+      readToEnd(first);
+    }
+  }
+
+  @Test
+  public void testConnectionLimit() throws IOException, InterruptedException {
+    try (Socket first = connect(); Socket second = connect(); Socket third = connect()) {
+      readUntil(first, "What do you want to do?");
+      readUntil(second, "What do you want to do?");
+      assertEquals("Server is full, please try again later\n", readToEnd(third));
+    }
+    assertEquals(1, server.getRejectedSessions());
+    assertEquals(2, server.getAcceptedSessions());
+  }
+
+  @Test
+  public void testIdleTimeout() throws IOException, InterruptedException {
+    try (Socket socket = connect()) {
+      String output = readToEnd(socket);
+      assertTrue(output.endsWith("You have been idle for too long, goodbye\n"));
+    }
+    SessionMetrics metrics = awaitEnded();
+    assertEquals(SessionStatus.TIMED_OUT, metrics.getStatus());
+    assertEquals(1, server.getTimedOutSessions());
+  }
+
+  @Test
+  public void testDisconnect() throws IOException, InterruptedException {
+    try (Socket socket = connect()) {
+      readUntil(socket, "What do you want to do?");
+    }
+    assertEquals(SessionStatus.DISCONNECTED, awaitEnded().getStatus());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMaximumSessions() {
+    new DungeonServer(0, 0, 100, new DungeonSpec(8, 10, true, 5, 60, 4, 31)::build);
+  }
+
+  @Test
+  public void testPipelinedLineDroppedAfterFailure() throws IOException, InterruptedException {
+    try (Socket socket = connect()) {
+      readUntil(socket, "What do you want to do?");
+      send(socket, "D M N\nq\n");
+      String rest = readToEnd(socket);
+      assertTrue(rest.contains("Skipped the rest of the line: M N"));
+      assertFalse(rest.contains("Where do we go?"));
+    }
+    assertEquals(SessionStatus.COMPLETED, awaitEnded().getStatus());
+  }
+
+  private Socket connect() throws IOException {
+    Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+    socket.setSoTimeout(5000);
+    return socket;
+  }
+
+  private static void send(Socket socket, String text) throws IOException {
+    OutputStream out = socket.getOutputStream();
+    out.write(text.getBytes(StandardCharsets.UTF_8));
+    out.flush();
+  }
+
+  private static String readUntil(Socket socket, String marker) throws IOException {
+    InputStream in = socket.getInputStream();
+    StringBuilder text = new StringBuilder();
+    while (text.indexOf(marker) < 0) {
+      int value = in.read();
+      if (value < 0) {
+        break;
+      }
+      text.append((char) value);
+    }
+    return text.toString();
+  }
+
+  private static String readToEnd(Socket socket) throws IOException {
+    InputStream in = socket.getInputStream();
+    StringBuilder text = new StringBuilder();
+    for (int value = in.read(); value >= 0; value = in.read()) {
+      text.append((char) value);
+    }
+    return text.toString();
+  }
+
+  private SessionMetrics awaitEnded() throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (System.currentTimeMillis() < deadline) {
+      List<SessionMetrics> metrics = server.getSessionMetrics();
+      if (!metrics.isEmpty() && metrics.get(0).getStatus() != SessionStatus.ACTIVE) {
+        return metrics.get(0);
+      }
+      Thread.sleep(5);
+    }
+    throw new AssertionError("Session did not end");
+  }
+}
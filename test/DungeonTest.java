@@ -1,22 +1,31 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import dungeon.ArrowHitOutcome;
+import dungeon.ContentsMode;
 import dungeon.Dungeon;
 import dungeon.DungeonModel;
+import dungeon.GenerationMetrics;
+import dungeon.GenerationOptions;
+import dungeon.GenerationPhase;
 import dungeon.Location;
 import dungeon.Move;
 import dungeon.Player;
+import dungeon.SamplingMode;
 import dungeon.SmellLevel;
+import dungeon.StartEndStrategy;
 import dungeon.Treasure;
 import randomizer.GameRandomizer;
 import randomizer.Randomizer;
+import randomizer.SplittableRandomizer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -1246,6 +1255,177 @@ public class DungeonTest {
             startLocationWrappedInterconnectivityTreasure30));
   }
 
+  @Test
+  public void testGenerationMetrics() {
+    GenerationMetrics metrics = ((DungeonModel) dungeon).getGenerationMetrics();
+    assertEquals(31, metrics.getWorkUnits(GenerationPhase.EDGES));
+    assertEquals(31, metrics.getWorkUnits(GenerationPhase.SPANNING_TREE));
+    long cellsVisited = metrics.getWorkUnits(GenerationPhase.START_END);
+    //Every start/end search sweeps the whole connected maze of 20 cells.
+    assertTrue(cellsVisited >= 20);
+    assertEquals(0, cellsVisited % 20);
+    assertEquals(1, metrics.getWorkUnits(GenerationPhase.MONSTERS));
+    assertTrue(metrics.getTotalNanos() > 0);
+    assertTrue(metrics.getElapsedNanos(GenerationPhase.START_END) <= metrics.getTotalNanos());
+  }
+
+  @Test
+  public void testDoubleSweepStartEnd() {
+    GenerationOptions options = new GenerationOptions()
+            .withStartEndStrategy(StartEndStrategy.DOUBLE_SWEEP).withMinimumDistance(4);
+    for (int i = 0; i < 20; i++) {
+      Dungeon sweepDungeon = new DungeonModel(6, 6, true, 20, 20, 2,
+              new GameRandomizer(), options);
+      Location start = sweepDungeon.getStartLocation();
+      Location end = sweepDungeon.getEndLocation();
+      assertTrue(start.isCave());
+      assertTrue(end.isCave());
+      assertTrue(compareLocations(start, sweepDungeon.getPlayerCurrentLocation()));
+      assertTrue(getShortestDistance(sweepDungeon, start, end) >= 4);
+    }
+  }
+
+  @Test
+  public void testRandomRetryHonoursMinimumDistance() {
+    for (int minimumDistance = 3; minimumDistance <= 8; minimumDistance++) {
+      if (minimumDistance == 6) {
+        continue;
+      }
+      GenerationOptions options = new GenerationOptions().withMinimumDistance(minimumDistance);
+      for (int seed = 0; seed < 100; seed++) {
+        Dungeon retryDungeon = new DungeonModel(6, 8, false, 0, 20, 1,
+                new SplittableRandomizer(seed), options);
+        assertTrue(getShortestDistance(retryDungeon, retryDungeon.getStartLocation(),
+                retryDungeon.getEndLocation()) >= minimumDistance);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDoubleSweepNoValidPair() {
+    new DungeonModel(5, 4, true, 4, 0, 0, new GameRandomizer(),
+            new GenerationOptions().withStartEndStrategy(StartEndStrategy.DOUBLE_SWEEP)
+                    .withMinimumDistance(40));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRandomRetryNoValidPair() {
+    new DungeonModel(5, 4, true, 4, 0, 0, new GameRandomizer(),
+            new GenerationOptions().withMinimumDistance(40));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullGenerationOptions() {
+    new DungeonModel(5, 4, true, 4, 0, 0, new GameRandomizer(), null);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMinimumDistance() {
+    new GenerationOptions().withMinimumDistance(0);
+  }
+
+  @Test(timeout = 30000)
+  public void testBuildScaling1000x1000() {
+    assertLargeDungeon(1000, new GenerationOptions());
+  }
+
+  @Test(timeout = 60000)
+  public void testBuildScaling2000x2000() {
+    assertLargeDungeon(2000, new GenerationOptions().withSamplingMode(SamplingMode.SWAP));
+  }
+
+  @Test
+  public void testSwapSampling() {
+    GenerationOptions options = new GenerationOptions().withSamplingMode(SamplingMode.SWAP);
+    Dungeon swapDungeon = new DungeonModel(6, 8, true, 7, 0, 0, new GameRandomizer(), options);
+    List<List<Location>> maze = swapDungeon.getMaze();
+    assertEquals(getExpectedNumberOfPaths(swapDungeon, 7),
+            traverseAllNodesAndReturnTotalPaths(swapDungeon));
+    assertEquals(6, maze.size());
+  }
+
+  @Test
+  public void testSwapSamplingPlacesEveryMonster() {
+    GenerationOptions options = new GenerationOptions().withSamplingMode(SamplingMode.SWAP);
+    for (int i = 0; i < 20; i++) {
+      Dungeon swapDungeon = new DungeonModel(6, 8, false, 3, 40, 6, new GameRandomizer(),
+              options);
+      List<List<Location>> maze = swapDungeon.getMaze();
+      int monsters = 0;
+      for (Location cave : getAllCaves(maze)) {
+        if (cave.hasMonster()) {
+          monsters++;
+        }
+      }
+      assertEquals(6, monsters);
+      assertFalse(swapDungeon.getStartLocation().hasMonster());
+      assertTrue(swapDungeon.getEndLocation().hasMonster());
+      int expectedTreasureCaves = Double.valueOf(
+              Math.round(0.4 * getAllCaves(maze).size())).intValue();
+      assertEquals(expectedTreasureCaves, getTreasureFilledLocations(maze).size());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testSwapSamplingMonsterInEveryCave() {
+    GenerationOptions options = new GenerationOptions().withSamplingMode(SamplingMode.SWAP)
+            .withMinimumDistance(2);
+    //Every edge of a wrapped 5x4 dungeon is open so all 20 locations are caves
+    new DungeonModel(5, 4, true, 21, 0, 20, new GameRandomizer(), options);
+  }
+
+  @Test(timeout = 30000)
+  public void testPlacementScaling() {
+    for (SamplingMode mode : SamplingMode.values()) {
+      GenerationOptions options = new GenerationOptions().withSamplingMode(mode);
+      DungeonModel largeDungeon = new DungeonModel(1000, 1000, true, 1000, 50, 1000,
+              new GameRandomizer(), options);
+      GenerationMetrics metrics = largeDungeon.getGenerationMetrics();
+      assertTrue(metrics.getWorkUnits(GenerationPhase.TREASURE) > 0);
+      assertEquals(500000, metrics.getWorkUnits(GenerationPhase.ARROWS));
+      assertEquals(1000, metrics.getWorkUnits(GenerationPhase.MONSTERS));
+    }
+  }
+
+  @Test
+  public void testLazyContents() {
+    GenerationOptions options = new GenerationOptions().withContentsMode(ContentsMode.LAZY);
+    DungeonModel lazyDungeon = new DungeonModel(8, 8, false, 4, 100, 1, new GameRandomizer(),
+            options);
+    GenerationMetrics metrics = lazyDungeon.getGenerationMetrics();
+    assertEquals(0, metrics.getWorkUnits(GenerationPhase.TREASURE));
+    assertEquals(0, metrics.getWorkUnits(GenerationPhase.ARROWS));
+    Location start = lazyDungeon.getPlayerCurrentLocation();
+    assertTrue(start.hasTreasure());
+    assertTrue(start.hasArrows());
+    Map<Treasure, Integer> treasure = start.getTreasure();
+    lazyDungeon.playerPickTreasure();
+    lazyDungeon.playerPickArrows();
+    assertEquals(treasure, lazyDungeon.getPlayerDescription().getTreasure());
+    //Contents are only decided once, picked items stay picked
+    assertFalse(lazyDungeon.getPlayerCurrentLocation().hasTreasure());
+    assertFalse(lazyDungeon.getStartLocation().hasArrows());
+    for (List<Location> row : lazyDungeon.getMaze()) {
+      for (Location location : row) {
+        boolean isStart = compareLocations(location, start);
+        assertEquals(location.isCave() && !isStart, location.hasTreasure());
+        assertEquals(!isStart, location.hasArrows());
+      }
+    }
+  }
+
+  @Test
+  public void testLazyContentsWithoutTreasure() {
+    GenerationOptions options = new GenerationOptions().withContentsMode(ContentsMode.LAZY);
+    Dungeon lazyDungeon = new DungeonModel(8, 8, true, 4, 0, 1, new GameRandomizer(), options);
+    for (List<Location> row : lazyDungeon.getMaze()) {
+      for (Location location : row) {
+        assertFalse(location.hasTreasure());
+        assertFalse(location.hasArrows());
+      }
+    }
+  }
+
   private List<Location> getTreasureFilledLocations(List<List<Location>> maze) {
     List<Location> treasureFilledLocations = new ArrayList<>();
     for (List<Location> list : maze) {
@@ -1456,6 +1636,52 @@ public class DungeonTest {
     return visitedGrid;
   }
 
+  private static int getShortestDistance(Dungeon dungeon, Location from, Location to) {
+    List<List<Location>> maze = dungeon.getMaze();
+    int rows = maze.size();
+    int columns = maze.get(0).size();
+    int[] distance = new int[rows * columns];
+    Arrays.fill(distance, -1);
+    ArrayDeque<Location> queue = new ArrayDeque<>();
+    distance[from.getRow() * columns + from.getColumn()] = 0;
+    queue.add(from);
+    while (!queue.isEmpty()) {
+      Location location = queue.remove();
+      int current = distance[location.getRow() * columns + location.getColumn()];
+      for (Move move : location.getNextMoves()) {
+        int row = location.getRow();
+        int column = location.getColumn();
+        switch (move) {
+          case NORTH:
+            row = (row == 0) ? rows - 1 : row - 1;
+            break;
+          case SOUTH:
+            row = (row == rows - 1) ? 0 : row + 1;
+            break;
+          case WEST:
+            column = (column == columns - 1) ? 0 : column + 1;
+            break;
+          default:
+            column = (column == 0) ? columns - 1 : column - 1;
+        }
+        if (distance[row * columns + column] == -1) {
+          distance[row * columns + column] = current + 1;
+          queue.add(maze.get(row).get(column));
+        }
+      }
+    }
+    return distance[to.getRow() * columns + to.getColumn()];
+  }
+
+  private static void assertLargeDungeon(int size, GenerationOptions options) {
+    DungeonModel largeDungeon = new DungeonModel(size, size, true, 10, 0, 1,
+            new GameRandomizer(), options);
+    GenerationMetrics metrics = largeDungeon.getGenerationMetrics();
+    assertEquals(2L * size * size, metrics.getWorkUnits(GenerationPhase.SPANNING_TREE));
+    assertTrue(largeDungeon.getStartLocation().isCave());
+    assertTrue(largeDungeon.getEndLocation().hasMonster());
+  }
+
   private static boolean compareLocations(Location locationA, Location locationB) {
     return locationA.getRow() == locationB.getRow()
             && locationA.getColumn() == locationB.getColumn();
@@ -0,0 +1,173 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+
+import dungeon.Dungeon;
+import dungeon.DungeonModel;
+import dungeon.EllerMazeGenerator;
+import dungeon.GenerationOptions;
+import dungeon.Location;
+import dungeon.MazeAlgorithm;
+import dungeon.MazeRowFileSink;
+import dungeon.Move;
+import randomizer.GameRandomizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the row streaming Eller's maze generator.
+ */
+public class EllerMazeGeneratorTest {
+
+  @Test
+  public void testSpanningTree() throws IOException {
+    assertMaze(8, 6, false, 0);
+    assertMaze(8, 6, true, 0);
+  }
+
+  @Test
+  public void testVerticalWrapEdgesJoinTree() throws IOException {
+    int treesWithVerticalWrap = 0;
+    for (int i = 0; i < 50; i++) {
+      byte[][] grid = new byte[6][];
+      new EllerMazeGenerator(6, 5, true, 0, new GameRandomizer())
+              .generate((row, exits) -> grid[row] = exits.clone());
+      for (byte exits : grid[5]) {
+        if ((exits & (1 << Move.SOUTH.ordinal())) != 0) {
+          treesWithVerticalWrap++;
+          break;
+        }
+      }
+    }
+    assertTrue(treesWithVerticalWrap > 0);
+  }
+
+  @Test
+  public void testInterconnectivity() throws IOException {
+    assertMaze(8, 6, false, 5);
+    assertMaze(7, 9, true, 20);
+    //Every edge of the grid.
+    assertMaze(5, 4, true, 21);
+  }
+
+  @Test
+  public void testRowsStreamToFile() throws IOException {
+    Path file = Files.createTempFile("maze", ".bin");
+    try {
+      try (MazeRowFileSink sink = new MazeRowFileSink(file, 6, 4)) {
+        new EllerMazeGenerator(7, 6, true, 3, new GameRandomizer()).generate(sink);
+      }
+      byte[] bytes = Files.readAllBytes(file);
+      assertEquals(4 + 7 * 6, bytes.length);
+      byte[][] grid = new byte[7][6];
+      for (int x = 0; x < 7; x++) {
+        System.arraycopy(bytes, 4 + x * 6, grid[x], 0, 6);
+      }
+      assertEquals(7 * 6 - 1 + 3, countEdgesAndCheck(grid));
+      assertTrue(isConnected(grid));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testDungeonWithEllerMaze() {
+    GenerationOptions options = new GenerationOptions().withMazeAlgorithm(MazeAlgorithm.ELLER);
+    Dungeon dungeon = new DungeonModel(10, 10, true, 6, 20, 3, new GameRandomizer(), options);
+    int edges = 0;
+    for (List<Location> row : dungeon.getMaze()) {
+      for (Location location : row) {
+        edges += location.getNextMoves().size();
+      }
+    }
+    assertEquals(2 * (10 * 10 - 1 + 6), edges);
+    assertTrue(dungeon.getStartLocation().isCave());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInterconnectivityTooLarge() {
+    new EllerMazeGenerator(5, 4, true, 22, new GameRandomizer());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrappedTooSmall() {
+    new EllerMazeGenerator(2, 4, true, 0, new GameRandomizer());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullRandomizer() {
+    new EllerMazeGenerator(5, 4, false, 0, null);
+  }
+
+  private static void assertMaze(int rows, int columns, boolean wrapped, int interconnectivity)
+          throws IOException {
+    for (int i = 0; i < 20; i++) {
+      byte[][] grid = new byte[rows][];
+      new EllerMazeGenerator(rows, columns, wrapped, interconnectivity, new GameRandomizer())
+              .generate((row, exits) -> grid[row] = exits.clone());
+      assertEquals(rows * columns - 1 + interconnectivity, countEdgesAndCheck(grid));
+      assertTrue(isConnected(grid));
+    }
+  }
+
+  //Counts edges, checking that every exit has a matching exit on the other side.
+  private static int countEdgesAndCheck(byte[][] grid) {
+    int rows = grid.length;
+    int columns = grid[0].length;
+    int exits = 0;
+    for (int x = 0; x < rows; x++) {
+      for (int y = 0; y < columns; y++) {
+        for (Move move : Move.values()) {
+          if ((grid[x][y] & (1 << move.ordinal())) != 0) {
+            int[] next = neighbour(x, y, move, rows, columns);
+            assertTrue((grid[next[0]][next[1]] & (1 << move.getOpposite().ordinal())) != 0);
+            exits++;
+          }
+        }
+      }
+    }
+    return exits / 2;
+  }
+
+  private static boolean isConnected(byte[][] grid) {
+    int rows = grid.length;
+    int columns = grid[0].length;
+    boolean[][] visited = new boolean[rows][columns];
+    ArrayDeque<int[]> queue = new ArrayDeque<>();
+    queue.add(new int[]{0, 0});
+    visited[0][0] = true;
+    int count = 1;
+    while (!queue.isEmpty()) {
+      int[] cell = queue.remove();
+      for (Move move : Move.values()) {
+        if ((grid[cell[0]][cell[1]] & (1 << move.ordinal())) != 0) {
+          int[] next = neighbour(cell[0], cell[1], move, rows, columns);
+          if (!visited[next[0]][next[1]]) {
+            visited[next[0]][next[1]] = true;
+            count++;
+            queue.add(next);
+          }
+        }
+      }
+    }
+    return count == rows * columns;
+  }
+
+  private static int[] neighbour(int x, int y, Move move, int rows, int columns) {
+    switch (move) {
+      case NORTH:
+        return new int[]{(x == 0) ? rows - 1 : x - 1, y};
+      case SOUTH:
+        return new int[]{(x == rows - 1) ? 0 : x + 1, y};
+      case WEST:
+        return new int[]{x, (y == columns - 1) ? 0 : y + 1};
+      default:
+        return new int[]{x, (y == 0) ? columns - 1 : y - 1};
+    }
+  }
+}
@@ -0,0 +1,94 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import randomizer.GameRandomizer;
+import randomizer.Randomizer;
+import randomizer.SplittableRandomizer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the bulk draw methods of Randomizer.
+ */
+public class RandomizerTest {
+
+  @Test
+  public void testBulkDrawsFollowSequence() {
+    Randomizer randomizer = new GameRandomizer(4, 2, 0, 1, 3, 2, 1);
+    int[] values = new int[2];
+    randomizer.fillRandomValues(values, 0, 5);
+    assertArrayEquals(new int[]{4, 2}, values);
+    int[] indices = new int[3];
+    randomizer.fillSamplingIndices(indices, 2, 5);
+    assertArrayEquals(new int[]{0, 1, 0}, indices);
+    //Picks 3 out of 0, 1, 2, 3, 4 then index 2 out of the remaining 1, 2, 0, 4
+    assertArrayEquals(new int[]{3, 0}, randomizer.getDistinctValues(2, 5));
+  }
+
+  @Test
+  public void testSamplingIndicesBounds() {
+    for (Randomizer randomizer : randomizers()) {
+      int[] indices = new int[1000];
+      randomizer.fillSamplingIndices(indices, 1000, 1000);
+      for (int i = 0; i < indices.length; i++) {
+        assertTrue(indices[i] >= 0 && indices[i] <= 999 - i);
+      }
+      int[] values = new int[1000];
+      randomizer.fillRandomValues(values, -3, 3);
+      for (int value : values) {
+        assertTrue(value >= -3 && value <= 3);
+      }
+    }
+  }
+
+  @Test
+  public void testDistinctValues() {
+    for (Randomizer randomizer : randomizers()) {
+      int[] values = randomizer.getDistinctValues(500, 1000000);
+      assertEquals(500, values.length);
+      int[] sorted = values.clone();
+      Arrays.sort(sorted);
+      for (int i = 0; i < sorted.length; i++) {
+        assertTrue(sorted[i] >= 0 && sorted[i] < 1000000);
+        assertTrue(i == 0 || sorted[i] != sorted[i - 1]);
+      }
+    }
+  }
+
+  @Test
+  public void testPermutation() {
+    for (Randomizer randomizer : randomizers()) {
+      int[] permutation = randomizer.getPermutation(1000);
+      int[] sorted = permutation.clone();
+      Arrays.sort(sorted);
+      for (int i = 0; i < sorted.length; i++) {
+        assertEquals(i, sorted[i]);
+      }
+    }
+    assertArrayEquals(new int[]{2, 0, 1}, new GameRandomizer(2, 1, 0).getPermutation(3));
+  }
+
+  @Test
+  public void testSeededBulkDrawsReproducible() {
+    int[] first = new SplittableRandomizer(8).getPermutation(100);
+    int[] second = new SplittableRandomizer(8).getPermutation(100);
+    assertArrayEquals(first, second);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyDistinctValues() {
+    new SplittableRandomizer(1).getDistinctValues(6, 5);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSamplingCount() {
+    new GameRandomizer().fillSamplingIndices(new int[2], 3, 10);
+  }
+
+  private static Randomizer[] randomizers() {
+    return new Randomizer[]{new GameRandomizer(), new SplittableRandomizer(5)};
+  }
+}
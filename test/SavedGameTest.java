@@ -0,0 +1,192 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import dungeon.Dungeon;
+import dungeon.DungeonSpec;
+import dungeon.Location;
+import dungeon.Move;
+import dungeon.SavedGame;
+import randomizer.SplittableRandomizer;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests saving and restoring games in progress with SavedGame.
+ */
+public class SavedGameTest {
+
+  private Path directory;
+  private Path path;
+  private Path journal;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("saved-game");
+    path = directory.resolve("game.dngn");
+    journal = directory.resolve("game.dngn.journal");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    for (Path file : Files.list(directory).toArray(Path[]::new)) {
+      Files.delete(file);
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  public void testRestoreAfterActions() throws IOException {
+    SavedGame game = SavedGame.create(newDungeon(), path);
+    play(game, 40);
+    game.close();
+    SavedGame restored = SavedGame.restore(path, new SplittableRandomizer(2));
+    assertSameGame(game, restored);
+    assertEquals(game.getJournalEntries(), restored.getJournalEntries());
+    restored.close();
+  }
+
+  @Test
+  public void testJournalGrowsByAFewBytesPerAction() throws IOException {
+    SavedGame game = SavedGame.create(newDungeon(), path);
+    long snapshotSize = game.getJournalSize();
+    Move move = game.getAvailableDirections().iterator().next();
+    game.movePlayer(move);
+    assertEquals(1, game.getJournalEntries());
+    assertEquals(snapshotSize + 3, game.getJournalSize());
+    game.close();
+  }
+
+  @Test
+  public void testCompaction() throws IOException {
+    SavedGame game = SavedGame.create(newDungeon(), path, 5);
+    int actions = play(game, 23);
+    assertEquals(actions % 5, game.getJournalEntries());
+    game.close();
+    SavedGame restored = SavedGame.restore(path, new SplittableRandomizer(2), 5);
+    assertSameGame(game, restored);
+    restored.compact();
+    assertEquals(0, restored.getJournalEntries());
+    restored.close();
+    SavedGame compacted = SavedGame.restore(path, new SplittableRandomizer(2));
+    assertSameGame(game, compacted);
+    compacted.close();
+  }
+
+  @Test
+  public void testContinueAfterRestore() throws IOException {
+    SavedGame game = SavedGame.create(newDungeon(), path);
+    play(game, 10);
+    game.close();
+    SavedGame restored = SavedGame.restore(path, new SplittableRandomizer(2));
+    play(restored, 10);
+    restored.close();
+    SavedGame again = SavedGame.restore(path, new SplittableRandomizer(2));
+    assertSameGame(restored, again);
+    again.close();
+  }
+
+  @Test
+  public void testTornRecordIsDropped() throws IOException {
+    SavedGame game = SavedGame.create(newDungeon(), path);
+    play(game, 6);
+    game.close();
+    byte[] bytes = Files.readAllBytes(journal);
+    byte[] torn = Arrays.copyOf(bytes, bytes.length + 2);
+    torn[bytes.length] = 1;
+    torn[bytes.length + 1] = 0;
+    Files.write(journal, torn);
+    SavedGame restored = SavedGame.restore(path, new SplittableRandomizer(2));
+    assertSameGame(game, restored);
+    assertEquals(bytes.length, restored.getJournalSize());
+    restored.close();
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingJournal() throws IOException {
+    SavedGame.create(newDungeon(), path).close();
+    Files.delete(journal);
+    SavedGame.restore(path, new SplittableRandomizer(2));
+  }
+
+  @Test
+  public void testClosedGameIsNotChanged() throws IOException {
+    SavedGame game = SavedGame.create(newDungeon(), path);
+    play(game, 5);
+    game.close();
+    SavedGame restored = SavedGame.restore(path, new SplittableRandomizer(2));
+    Move move = game.getAvailableDirections().iterator().next();
+    List<Runnable> actions = List.of(() -> game.movePlayer(move), game::playerPickTreasure,
+        game::playerPickArrows, () -> game.shootArrow(move, 1));
+    for (Runnable action : actions) {
+      try {
+        action.run();
+        throw new AssertionError("Expected the closed game to refuse the action");
+      } catch (IllegalStateException e) {
+        assertEquals("Saved game is closed", e.getMessage());
+      }
+    }
+    assertSameGame(restored, game);
+    restored.close();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCompactionInterval() throws IOException {
+    SavedGame.create(newDungeon(), path, 0);
+  }
+
+  private static Dungeon newDungeon() {
+    return new DungeonSpec(8, 10, true, 5, 80, 6, 31).build();
+  }
+
+  //Plays the given number of actions, cycling through picking, shooting and moving.
+  private static int play(Dungeon game, int actions) {
+    int played = 0;
+    for (int turn = 0; played < actions && !game.isGameOver(); turn++) {
+      Location location = game.getPlayerCurrentLocation();
+      if (location.hasTreasure()) {
+        game.playerPickTreasure();
+      } else if (location.hasArrows()) {
+        game.playerPickArrows();
+      } else if (turn % 3 == 0 && game.getPlayerDescription().hasArrows()) {
+        Move direction = game.getAvailableDirections().iterator().next();
+        game.shootArrow(direction, 1 + turn % 3);
+      } else {
+        List<Move> moves = Arrays.asList(game.getAvailableDirections().toArray(new Move[0]));
+        game.movePlayer(moves.get(turn % moves.size()));
+      }
+      played++;
+    }
+    return played;
+  }
+
+  private static void assertSameGame(Dungeon expected, Dungeon actual) {
+    List<List<Location>> expectedMaze = expected.getMaze();
+    List<List<Location>> actualMaze = actual.getMaze();
+    for (int row = 0; row < expectedMaze.size(); row++) {
+      for (int column = 0; column < expectedMaze.get(row).size(); column++) {
+        Location a = expectedMaze.get(row).get(column);
+        Location b = actualMaze.get(row).get(column);
+        assertEquals(a.getTreasure(), b.getTreasure());
+        assertEquals(a.getArrows(), b.getArrows());
+        assertEquals(expected.getSmell(a), actual.getSmell(b));
+      }
+    }
+    Location expectedLocation = expected.getPlayerCurrentLocation();
+    Location actualLocation = actual.getPlayerCurrentLocation();
+    assertEquals(expectedLocation.getRow(), actualLocation.getRow());
+    assertEquals(expectedLocation.getColumn(), actualLocation.getColumn());
+    assertEquals(expected.getPlayerDescription().getArrows(),
+            actual.getPlayerDescription().getArrows());
+    assertEquals(expected.getPlayerDescription().getTreasure(),
+            actual.getPlayerDescription().getTreasure());
+    assertEquals(expected.isGameOver(), actual.isGameOver());
+    assertEquals(expected.isPlayerDead(), actual.isPlayerDead());
+  }
+}
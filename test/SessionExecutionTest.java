@@ -0,0 +1,188 @@
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dungeon.DungeonCache;
+import dungeon.DungeonConsoleController;
+import dungeon.DungeonServer;
+import dungeon.DungeonSpec;
+import dungeon.SessionExecution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the SessionExecution thread kinds.
+ */
+public class SessionExecutionTest {
+  private static final int IDLE_SESSIONS = 100_000;
+  private static final int FALLBACK_IDLE_SESSIONS = 2_000;
+  private static final int PROBE_SESSIONS = 200;
+
+  @Test
+  public void testPlatformThreads() throws InterruptedException {
+    assertTrue(SessionExecution.PLATFORM_THREADS.isSupported());
+    ThreadFactory factory = SessionExecution.PLATFORM_THREADS.newThreadFactory("test-");
+    CountDownLatch ran = new CountDownLatch(1);
+    Thread thread = factory.newThread(ran::countDown);
+    assertTrue(thread.isDaemon());
+    assertEquals("test-1", thread.getName());
+    assertEquals("test-2", factory.newThread(ran::countDown).getName());
+    thread.start();
+    assertTrue(ran.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testVirtualThreadsAlwaysRun() throws InterruptedException {
+    ThreadFactory factory = SessionExecution.VIRTUAL_THREADS.newThreadFactory("test-");
+    CountDownLatch ran = new CountDownLatch(1);
+    Thread thread = factory.newThread(ran::countDown);
+    assertEquals("test-1", thread.getName());
+    assertTrue(thread.isDaemon());
+    thread.start();
+    assertTrue(ran.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testVirtualThreadsSupportedFromJava21() {
+    assertEquals(Runtime.version().feature() >= 21,
+            SessionExecution.VIRTUAL_THREADS.isSupported());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullPrefix() {
+    SessionExecution.VIRTUAL_THREADS.newThreadFactory(null);
+  }
+
+  @Test
+  public void testManyIdleSessions() throws InterruptedException {
+    //Without virtual threads every session holds a platform thread, so fewer are played.
+    int sessions = SessionExecution.VIRTUAL_THREADS.isSupported() ? IDLE_SESSIONS
+            : FALLBACK_IDLE_SESSIONS;
+    DungeonCache cache = new DungeonCache(1);
+    DungeonSpec spec = new DungeonSpec(6, 6, false, 0, 20, 1, 7);
+    ThreadFactory factory = SessionExecution.VIRTUAL_THREADS.newThreadFactory("idle-");
+    CountDownLatch waiting = new CountDownLatch(sessions);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch ended = new CountDownLatch(sessions);
+    AtomicInteger completed = new AtomicInteger();
+    for (int i = 0; i < sessions; i++) {
+      Reader player = new IdlePlayer(waiting, release);
+      factory.newThread(() -> {
+        try {
+          StringWriter out = new StringWriter();
+          new DungeonConsoleController(player, out).play(cache.getDungeon(spec));
+          if (out.toString().contains("What do you want to do?")) {
+            completed.incrementAndGet();
+          }
+        } catch (IOException e) {
+          //counted as not completed
+        } finally {
+          ended.countDown();
+        }
+      }).start();
+    }
+    assertTrue(waiting.await(2, TimeUnit.MINUTES));
+    release.countDown();
+    assertTrue(ended.await(2, TimeUnit.MINUTES));
+    assertEquals(sessions, completed.get());
+  }
+
+  @Test
+  public void testIdleSessionsDoNotPinCarriers() throws IOException, InterruptedException {
+    Assume.assumeTrue(SessionExecution.VIRTUAL_THREADS.isSupported());
+    String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    Process probe = new ProcessBuilder(java, "-Djdk.tracePinnedThreads=full", "-cp",
+            System.getProperty("java.class.path"), PinningProbe.class.getName())
+            .redirectErrorStream(true).start();
+    String output = new String(probe.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertTrue(probe.waitFor(2, TimeUnit.MINUTES));
+    //A virtual thread that blocks while holding a monitor prints its stack before "done".
+    assertEquals("done", output.trim());
+  }
+
+  //A player that waits to be released before quitting the game.
+  private static final class IdlePlayer extends Reader {
+    private final CountDownLatch waiting;
+    private final CountDownLatch release;
+    private boolean quit;
+
+    IdlePlayer(CountDownLatch waiting, CountDownLatch release) {
+      this.waiting = waiting;
+      this.release = release;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+      if (quit) {
+        return -1;
+      }
+      waiting.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      quit = true;
+      buffer[offset] = 'Q';
+      buffer[offset + 1] = '\n';
+      return 2;
+    }
+
+    @Override
+    public void close() {
+      quit = true;
+    }
+  }
+
+  //Plays idle sessions of a server on virtual threads over the loopback interface, every
+  //session blocked reading its socket before its player quits. Run in its own JVM so the
+  //pinned thread trace goes to its output only.
+  public static final class PinningProbe {
+    public static void main(String[] args) throws IOException, InterruptedException {
+      DungeonCache cache = new DungeonCache(1);
+      DungeonSpec spec = new DungeonSpec(6, 6, false, 0, 20, 1, 7);
+      InetAddress loopback = InetAddress.getLoopbackAddress();
+      try (DungeonServer server = new DungeonServer(0, loopback, PROBE_SESSIONS, 60_000,
+              () -> cache.getDungeon(spec), SessionExecution.VIRTUAL_THREADS)) {
+        server.start();
+        Socket[] players = new Socket[PROBE_SESSIONS];
+        for (int i = 0; i < players.length; i++) {
+          players[i] = new Socket(loopback, server.getPort());
+          players[i].setSoTimeout(60_000);
+          readUntilPrompt(players[i].getInputStream());
+        }
+        Thread.sleep(500);
+        for (Socket player : players) {
+          player.getOutputStream().write("Q\n".getBytes(StandardCharsets.UTF_8));
+          player.getInputStream().readAllBytes();
+          player.close();
+        }
+      }
+      System.out.println("done");
+    }
+
+    private static void readUntilPrompt(InputStream in) throws IOException {
+      StringBuilder read = new StringBuilder();
+      while (read.indexOf("QUIT: Q") < 0) {
+        int next = in.read();
+        if (next < 0) {
+          throw new IOException("Session ended before its prompt: " + read);
+        }
+        read.append((char) next);
+      }
+    }
+  }
+}
@@ -0,0 +1,94 @@
+import org.junit.Test;
+
+import java.util.List;
+
+import dungeon.Dungeon;
+import dungeon.DungeonModel;
+import dungeon.Location;
+import dungeon.Treasure;
+import randomizer.SplittableRandomizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the seedable SplittableRandomizer.
+ */
+public class SplittableRandomizerTest {
+
+  @Test
+  public void testSameSeedSameValues() {
+    SplittableRandomizer first = new SplittableRandomizer(17);
+    SplittableRandomizer second = new SplittableRandomizer(17);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(first.getRandomValue(0, i), second.getRandomValue(0, i));
+    }
+    assertEquals(17, first.getSeed());
+  }
+
+  @Test
+  public void testValuesInRange() {
+    SplittableRandomizer randomizer = new SplittableRandomizer(3);
+    boolean[] seen = new boolean[5];
+    for (int i = 0; i < 1000; i++) {
+      int value = randomizer.getRandomValue(-2, 2);
+      assertTrue(value >= -2 && value <= 2);
+      seen[value + 2] = true;
+    }
+    for (boolean value : seen) {
+      assertTrue(value);
+    }
+    assertEquals(4, randomizer.getRandomValue(4, 4));
+    int value = randomizer.getRandomValue(Integer.MAX_VALUE - 1, Integer.MAX_VALUE);
+    assertTrue(value >= Integer.MAX_VALUE - 1);
+    randomizer.getRandomValue(Integer.MIN_VALUE, Integer.MAX_VALUE);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRange() {
+    new SplittableRandomizer(3).getRandomValue(2, 1);
+  }
+
+  @Test
+  public void testSplitIsReproducible() {
+    SplittableRandomizer first = new SplittableRandomizer(99);
+    SplittableRandomizer second = new SplittableRandomizer(99);
+    SplittableRandomizer firstChild = first.split();
+    SplittableRandomizer secondChild = second.split();
+    int[] parentValues = new int[100];
+    int[] childValues = new int[100];
+    for (int i = 0; i < 100; i++) {
+      parentValues[i] = first.getRandomValue(0, Integer.MAX_VALUE - 1);
+      childValues[i] = firstChild.getRandomValue(0, Integer.MAX_VALUE - 1);
+      assertEquals(childValues[i], secondChild.getRandomValue(0, Integer.MAX_VALUE - 1));
+      assertEquals(parentValues[i], second.getRandomValue(0, Integer.MAX_VALUE - 1));
+    }
+    assertNotEquals(parentValues[0], childValues[0]);
+    assertEquals(99, firstChild.getSeed());
+  }
+
+  @Test
+  public void testSeedReproducesDungeon() {
+    Dungeon first = new DungeonModel(10, 12, true, 8, 40, 4, new SplittableRandomizer(2021));
+    Dungeon second = new DungeonModel(10, 12, true, 8, 40, 4, new SplittableRandomizer(2021));
+    List<List<Location>> firstMaze = first.getMaze();
+    List<List<Location>> secondMaze = second.getMaze();
+    for (int row = 0; row < firstMaze.size(); row++) {
+      for (int column = 0; column < firstMaze.get(row).size(); column++) {
+        Location a = firstMaze.get(row).get(column);
+        Location b = secondMaze.get(row).get(column);
+        assertEquals(a.getNextMoves(), b.getNextMoves());
+        assertEquals(a.getArrows(), b.getArrows());
+        assertEquals(a.hasMonster(), b.hasMonster());
+        for (Treasure treasure : Treasure.values()) {
+          assertEquals(a.getTreasure().get(treasure), b.getTreasure().get(treasure));
+        }
+      }
+    }
+    assertEquals(first.getStartLocation().getRow(), second.getStartLocation().getRow());
+    assertEquals(first.getStartLocation().getColumn(), second.getStartLocation().getColumn());
+    assertEquals(first.getEndLocation().getRow(), second.getEndLocation().getRow());
+    assertEquals(first.getEndLocation().getColumn(), second.getEndLocation().getColumn());
+  }
+}
@@ -0,0 +1,94 @@
+package dungeon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import randomizer.GameRandomizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the package private CellSampler.
+ */
+public class CellSamplerTest {
+
+  private MazeGrid grid;
+
+  @Before
+  public void setUp() {
+    grid = new MazeGrid(5, 4);
+    //Cells 0 to 3 become tunnels, every other cell stays a cave
+    for (int cell = 0; cell < 4; cell++) {
+      grid.addExit(cell, Move.NORTH);
+      grid.addExit(cell, Move.SOUTH);
+    }
+  }
+
+  @Test
+  public void testCandidates() {
+    assertEquals(20, new CellSampler(grid, false, SamplingMode.ORDERED).size());
+    assertEquals(16, new CellSampler(grid, true, SamplingMode.ORDERED).size());
+    assertEquals(14, new CellSampler(grid, true, SamplingMode.SWAP, 9, 2, 4).size());
+  }
+
+  @Test
+  public void testOrderedDrawsInCellOrder() {
+    CellSampler sampler = new CellSampler(grid, true, SamplingMode.ORDERED);
+    GameRandomizer randomizer = new GameRandomizer(0, 0, 3);
+    assertEquals(4, sampler.draw(randomizer));
+    assertEquals(5, sampler.draw(randomizer));
+    assertEquals(9, sampler.draw(randomizer));
+    assertEquals(13, sampler.size());
+  }
+
+  @Test
+  public void testSwapDrawsDistinctCells() {
+    CellSampler sampler = new CellSampler(grid, true, SamplingMode.SWAP, 7, 19);
+    GameRandomizer randomizer = new GameRandomizer();
+    Set<Integer> drawn = new HashSet<>();
+    while (sampler.size() > 0) {
+      int cell = sampler.draw(randomizer);
+      assertTrue(grid.isCave(cell));
+      assertTrue(drawn.add(cell));
+    }
+    assertEquals(14, drawn.size());
+    assertFalse(drawn.contains(7));
+    assertFalse(drawn.contains(19));
+  }
+
+  @Test
+  public void testBulkDrawMatchesSingleDraws() {
+    CellSampler single = new CellSampler(grid, true, SamplingMode.SWAP, 5);
+    CellSampler bulk = new CellSampler(grid, true, SamplingMode.SWAP, 5);
+    int[] cells = bulk.draw(new GameRandomizer(3, 12, 0, 7), 4);
+    GameRandomizer randomizer = new GameRandomizer(3, 12, 0, 7);
+    for (int cell : cells) {
+      assertEquals(single.draw(randomizer), cell);
+    }
+    assertEquals(11, bulk.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBulkDrawTooMany() {
+    new CellSampler(grid, true, SamplingMode.SWAP).draw(new GameRandomizer(), 17);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testDrawWhenEmpty() {
+    CellSampler sampler = new CellSampler(grid, false, SamplingMode.SWAP);
+    GameRandomizer randomizer = new GameRandomizer();
+    for (int i = 0; i <= 20; i++) {
+      sampler.draw(randomizer);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullMaze() {
+    new CellSampler(null, true, SamplingMode.ORDERED);
+  }
+}
@@ -0,0 +1,96 @@
+package dungeon;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the dispatch of commands to the package private CommandHandler objects of a
+ * DungeonConsoleController.
+ */
+public class CommandDispatchTest {
+  private static final DungeonSpec SPEC = new DungeonSpec(8, 10, true, 5, 60, 4, 31);
+
+  @Test
+  public void testNewCommandOfferedLast() throws IOException {
+    StringBuilder gameLog = new StringBuilder();
+    DungeonConsoleController controller =
+            new DungeonConsoleController(new StringReader("A A q"), gameLog);
+    CountingHandler handler = new CountingHandler(CommandHandler.Result.NEXT_COMMAND);
+    controller.register(Commands.PICKARROWS, handler);
+    controller.play(SPEC.build());
+    assertEquals(2, handler.executed);
+    assertTrue(gameLog.toString().contains(" QUIT: Q PICKARROWS: A\n"));
+  }
+
+  @Test
+  public void testReplacedHandlerKeepsItsPlace() throws IOException {
+    StringBuilder gameLog = new StringBuilder();
+    DungeonConsoleController controller =
+            new DungeonConsoleController(new StringReader("M"), gameLog);
+    CountingHandler handler = new CountingHandler(CommandHandler.Result.END_GAME);
+    controller.register(Commands.MOVE, handler);
+    controller.play(SPEC.build());
+    assertEquals(1, handler.executed);
+    assertTrue(gameLog.toString().contains("What do you want to do? MOVE: M"));
+    assertFalse(gameLog.toString().contains("Where do we go?"));
+  }
+
+  @Test
+  public void testNextTurnDescribesLocationAgain() throws IOException {
+    StringBuilder gameLog = new StringBuilder();
+    DungeonConsoleController controller =
+            new DungeonConsoleController(new StringReader("A A q"), gameLog);
+    controller.register(Commands.PICKARROWS, new CountingHandler(CommandHandler.Result.NEXT_TURN));
+    controller.play(SPEC.build());
+    assertEquals(3, controller.getRenderMetrics().getTurns());
+    assertEquals(3, gameLog.toString().split("You can move in", -1).length - 1);
+  }
+
+  @Test
+  public void testUnavailableCommandIsIgnored() throws IOException {
+    StringBuilder gameLog = new StringBuilder();
+    DungeonConsoleController controller =
+            new DungeonConsoleController(new StringReader("A q"), gameLog);
+    CountingHandler handler = new CountingHandler(CommandHandler.Result.NEXT_COMMAND);
+    handler.available = false;
+    controller.register(Commands.PICKARROWS, handler);
+    controller.play(SPEC.build());
+    assertEquals(0, handler.executed);
+    assertFalse(gameLog.toString().contains("PICKARROWS"));
+    assertFalse(gameLog.toString().contains("Please choose one of the valid commands"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRegisterNullHandler() {
+    new DungeonConsoleController(new StringReader("q"), new StringBuilder())
+            .register(Commands.MOVE, null);
+  }
+
+  //Counts the times it is played and plays nothing.
+  private static final class CountingHandler implements CommandHandler {
+    private final Result result;
+    private boolean available = true;
+    private int executed;
+
+    CountingHandler(Result result) {
+      this.result = result;
+    }
+
+    @Override
+    public boolean isAvailable(Dungeon model, Location location) {
+      return available;
+    }
+
+    @Override
+    public Result execute(CommandContext context) {
+      executed++;
+      return result;
+    }
+  }
+}
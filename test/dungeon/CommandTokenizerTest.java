@@ -0,0 +1,218 @@
+package dungeon;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the package private CommandTokenizer.
+ */
+public class CommandTokenizerTest {
+
+  @Test
+  public void testMatchesScanner() throws IOException {
+    String input = "  M n\tS\n\nW 3 \r\n p  A q ";
+    CommandTokenizer tokens = tokenizer(new StringReader(input), new StringBuilder());
+    Scanner scanner = new Scanner(input);
+    while (scanner.hasNext()) {
+      tokens.next();
+      assertEquals(scanner.next(), text(tokens));
+    }
+    assertEndOfInput(tokens);
+  }
+
+  @Test
+  public void testTokensAcrossReads() throws IOException {
+    CommandTokenizer tokens = tokenizer(new ChunkReadable("M", "O", "VE ", " N", "ORTH\n3"),
+            new StringBuilder());
+    List<String> read = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      tokens.next();
+      read.add(text(tokens));
+    }
+    assertEquals(List.of("MOVE", "NORTH", "3"), read);
+    assertEndOfInput(tokens);
+  }
+
+  @Test
+  public void testTokenLongerThanBuffer() throws IOException {
+    StringBuilder longToken = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      longToken.append((char) ('a' + i % 26));
+    }
+    CommandTokenizer tokens = tokenizer(new StringReader(" " + longToken + " q"),
+            new StringBuilder());
+    tokens.next();
+    assertEquals(longToken.toString(), text(tokens));
+    tokens.next();
+    assertEquals("q", text(tokens));
+  }
+
+  @Test
+  public void testManyTokensReuseBuffer() throws IOException {
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      input.append("M N ");
+    }
+    CommandTokenizer tokens = tokenizer(new StringReader(input.toString()), new StringBuilder());
+    char[] first = null;
+    for (int i = 0; i < 20000; i++) {
+      tokens.next();
+      if (first == null) {
+        first = tokens.chars();
+      }
+      assertEquals(i % 2 == 0 ? "M" : "N", text(tokens));
+    }
+    assertTrue(first == tokens.chars());
+  }
+
+  @Test
+  public void testSkipLine() throws IOException {
+    CommandTokenizer tokens = tokenizer(new StringReader("D M N\nQ X\n"), new StringBuilder());
+    tokens.next();
+    assertEquals("M N", tokens.skipLine());
+    tokens.next();
+    assertEquals("Q", text(tokens));
+    tokens.next();
+    assertEquals("", tokens.skipLine());
+    assertEndOfInput(tokens);
+  }
+
+  @Test
+  public void testSkipLineNotYetRead() throws IOException {
+    CommandTokenizer tokens = tokenizer(new ChunkReadable("D M", " N", " S\nQ"),
+            new StringBuilder());
+    tokens.next();
+    assertEquals("M", tokens.skipLine());
+    tokens.next();
+    assertEquals("Q", text(tokens));
+  }
+
+  @Test
+  public void testParseInt() throws IOException {
+    CommandTokenizer tokens = tokenizer(new StringReader("3 -7 +12 2147483647 -2147483648"),
+            new StringBuilder());
+    int[] expected = {3, -7, 12, Integer.MAX_VALUE, Integer.MIN_VALUE};
+    for (int value : expected) {
+      tokens.next();
+      assertEquals(value, tokens.parseInt());
+    }
+  }
+
+  @Test
+  public void testParseIntRejectsWhatParseIntRejects() throws IOException {
+    String[] invalid = {"-", "+", "3a", "2147483648", "-2147483649", "1.5", "--1"};
+    CommandTokenizer tokens = tokenizer(new StringReader(String.join(" ", invalid)),
+            new StringBuilder());
+    for (String token : invalid) {
+      tokens.next();
+      try {
+        tokens.parseInt();
+      } catch (NumberFormatException e) {
+        continue;
+      }
+      throw new AssertionError("Accepted " + token);
+    }
+  }
+
+  @Test
+  public void testSendsOutputBeforeReading() throws IOException {
+    StringBuilder sent = new StringBuilder();
+    TurnOutput output = new TurnOutput(sent, FlushPolicy.PER_TURN, 1, new RenderMetrics());
+    List<String> seenBeforeRead = new ArrayList<>();
+    Readable input = new ChunkReadable("M ", "N ") {
+      @Override
+      public int read(CharBuffer buffer) {
+        seenBeforeRead.add(sent.toString());
+        return super.read(buffer);
+      }
+    };
+    CommandTokenizer tokens = new CommandTokenizer(input, output);
+    output.append("prompt");
+    tokens.next();
+    assertEquals("prompt", seenBeforeRead.get(0));
+  }
+
+  @Test
+  public void testInputExceptionEndsInput() throws IOException {
+    Reader failing = new Reader() {
+      @Override
+      public int read(char[] buffer, int offset, int length) throws IOException {
+        throw new IOException("Connection reset");
+      }
+
+      @Override
+      public void close() {
+        //nothing to release
+      }
+    };
+    assertEndOfInput(tokenizer(failing, new StringBuilder()));
+  }
+
+  @Test
+  public void testCommandsFromRange() {
+    char[] chars = "xmPsQtAz".toCharArray();
+    Commands[] expected = {Commands.MOVE, Commands.PICKUP, Commands.SHOOT, Commands.QUIT,
+        Commands.PICKTREASURE, Commands.PICKARROWS};
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i], Commands.getByShortHand(chars, i + 1, 1));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCommandsFromLongRange() {
+    Commands.getByShortHand("MM".toCharArray(), 0, 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCommandsFromRangeOutside() {
+    Commands.getByShortHand("M".toCharArray(), 1, 1);
+  }
+
+  private static CommandTokenizer tokenizer(Readable input, Appendable sent) {
+    return new CommandTokenizer(input,
+            new TurnOutput(sent, FlushPolicy.PER_TURN, 1, new RenderMetrics()));
+  }
+
+  private static String text(CommandTokenizer tokens) {
+    return new String(tokens.chars(), tokens.start(), tokens.length());
+  }
+
+  private static void assertEndOfInput(CommandTokenizer tokens) throws IOException {
+    try {
+      tokens.next();
+    } catch (NoSuchElementException e) {
+      return;
+    }
+    throw new AssertionError("Expected the end of input");
+  }
+
+  //Gives the input in the given chunks, one per read.
+  private static class ChunkReadable implements Readable {
+    private final String[] chunks;
+    private int next;
+
+    ChunkReadable(String... chunks) {
+      this.chunks = chunks;
+    }
+
+    @Override
+    public int read(CharBuffer buffer) {
+      if (next == chunks.length) {
+        return -1;
+      }
+      buffer.put(chunks[next]);
+      return chunks[next++].length();
+    }
+  }
+}
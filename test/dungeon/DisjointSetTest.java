@@ -0,0 +1,101 @@
+package dungeon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the package private DisjointSet class used for maze generation.
+ */
+public class DisjointSetTest {
+
+  private DisjointSet disjointSet;
+
+  @Before
+  public void setUp() {
+    disjointSet = new DisjointSet(6);
+  }
+
+  @Test
+  public void testInitialSets() {
+    assertEquals(6, disjointSet.getNumberOfSets());
+    for (int i = 0; i < 6; i++) {
+      assertEquals(i, disjointSet.find(i));
+    }
+  }
+
+  @Test
+  public void testUnion() {
+    assertTrue(disjointSet.union(0, 1));
+    assertTrue(disjointSet.union(2, 3));
+    assertEquals(4, disjointSet.getNumberOfSets());
+    assertEquals(disjointSet.find(0), disjointSet.find(1));
+    assertNotEquals(disjointSet.find(1), disjointSet.find(2));
+    assertTrue(disjointSet.union(1, 3));
+    assertEquals(disjointSet.find(0), disjointSet.find(2));
+    assertEquals(3, disjointSet.getNumberOfSets());
+  }
+
+  @Test
+  public void testUnionSameSet() {
+    assertTrue(disjointSet.union(4, 5));
+    assertFalse(disjointSet.union(5, 4));
+    assertFalse(disjointSet.union(4, 4));
+    assertEquals(5, disjointSet.getNumberOfSets());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeSize() {
+    new DisjointSet(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFindOutOfRange() {
+    disjointSet.find(6);
+  }
+
+  @Test(timeout = 10000)
+  public void testKruskalScaling1000x1000() {
+    assertSpanningTree(1000, 1000);
+  }
+
+  @Test(timeout = 20000)
+  public void testKruskalScaling2000x2000() {
+    assertSpanningTree(2000, 2000);
+  }
+
+  private static void assertSpanningTree(int rows, int columns) {
+    int cells = rows * columns;
+    int[] edgeCells = new int[cells * 2];
+    int[] edgeNeighbours = new int[cells * 2];
+    int edges = 0;
+    for (int x = 0; x < rows; x++) {
+      for (int y = 0; y < columns; y++) {
+        int cell = x * columns + y;
+        edgeCells[edges] = cell;
+        edgeNeighbours[edges++] = ((x == 0) ? rows - 1 : x - 1) * columns + y;
+        edgeCells[edges] = cell;
+        edgeNeighbours[edges++] = x * columns + ((y == columns - 1) ? 0 : y + 1);
+      }
+    }
+    Random random = new Random(42);
+    DisjointSet cellSets = new DisjointSet(cells);
+    int treeEdges = 0;
+    for (int i = edges - 1; i >= 0; i--) {
+      int j = random.nextInt(i + 1);
+      if (cellSets.union(edgeCells[j], edgeNeighbours[j])) {
+        treeEdges++;
+      }
+      edgeCells[j] = edgeCells[i];
+      edgeNeighbours[j] = edgeNeighbours[i];
+    }
+    assertEquals(cells - 1, treeEdges);
+    assertEquals(1, cellSets.getNumberOfSets());
+  }
+}
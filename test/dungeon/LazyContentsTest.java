@@ -0,0 +1,134 @@
+package dungeon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the package private LazyContents.
+ */
+public class LazyContentsTest {
+
+  private MazeGrid grid;
+
+  @Before
+  public void setUp() {
+    grid = new MazeGrid(50, 40);
+    //The first row becomes tunnels, every other cell stays a cave
+    for (int cell = 0; cell < 40; cell++) {
+      grid.addExit(cell, Move.NORTH);
+      grid.addExit(cell, Move.SOUTH);
+    }
+  }
+
+  @Test
+  public void testContentsDependOnlyOnSeedAndCell() {
+    LazyContents first = new LazyContents(grid, 42, 50);
+    LazyContents second = new LazyContents(grid, 42, 50);
+    LazyContents other = new LazyContents(grid, 43, 50);
+    int differences = 0;
+    for (int cell = grid.getSize() - 1; cell >= 0; cell--) {
+      assertEquals(first.getTreasureBits(cell), second.getTreasureBits(cell));
+      assertEquals(first.getArrows(cell), second.getArrows(cell));
+      assertEquals(first.getArrows(cell), first.getArrows(cell));
+      if (first.getArrows(cell) != other.getArrows(cell)) {
+        differences++;
+      }
+    }
+    assertNotEquals(0, differences);
+  }
+
+  @Test
+  public void testFullPercentage() {
+    LazyContents contents = new LazyContents(grid, 7, 100);
+    for (int cell = 0; cell < grid.getSize(); cell++) {
+      int bits = contents.getTreasureBits(cell);
+      assertEquals(grid.isCave(cell), bits != 0);
+      assertTrue(contents.getArrows(cell) >= 1 && contents.getArrows(cell) <= 3);
+      for (Treasure treasure : Treasure.values()) {
+        assertTrue(MazeGrid.unpackTreasure(bits, treasure) <= 5);
+      }
+    }
+  }
+
+  @Test
+  public void testZeroPercentage() {
+    LazyContents contents = new LazyContents(grid, 7, 0);
+    for (int cell = 0; cell < grid.getSize(); cell++) {
+      assertEquals(0, contents.getTreasureBits(cell));
+      assertEquals(0, contents.getArrows(cell));
+    }
+  }
+
+  @Test
+  public void testPercentageInExpectation() {
+    LazyContents contents = new LazyContents(grid, 11, 30);
+    int treasureCaves = 0;
+    int arrowCells = 0;
+    for (int cell = 0; cell < grid.getSize(); cell++) {
+      treasureCaves += contents.getTreasureBits(cell) != 0 ? 1 : 0;
+      arrowCells += contents.getArrows(cell) > 0 ? 1 : 0;
+    }
+    //1960 caves and 2000 cells, allow five standard deviations around 30 percent
+    assertTrue(Math.abs(treasureCaves - 588) < 102);
+    assertTrue(Math.abs(arrowCells - 600) < 103);
+  }
+
+  @Test
+  public void testGridReadsLazyContents() {
+    LazyContents contents = new LazyContents(grid, 3, 100);
+    grid.setContents(contents);
+    grid.freeze();
+    int cell = grid.getCell(10, 10);
+    assertEquals(contents.getArrows(cell), grid.getArrows(cell));
+    assertTrue(grid.hasTreasure(cell));
+    MazeState state = new MazeState(grid);
+    state.getLocation(cell).pickArrows();
+    assertFalse(state.getLocation(cell).hasArrows());
+    assertEquals(contents.getArrows(cell), grid.getArrows(cell));
+  }
+
+  @Test
+  public void testViewDerivesTreasureOnce() {
+    LazyContents lazy = new LazyContents(grid, 3, 100);
+    int[] reads = new int[1];
+    grid.setContents(new CellContents() {
+      @Override
+      public int getTreasureBits(int cell) {
+        reads[0]++;
+        return lazy.getTreasureBits(cell);
+      }
+
+      @Override
+      public int getArrows(int cell) {
+        return lazy.getArrows(cell);
+      }
+    });
+    grid.freeze();
+    int cell = grid.getCell(10, 10);
+    Map<Treasure, Integer> treasure = new MazeState(grid).getLocation(cell).getTreasure();
+    assertEquals(1, reads[0]);
+    int bits = lazy.getTreasureBits(cell);
+    for (Treasure type : Treasure.values()) {
+      int quantity = MazeGrid.unpackTreasure(bits, type);
+      assertEquals(quantity == 0 ? null : quantity, treasure.get(type));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testNoStoredContentsWhenLazy() {
+    grid.setContents(new LazyContents(grid, 3, 100));
+    grid.setArrows(0, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidPercentage() {
+    new LazyContents(grid, 3, 101);
+  }
+}
@@ -0,0 +1,53 @@
+package dungeon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the package private MazeBfs search.
+ */
+public class MazeBfsTest {
+
+  private MazeGrid grid;
+  private MazeBfs bfs;
+
+  @Before
+  public void setUp() {
+    //A path along row 0 from column 0 to 3 and down from column 0 to row 2.
+    grid = new MazeGrid(5, 4);
+    for (int y = 0; y < 3; y++) {
+      grid.addExit(grid.getCell(0, y), Move.WEST);
+      grid.addExit(grid.getCell(0, y + 1), Move.EAST);
+    }
+    for (int x = 0; x < 2; x++) {
+      grid.addExit(grid.getCell(x, 0), Move.SOUTH);
+      grid.addExit(grid.getCell(x + 1, 0), Move.NORTH);
+    }
+    bfs = new MazeBfs(grid);
+  }
+
+  @Test
+  public void testSweepDistances() {
+    assertEquals(6, bfs.sweep(grid.getCell(0, 0)));
+    assertEquals(0, bfs.getDistance(grid.getCell(0, 0)));
+    assertEquals(3, bfs.getDistance(grid.getCell(0, 3)));
+    assertEquals(2, bfs.getDistance(grid.getCell(2, 0)));
+    assertFalse(bfs.isReached(grid.getCell(4, 3)));
+    assertEquals(grid.getCell(0, 0), bfs.getCell(0));
+  }
+
+  @Test
+  public void testSweepReusesBuffers() {
+    bfs.sweep(grid.getCell(0, 0));
+    assertEquals(6, bfs.sweep(grid.getCell(2, 0)));
+    assertEquals(5, bfs.getDistance(grid.getCell(0, 3)));
+    assertEquals(1, bfs.sweep(grid.getCell(4, 3)));
+    assertTrue(bfs.isReached(grid.getCell(4, 3)));
+    assertFalse(bfs.isReached(grid.getCell(0, 0)));
+    assertEquals(1, bfs.getReached());
+  }
+}
@@ -0,0 +1,169 @@
+package dungeon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the package private MazeGrid store, the MazeState of a game and its LocationView cells.
+ */
+public class MazeGridTest {
+
+  private MazeGrid grid;
+  private MazeState state;
+
+  @Before
+  public void setUp() {
+    grid = new MazeGrid(5, 4);
+    state = new MazeState(grid);
+  }
+
+  @Test
+  public void testCellCoordinates() {
+    int cell = grid.getCell(3, 2);
+    assertEquals(14, cell);
+    assertEquals(3, grid.getRow(cell));
+    assertEquals(2, grid.getColumn(cell));
+    assertEquals(20, grid.getSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCell() {
+    grid.getCell(5, 0);
+  }
+
+  @Test
+  public void testNeighbourWrapsAround() {
+    assertEquals(grid.getCell(4, 0), grid.getNeighbour(grid.getCell(0, 0), Move.NORTH));
+    assertEquals(grid.getCell(0, 0), grid.getNeighbour(grid.getCell(4, 0), Move.SOUTH));
+    assertEquals(grid.getCell(0, 0), grid.getNeighbour(grid.getCell(0, 3), Move.WEST));
+    assertEquals(grid.getCell(0, 3), grid.getNeighbour(grid.getCell(0, 0), Move.EAST));
+  }
+
+  @Test
+  public void testExits() {
+    int cell = grid.getCell(1, 1);
+    assertTrue(grid.isCave(cell));
+    grid.addExit(cell, Move.NORTH);
+    grid.addExit(cell, Move.WEST);
+    assertEquals(EnumSet.of(Move.NORTH, Move.WEST), grid.getExits(cell));
+    assertTrue(grid.hasExit(cell, Move.NORTH));
+    assertFalse(grid.hasExit(cell, Move.SOUTH));
+    assertFalse(grid.isCave(cell));
+    grid.addExit(cell, Move.SOUTH);
+    assertTrue(grid.isCave(cell));
+  }
+
+  @Test
+  public void testTreasurePacking() {
+    LocationPrivate location = state.getLocation(grid.getCell(2, 2));
+    assertFalse(location.hasTreasure());
+    location.setTreasure(Treasure.RUBIES, 5);
+    location.setTreasure(Treasure.DIAMONDS, 1);
+    location.setTreasure(Treasure.RUBIES, 2);
+    Map<Treasure, Integer> treasure = location.getTreasure();
+    assertEquals(2, treasure.size());
+    assertEquals(Integer.valueOf(7), treasure.get(Treasure.RUBIES));
+    assertEquals(Integer.valueOf(1), treasure.get(Treasure.DIAMONDS));
+    location.pickTreasure(Treasure.RUBIES, 7);
+    location.pickTreasure(Treasure.DIAMONDS, 1);
+    assertFalse(location.hasTreasure());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testPickMissingTreasure() {
+    state.getLocation(0).pickTreasure(Treasure.SAPPHIRES, 1);
+  }
+
+  @Test
+  public void testArrowsAndMonster() {
+    LocationPrivate location = state.getLocation(grid.getCell(4, 3));
+    location.setArrows(3);
+    assertEquals(3, location.getArrows());
+    assertEquals(3, location.pickArrows());
+    assertFalse(location.hasArrows());
+    assertFalse(location.hasMonster());
+    location.setMonster();
+    assertTrue(location.hasMonster());
+    location.hitMonster();
+    location.hitMonster();
+    assertFalse(location.hasMonster());
+    assertTrue(location.getMonster().isDead());
+  }
+
+  @Test
+  public void testViewsShareState() {
+    LocationPrivate first = state.getLocation(7);
+    LocationPrivate second = state.getLocation(7);
+    assertEquals(first, second);
+    assertEquals(first.hashCode(), second.hashCode());
+    assertNotEquals(first, state.getLocation(8));
+    assertNotEquals(first, new MazeState(grid).getLocation(7));
+    first.setArrows(2);
+    assertEquals(2, second.getArrows());
+  }
+
+  @Test
+  public void testGamesShareFrozenGrid() {
+    int cell = grid.getCell(2, 1);
+    grid.addExit(cell, Move.EAST);
+    grid.setArrows(cell, 2);
+    grid.setTreasure(cell, Treasure.RUBIES, 4);
+    grid.setMonster(cell);
+    grid.freeze();
+    MazeState first = new MazeState(grid);
+    MazeState second = new MazeState(grid);
+    assertEquals(0, first.getChangedCells());
+    first.getLocation(cell).pickArrows();
+    first.getLocation(cell).pickTreasure(Treasure.RUBIES, 3);
+    first.getLocation(cell).hitMonster();
+    first.getLocation(cell).hitMonster();
+    //Arrows, treasure and monster changed in one cell.
+    assertEquals(1, first.getChangedCells());
+    assertEquals(0, first.getArrows(cell));
+    assertEquals(1, first.getTreasure(cell, Treasure.RUBIES));
+    assertFalse(first.hasLiveMonster(cell));
+    assertEquals(2, second.getArrows(cell));
+    assertEquals(4, second.getTreasure(cell, Treasure.RUBIES));
+    assertTrue(second.hasLiveMonster(cell));
+    assertEquals(0, second.getChangedCells());
+    assertEquals(2, grid.getArrows(cell));
+    assertTrue(grid.hasLiveMonster(cell));
+  }
+
+  @Test
+  public void testReadingMonsterChangesNothing() {
+    int cell = grid.getCell(1, 1);
+    grid.setMonster(cell);
+    grid.freeze();
+    LocationPrivate location = state.getLocation(cell);
+    assertTrue(location.hasMonster());
+    assertFalse(location.getMonster().isInjured());
+    assertTrue(state.hasLiveMonster(cell));
+    assertEquals(0, state.getChangedCells());
+    assertTrue(state.getChangedCellSet().isEmpty());
+    location.hitMonster();
+    assertEquals(1, state.getChangedCells());
+    assertTrue(location.getMonster().isInjured());
+    assertFalse(grid.getMonster(cell).isInjured());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFrozenExits() {
+    grid.freeze();
+    state.getLocation(3).setNextMove(Move.NORTH);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFrozenContents() {
+    grid.freeze();
+    grid.setArrows(3, 1);
+  }
+}
@@ -0,0 +1,79 @@
+package dungeon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the package private RemovalList.
+ */
+public class RemovalListTest {
+
+  @Test
+  public void testOrderedMatchesListRemoval() {
+    Random random = new Random(3);
+    int[] values = new int[1000];
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i * 7;
+      expected.add(i * 7);
+    }
+    RemovalList removalList = new RemovalList(values, values.length, SamplingMode.ORDERED);
+    while (removalList.size() > 0) {
+      int index = random.nextInt(removalList.size());
+      assertEquals((int) expected.remove(index), removalList.remove(index));
+      assertEquals(expected.size(), removalList.size());
+    }
+  }
+
+  @Test
+  public void testSwapMovesLastIntoPlace() {
+    int[] values = {10, 20, 30, 40, 50};
+    RemovalList removalList = new RemovalList(values, values.length, SamplingMode.SWAP);
+    assertEquals(20, removalList.remove(1));
+    assertEquals(50, removalList.remove(1));
+    assertEquals(10, removalList.remove(0));
+    assertEquals(2, removalList.size());
+    //Removed values are kept at the end of the array, in removal order from the back.
+    assertArrayEquals(new int[]{30, 40, 10, 50, 20}, values);
+  }
+
+  @Test
+  public void testSwapRemovesEveryValueOnce() {
+    Random random = new Random(5);
+    int[] values = new int[500];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i;
+    }
+    RemovalList removalList = new RemovalList(values, values.length, SamplingMode.SWAP);
+    boolean[] seen = new boolean[values.length];
+    while (removalList.size() > 0) {
+      int value = removalList.remove(random.nextInt(removalList.size()));
+      assertEquals(false, seen[value]);
+      seen[value] = true;
+    }
+    boolean[] all = new boolean[values.length];
+    Arrays.fill(all, true);
+    assertEquals(Arrays.toString(all), Arrays.toString(seen));
+  }
+
+  @Test
+  public void testPrefixOfArray() {
+    int[] values = {1, 2, 3, 4};
+    RemovalList removalList = new RemovalList(values, 2, SamplingMode.ORDERED);
+    assertEquals(2, removalList.remove(1));
+    assertEquals(1, removalList.remove(0));
+    assertEquals(0, removalList.size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRemoveOutOfRange() {
+    new RemovalList(new int[]{1, 2}, 2, SamplingMode.ORDERED).remove(2);
+  }
+}
@@ -0,0 +1,91 @@
+package dungeon;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the package private SmellField.
+ */
+public class SmellFieldTest {
+
+  @Test
+  public void testSmellAroundMonster() {
+    //A single corridor of 6 cells with a monster in the middle of it.
+    MazeGrid corridor = new MazeGrid(1, 6);
+    for (int y = 0; y < 5; y++) {
+      corridor.addExit(y, Move.WEST);
+      corridor.addExit(y + 1, Move.EAST);
+    }
+    corridor.setMonster(2);
+    SmellField smellField = new SmellField(new MazeState(corridor));
+    assertEquals(0, smellField.getSmell(5));
+    assertEquals(1, smellField.getSmell(0));
+    assertEquals(2, smellField.getSmell(1));
+    assertEquals(2, smellField.getSmell(2));
+    assertEquals(2, smellField.getSmell(3));
+    assertEquals(1, smellField.getSmell(4));
+  }
+
+  @Test
+  public void testUpdateMatchesRecompute() {
+    Random random = new Random(7);
+    MazeGrid grid = new MazeGrid(12, 10);
+    for (int cell = 0; cell < grid.getSize(); cell++) {
+      for (Move move : new Move[]{Move.NORTH, Move.WEST}) {
+        if (random.nextInt(3) != 0) {
+          grid.addExit(cell, move);
+          grid.addExit(grid.getNeighbour(cell, move), move.getOpposite());
+        }
+      }
+    }
+    for (int i = 0; i < 15; i++) {
+      grid.setMonster(random.nextInt(grid.getSize()));
+    }
+    MazeState state = new MazeState(grid);
+    SmellField smellField = new SmellField(state);
+    for (int monsterCell : grid.getMonsterCells().toArray(new Integer[0])) {
+      state.hitMonster(monsterCell);
+      state.hitMonster(monsterCell);
+      smellField.update(monsterCell);
+      SmellField expected = new SmellField(state);
+      for (int cell = 0; cell < grid.getSize(); cell++) {
+        assertEquals(expected.getSmell(cell), smellField.getSmell(cell));
+      }
+    }
+    for (int cell = 0; cell < grid.getSize(); cell++) {
+      assertEquals(0, smellField.getSmell(cell));
+    }
+  }
+
+  @Test
+  public void testNewGameStartsFromInitialSmell() {
+    MazeGrid corridor = new MazeGrid(1, 6);
+    for (int y = 0; y < 5; y++) {
+      corridor.addExit(y, Move.WEST);
+      corridor.addExit(y + 1, Move.EAST);
+    }
+    corridor.setMonster(2);
+    corridor.freeze();
+    MazeState first = new MazeState(corridor);
+    SmellField firstField = new SmellField(first);
+    first.hitMonster(2);
+    first.hitMonster(2);
+    firstField.update(2);
+    MazeState second = new MazeState(corridor);
+    SmellField secondField = firstField.newGame(second);
+    for (int cell = 0; cell < 6; cell++) {
+      assertEquals(0, firstField.getSmell(cell));
+    }
+    assertEquals(1, secondField.getSmell(0));
+    assertEquals(2, secondField.getSmell(2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNewGameOnOtherGrid() {
+    MazeGrid grid = new MazeGrid(5, 4);
+    new SmellField(new MazeState(grid)).newGame(new MazeState(new MazeGrid(5, 4)));
+  }
+}
@@ -0,0 +1,106 @@
+package dungeon;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import randomizer.GameRandomizer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the package private StartEndSelector.
+ */
+public class StartEndSelectorTest {
+
+  private MazeGrid corridor;
+
+  @Before
+  public void setUp() {
+    //A single corridor of 8 cells, only the two ends are caves and they are 7 moves apart.
+    corridor = new MazeGrid(1, 8);
+    for (int y = 0; y < 7; y++) {
+      corridor.addExit(y, Move.WEST);
+      corridor.addExit(y + 1, Move.EAST);
+    }
+  }
+
+  @Test
+  public void testSelectsValidPairs() {
+    assertArrayEquals(new int[]{0, 7},
+            new StartEndSelector(corridor, 6).select(new GameRandomizer(0)));
+    assertArrayEquals(new int[]{7, 0},
+            new StartEndSelector(corridor, 7).select(new GameRandomizer(1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoPairAfterCounting() {
+    new StartEndSelector(corridor, 8).select(new GameRandomizer());
+  }
+
+  @Test
+  public void testFailsFastWithoutCounting() {
+    StartEndSelector selector = new StartEndSelector(corridor, 15);
+    try {
+      selector.select(new GameRandomizer());
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("15"));
+    }
+    //Only the first bounding sweep runs.
+    assertEquals(8, selector.getCellsVisited());
+  }
+
+  @Test
+  public void testLargeMazeFailsAfterBoundedSweeps() {
+    //The farthest caves of an open 40 by 40 grid are 76 moves apart, its corners are tunnels.
+    MazeGrid open = openGrid(40);
+    StartEndSelector selector = new StartEndSelector(open, 77);
+    try {
+      selector.select(new GameRandomizer(3));
+      throw new AssertionError("Expected no pair");
+    } catch (IllegalArgumentException iae) {
+      assertTrue(iae.getMessage().contains("77"));
+    }
+    assertTrue(selector.getCellsVisited() <= 66 * open.getSize());
+  }
+
+  @Test
+  public void testLargeMazeFallsBackToBoundingPair() {
+    MazeGrid open = openGrid(40);
+    StartEndSelector selector = new StartEndSelector(open, 76);
+    int[] startEnd = selector.select(new GameRandomizer(3));
+    MazeBfs bfs = new MazeBfs(open);
+    bfs.sweep(startEnd[0]);
+    assertEquals(76, bfs.getDistance(startEnd[1]));
+    assertTrue(open.isCave(startEnd[0]) && open.isCave(startEnd[1]));
+    assertTrue(selector.getCellsVisited() <= 66 * open.getSize());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidMinimumDistance() {
+    new StartEndSelector(corridor, 0);
+  }
+
+  //A size by size grid with every exit inside the grid open.
+  private static MazeGrid openGrid(int size) {
+    MazeGrid grid = new MazeGrid(size, size);
+    for (int cell = 0; cell < grid.getSize(); cell++) {
+      int row = grid.getRow(cell);
+      int column = grid.getColumn(cell);
+      if (row > 0) {
+        grid.addExit(cell, Move.NORTH);
+      }
+      if (row < size - 1) {
+        grid.addExit(cell, Move.SOUTH);
+      }
+      if (column < size - 1) {
+        grid.addExit(cell, Move.WEST);
+      }
+      if (column > 0) {
+        grid.addExit(cell, Move.EAST);
+      }
+    }
+    return grid;
+  }
+}
@@ -0,0 +1,83 @@
+package dungeon;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import randomizer.GameRandomizer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the package private TiledMazeGenerator.
+ */
+public class TiledMazeGeneratorTest {
+
+  @Test
+  public void testSpanningTree() {
+    //Partial tiles in both directions.
+    for (boolean wrapped : new boolean[]{false, true}) {
+      MazeGrid maze = new MazeGrid(300, 530);
+      int[] skipped = new TiledMazeGenerator(maze, wrapped, 11L).generate(4);
+      long edges = EllerMazeGenerator.getTotalEdges(300, 530, wrapped);
+      assertEquals(edges - (maze.getSize() - 1), skipped.length);
+      assertEquals(maze.getSize() - 1, countEdges(maze));
+      assertEquals(maze.getSize(), new MazeBfs(maze).sweep(0));
+    }
+  }
+
+  @Test
+  public void testDeterministicAcrossThreadCounts() {
+    MazeGrid single = new MazeGrid(520, 600);
+    int[] singleSkipped = new TiledMazeGenerator(single, true, 42L).generate(1);
+    MazeGrid parallel = new MazeGrid(520, 600);
+    int[] parallelSkipped = new TiledMazeGenerator(parallel, true, 42L).generate(8);
+    assertArrayEquals(singleSkipped, parallelSkipped);
+    for (int cell = 0; cell < single.getSize(); cell++) {
+      assertEquals(single.getExitMask(cell), parallel.getExitMask(cell));
+    }
+  }
+
+  @Test
+  public void testSeedChangesMaze() {
+    MazeGrid first = new MazeGrid(20, 20);
+    new TiledMazeGenerator(first, false, 1L).generate(2);
+    MazeGrid second = new MazeGrid(20, 20);
+    new TiledMazeGenerator(second, false, 2L).generate(2);
+    boolean differs = false;
+    for (int cell = 0; cell < first.getSize(); cell++) {
+      differs |= first.getExitMask(cell) != second.getExitMask(cell);
+    }
+    assertTrue(differs);
+  }
+
+  @Test
+  public void testDungeonWithParallelMaze() {
+    GenerationOptions options = new GenerationOptions()
+            .withMazeAlgorithm(MazeAlgorithm.PARALLEL_TILED).withParallelism(3);
+    DungeonModel dungeon = new DungeonModel(12, 9, true, 5, 20, 2, new GameRandomizer(),
+            options);
+    int exits = 0;
+    for (List<Location> row : dungeon.getMaze()) {
+      for (Location location : row) {
+        exits += location.getNextMoves().size();
+      }
+    }
+    assertEquals(2 * (12 * 9 - 1 + 5), exits);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidParallelism() {
+    new TiledMazeGenerator(new MazeGrid(5, 4), false, 1L).generate(0);
+  }
+
+  private static int countEdges(MazeGrid maze) {
+    int exits = 0;
+    for (int cell = 0; cell < maze.getSize(); cell++) {
+      exits += Integer.bitCount(maze.getExitMask(cell));
+    }
+    return exits / 2;
+  }
+}